@@ -12,9 +12,9 @@ public class TestMeGeneratorGroovyJunit4Test extends TestMeGeneratorJunit4Test {
     public TestMeGeneratorGroovyJunit4Test() {
         super(TemplateRegistry.JUNIT4_MOCKITO_GROOVY_TEMPLATE, "testGroovy", Language.Groovy);
         expectedTestClassExtension = "groovy";
+        mergeSupported = false;
         skipTestIfGroovyPluginDisabled();
     }
-
     public void testBean() throws Exception{
         doTest();
     }
@@ -44,6 +44,9 @@ public class TestMeGeneratorJunit4Test extends TestMeGeneratorTestBase{
     public void testOverloading() {
         doTest();
     }
+    public void testMergeIntoExistingTestClass() {
+        doMergeTest("existingTest");
+    }
     public void testNoFormatting() {
         doTest(false, false, false);
     }
@@ -15,6 +15,7 @@ import org.junit.Assert;
 import java.util.GregorianCalendar;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Date: 13/12/2016
@@ -28,6 +29,10 @@ abstract public class TestMeGeneratorTestBase extends BaseIJIntegrationTest/*Jav
     private final Language language;
     protected String expectedTestClassExtension = "java";
     protected boolean testEnabled = true;
+    /**
+     * false - when test classes of the tested language can not be merged into. merge tests are skipped
+     */
+    protected boolean mergeSupported = true;
     protected boolean ignoreTrailingWhitespaces;
 
     protected TestMeGeneratorTestBase(String templateFilename, String testDirectory, Language language) {
@@ -97,11 +102,36 @@ abstract public class TestMeGeneratorTestBase extends BaseIJIntegrationTest/*Jav
     }
 
     protected void doTest(final String packageName, String testSubjectClassName, final String expectedTestClassName, final FileTemplateConfig fileTemplateConfig) {
+        doTest(packageName, testSubjectClassName, expectedTestClassName, fileTemplateConfig, null);
+    }
+
+    /**
+     * generates tests into an existing test class, copied from existingTestDirectory to the test subject package
+     */
+    protected void doMergeTest(String existingTestDirectory) {
+        if (!mergeSupported) {
+            System.out.println("merging into " + expectedTestClassExtension + " test classes is not supported. Skipping test");
+            return;
+        }
+        final TestMeConfig testMeConfig = new TestMeConfig();
+        testMeConfig.setOptimizeImports(false);
+        testMeConfig.setReplaceFullyQualifiedNames(false);
+        final FileTemplateConfig fileTemplateConfig = new FileTemplateConfig(testMeConfig);
+        fileTemplateConfig.setMaxRecursionDepth(4);
+        doTest("com.example.services.impl", "Foo", "FooTest", fileTemplateConfig, existingTestDirectory);
+    }
+
+    private void doTest(final String packageName, String testSubjectClassName, final String expectedTestClassName, final FileTemplateConfig fileTemplateConfig, final String existingTestDirectory) {
         if (!testEnabled) {
             System.out.println(expectedTestClassExtension+ " idea plugin disabled. Skipping test");
             return;
         }
         final PsiClass fooClass = setupSourceFiles(packageName, testSubjectClassName);
+        final boolean mergeIntoExistingTestClass = existingTestDirectory != null;
+        if (mergeIntoExistingTestClass) {
+            final String existingTestClassFilePath = (packageName.length() > 0 ? (packageName.replace(".", "/") + "/") : "") + expectedTestClassName + "." + expectedTestClassExtension;
+            myFixture.copyFileToProject(existingTestDirectory + "/" + existingTestClassFilePath, existingTestClassFilePath);
+        }
         final PsiDirectory srcDir = fooClass.getContainingFile().getContainingDirectory();
         final PsiPackage targetPackage = JavaDirectoryService.getInstance().getPackage(srcDir);
 
@@ -115,7 +145,8 @@ abstract public class TestMeGeneratorTestBase extends BaseIJIntegrationTest/*Jav
                     getModule(),
                     srcDir,
                     fooClass,
-                    fileTemplateConfig));
+                    fileTemplateConfig,
+                    mergeIntoExistingTestClass));
             System.out.println("result:"+result);
             verifyGeneratedTest(packageName, expectedTestClassName);
         }, CodeInsightBundle.message("intention.create.test"), this);
@@ -136,11 +167,11 @@ abstract public class TestMeGeneratorTestBase extends BaseIJIntegrationTest/*Jav
     private TestTemplateContextBuilder mockTestTemplateContextBuilder() {
         return new TestTemplateContextBuilder(new MockBuilderFactory()){
             @Override
-            public Map<String, Object> build(FileTemplateContext context, Properties defaultProperties) {
+            public Map<String, Object> build(FileTemplateContext context, Properties defaultProperties, Set<String> testedMethodIds) {
                 Properties mockedDefaultProperties = new Properties();
                 new GregorianCalendar(2016, java.util.Calendar.JANUARY, 11, 22, 45).getTime();
                 mockedDefaultProperties.put("YEAR", 2016);
-                Map<String, Object> contextMap = super.build(context, mockedDefaultProperties);
+                Map<String, Object> contextMap = super.build(context, mockedDefaultProperties, testedMethodIds);
                 contextMap.put("MONTH_NAME_EN", "JANUARY");
                 contextMap.put("DAY_NUMERIC", 11);
                 contextMap.put("HOUR_NUMERIC", 22);
@@ -0,0 +1,73 @@
+package com.weirddev.testme.intellij;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parsed velocity templates keyed by template name and content hash.
+ * Since the key is derived from the template content, an edited template is simply parsed again under a new key and the stale AST eventually evicted.
+ */
+class CompiledTemplateCache {
+    static final int DEFAULT_MAX_SIZE = 64;
+    private final Map<String, SimpleNode> compiledTemplates;
+    private int hitsCount;
+    private int missesCount;
+
+    CompiledTemplateCache(int maxSize) {
+        compiledTemplates = new LinkedHashMap<String, SimpleNode>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SimpleNode> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Nullable
+    synchronized SimpleNode get(String templateName, String content) {
+        final SimpleNode compiledTemplate = compiledTemplates.get(toKey(templateName, content));
+        if (compiledTemplate == null) {
+            missesCount++;
+        } else {
+            hitsCount++;
+        }
+        return compiledTemplate;
+    }
+
+    synchronized void put(String templateName, String content, @NotNull SimpleNode compiledTemplate) {
+        compiledTemplates.put(toKey(templateName, content), compiledTemplate);
+    }
+
+    synchronized int size() {
+        return compiledTemplates.size();
+    }
+
+    synchronized int getHitsCount() {
+        return hitsCount;
+    }
+
+    synchronized int getMissesCount() {
+        return missesCount;
+    }
+
+    @NotNull
+    static String hash(@NotNull String content) {
+        try {
+            return StringUtil.toHexString(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NotNull
+    private static String toKey(String templateName, String content) {
+        return templateName + ":" + hash(content);
+    }
+}
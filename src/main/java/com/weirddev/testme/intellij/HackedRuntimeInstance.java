@@ -2,16 +2,23 @@ package com.weirddev.testme.intellij;
 
 import com.intellij.ide.fileTemplates.FileTemplate;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.util.io.StreamUtil;
 import com.weirddev.testme.intellij.ui.template.TestMeTemplateManager;
 import org.apache.commons.collections.ExtendedProperties;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.apache.velocity.runtime.RuntimeInstance;
+import org.apache.velocity.runtime.parser.ParseException;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
 import org.apache.velocity.runtime.resource.Resource;
 import org.apache.velocity.runtime.resource.loader.ResourceLoader;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.util.Optional;
 import java.util.Vector;
@@ -21,6 +28,7 @@ import java.util.stream.Stream;
  * Motivation: use a hidden folder where included velocity templates can be referenced. the default IJ includes folder can be overridden by the user. overriding the included macros will break plugin functionality on upgrades
  * Implementation: an ugly hack on velocity inner implementation.
  * Reasoning: Velocity is statically initialized, globally, in IJ IDEA. Extending IJ Classes that initialize Velocity is tricky since their API keeps changing between versions 14 - 2016
+ * Also caches parsed templates and includes by content hash while TestMe renders a test (see {@link #computeWithCompiledTemplatesCache}), so repeated generations skip template parsing.
  *
  * Date: 2/13/2017
  * @author Yaron Yamin
@@ -30,6 +38,8 @@ public class HackedRuntimeInstance extends RuntimeInstance {
     private static final Logger LOG = Logger.getInstance(HackedRuntimeInstance.class.getName());
     private static final String TEST_ME_INCLUDES_DIR = "testMeIncludes";
     private static final String RESOURCE_LOADER_KEY = "resource.loader";
+    private static final ThreadLocal<Boolean> useCompiledTemplatesCache = ThreadLocal.withInitial(() -> false);
+    private final CompiledTemplateCache compiledTemplateCache = new CompiledTemplateCache(CompiledTemplateCache.DEFAULT_MAX_SIZE);
 
     public HackedRuntimeInstance(RuntimeInstance existingRi) {
         Object resourceLoaderProperty = initFromRuntimeInstance(existingRi);
@@ -62,16 +72,52 @@ public class HackedRuntimeInstance extends RuntimeInstance {
 
             @Override
             public boolean isSourceModified(Resource resource) {
-                return true;
+                return resource.getLastModified() != getLastModified(resource);
             }
 
             @Override
             public long getLastModified(Resource resource) {
-                return 0L;
+                return TestMeTemplateManager.getDefaultInstance().getPatternsModificationCount();
             }
         });
     }
 
+    /**
+     * Runs computation, typically a TestMe template merge, reusing parsed templates cached by their content hash for any template parsed by this thread during the computation
+     */
+    public static <T, E extends Throwable> T computeWithCompiledTemplatesCache(ThrowableComputable<T, E> computable) throws E {
+        final boolean previous = useCompiledTemplatesCache.get();
+        useCompiledTemplatesCache.set(true);
+        try {
+            return computable.compute();
+        } finally {
+            useCompiledTemplatesCache.set(previous);
+        }
+    }
+
+    @Override
+    public SimpleNode parse(Reader reader, String templateName, boolean dumpNamespace) throws ParseException {
+        if (!useCompiledTemplatesCache.get()) {
+            return super.parse(reader, templateName, dumpNamespace);
+        }
+        final String content;
+        try {
+            content = StreamUtil.readText(reader);
+        } catch (IOException e) {
+            throw new ParseException("failed reading template " + templateName + ": " + e.getMessage());
+        }
+        SimpleNode compiledTemplate = compiledTemplateCache.get(templateName, content);
+        if (compiledTemplate == null) {
+            compiledTemplate = super.parse(new StringReader(content), templateName, dumpNamespace);
+            if (compiledTemplate != null) {
+                compiledTemplateCache.put(templateName, content, compiledTemplate);
+            }
+        } else {
+            LOG.debug("reusing compiled template " + templateName);
+        }
+        return compiledTemplate;
+    }
+
     @Nullable
     private Object initFromRuntimeInstance(RuntimeInstance otherRi) {
         if (otherRi == null) {
@@ -0,0 +1,396 @@
+package com.weirddev.testme.intellij.action;
+
+import com.intellij.ide.fileTemplates.FileTemplateDescriptor;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.weirddev.testme.intellij.action.helpers.GeneratedClassNameResolver;
+import com.weirddev.testme.intellij.action.helpers.TargetDirectoryLocator;
+import com.weirddev.testme.intellij.configuration.TestMeConfigPersistent;
+import com.weirddev.testme.intellij.generator.TestMeGenerator;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetrics;
+import com.weirddev.testme.intellij.template.FileTemplateConfig;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TemplateDescriptor;
+import com.weirddev.testme.intellij.utils.TestSubjectResolverUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Generates tests for all testable classes under selected source directories.
+ * Test template contexts are built and rendered in parallel by a bounded pool of non-blocking read actions. Resolved types are shared between them through the project level type dictionary cache.
+ * Test files are then created from the rendered text, each in a write command on the UI thread.
+ * A class failing to generate is reported as failed once the batch is done, without aborting generation of the other classes.
+ */
+public class BatchTestsCreator {
+    private static final Logger LOG = Logger.getInstance(BatchTestsCreator.class.getName());
+    private static final int MAX_FAILED_CLASSES_TO_REPORT = 10;
+    private final TestMeGenerator testMeGenerator;
+    private final TargetDirectoryLocator targetDirectoryLocator;
+    private final GeneratedClassNameResolver generatedClassNameResolver;
+
+    public BatchTestsCreator() {
+        this(new TestMeGenerator(), new TargetDirectoryLocator(), new GeneratedClassNameResolver());
+    }
+
+    BatchTestsCreator(TestMeGenerator testMeGenerator, TargetDirectoryLocator targetDirectoryLocator, GeneratedClassNameResolver generatedClassNameResolver) {
+        this.testMeGenerator = testMeGenerator;
+        this.targetDirectoryLocator = targetDirectoryLocator;
+        this.generatedClassNameResolver = generatedClassNameResolver;
+    }
+
+    public void createTests(@NotNull final Project project, @NotNull final Collection<VirtualFile> sourceRoots, @NotNull final TemplateDescriptor templateDescriptor) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "TestMe: Generating tests", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setText("Looking for classes to test");
+                final List<SmartPsiElementPointer<PsiClass>> testSubjects = ReadAction.compute(() -> findTestSubjects(project, sourceRoots));
+                notifyDone(project, generateTests(project, testSubjects, templateDescriptor, indicator));
+            }
+        });
+    }
+
+    /**
+     * Generates tests for given classes in the calling thread. Should not be invoked on the UI thread
+     * @return outcome and timings of each test subject
+     */
+    @NotNull
+    public BatchReport generateTests(@NotNull Project project, @NotNull List<SmartPsiElementPointer<PsiClass>> testSubjects, @NotNull TemplateDescriptor templateDescriptor, @NotNull ProgressIndicator indicator) {
+        final long start = System.currentTimeMillis();
+        final BatchReport report = new BatchReport();
+        final List<GenerationTask> tasks = new ArrayList<>();
+        ApplicationManager.getApplication().invokeAndWait(() -> tasks.addAll(createGenerationTasks(project, testSubjects, templateDescriptor, report)));
+        buildTemplateContexts(project, tasks, indicator, report);
+        writeTests(project, tasks, indicator, report);
+        report.totalMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    /**
+     * Finds testable classes in production sources under given directories or files. Requires read access
+     */
+    @NotNull
+    public List<SmartPsiElementPointer<PsiClass>> findTestSubjects(Project project, Collection<VirtualFile> sourceRoots) {
+        final ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        final SmartPointerManager smartPointerManager = SmartPointerManager.getInstance(project);
+        final Set<PsiClass> testSubjects = new LinkedHashSet<>();
+        for (VirtualFile sourceRoot : sourceRoots) {
+            VfsUtilCore.iterateChildrenRecursively(sourceRoot, file -> !fileIndex.isExcluded(file), file -> {
+                ProgressManager.checkCanceled();
+                if (!file.isDirectory() && fileIndex.isInSourceContent(file) && !fileIndex.isInTestSourceContent(file)) {
+                    final PsiFile psiFile = psiManager.findFile(file);
+                    if (psiFile instanceof PsiClassOwner) {
+                        for (PsiClass psiClass : ((PsiClassOwner) psiFile).getClasses()) {
+                            if (TestSubjectResolverUtils.isValidForTesting(psiClass)) {
+                                testSubjects.add(psiClass);
+                            }
+                        }
+                    }
+                }
+                return true;
+            });
+        }
+        final List<SmartPsiElementPointer<PsiClass>> pointers = new ArrayList<>();
+        for (PsiClass testSubject : testSubjects) {
+            pointers.add(smartPointerManager.createSmartPsiElementPointer(testSubject));
+        }
+        return pointers;
+    }
+
+    /**
+     * resolves test directories. may prompt the user to choose a test source root unless headless, so should run on the UI thread
+     */
+    private List<GenerationTask> createGenerationTasks(Project project, List<SmartPsiElementPointer<PsiClass>> testSubjects, TemplateDescriptor templateDescriptor, BatchReport report) {
+        final List<GenerationTask> tasks = new ArrayList<>();
+        final Map<Pair<Module, String>, Optional<PsiDirectory>> targetDirectories = new HashMap<>();
+        final FileTemplateConfig fileTemplateConfig = new FileTemplateConfig(TestMeConfigPersistent.getInstance().getState());
+        for (SmartPsiElementPointer<PsiClass> testSubject : testSubjects) {
+            final PsiClass srcClass = testSubject.getElement();
+            try {
+                final GenerationTask task = createGenerationTask(project, srcClass, templateDescriptor, fileTemplateConfig, targetDirectories);
+                if (task == null) {
+                    report.add(new ClassReport(srcClass == null ? null : srcClass.getQualifiedName(), null, ClassReport.Status.SKIPPED, null));
+                } else {
+                    tasks.add(task);
+                }
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                final String srcClassName = srcClass == null ? null : srcClass.getQualifiedName();
+                LOG.warn("failed resolving test directory for " + srcClassName, e);
+                report.add(new ClassReport(srcClassName, null, ClassReport.Status.FAILED, null, e));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * @return null if srcClass should be skipped
+     */
+    @Nullable
+    private GenerationTask createGenerationTask(Project project, @Nullable PsiClass srcClass, TemplateDescriptor templateDescriptor, FileTemplateConfig fileTemplateConfig,
+                                                Map<Pair<Module, String>, Optional<PsiDirectory>> targetDirectories) {
+        final Module srcModule = srcClass == null ? null : ModuleUtilCore.findModuleForPsiElement(srcClass);
+        final PsiDirectory srcDir = srcClass == null ? null : srcClass.getContainingFile().getContainingDirectory();
+        final PsiPackage srcPackage = srcDir == null ? null : JavaDirectoryService.getInstance().getPackage(srcDir);
+        if (srcModule == null || srcPackage == null) {
+            return null;
+        }
+        final Module testModule = CreateTestMeAction.suggestModuleForTestsReflective(project, srcModule);
+        final List<VirtualFile> testRoots = CreateTestMeAction.computeTestRoots(testModule);
+        if (testRoots.isEmpty() && CreateTestMeAction.computeSuitableTestRootUrls(testModule).isEmpty()) {
+            LOG.debug("no test roots found for module " + testModule.getName() + ". skipping " + srcClass.getQualifiedName());
+            return null;
+        }
+        final PsiDirectory targetDirectory = targetDirectories.computeIfAbsent(Pair.create(testModule, srcPackage.getQualifiedName()),
+                key -> Optional.ofNullable(targetDirectoryLocator.getOrCreateDirectory(project, srcPackage, testModule))).orElse(null);
+        if (targetDirectory == null) {
+            return null;
+        }
+        final FileTemplateContext context = new FileTemplateContext(new FileTemplateDescriptor(templateDescriptor.getFilename()), templateDescriptor.getLanguage(), project,
+                generatedClassNameResolver.composeTestClassName(srcClass), srcPackage, srcModule, testModule, targetDirectory, srcClass, fileTemplateConfig);
+        return new GenerationTask(srcClass.getQualifiedName(), context);
+    }
+
+    private void buildTemplateContexts(Project project, List<GenerationTask> tasks, ProgressIndicator indicator, BatchReport report) {
+        indicator.setText("Inspecting classes to test");
+        indicator.setIndeterminate(false);
+        final int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("TestMe Batch Generator", parallelism);
+        try {
+            final List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (GenerationTask task : tasks) {
+                futures.add(executor.submit(() -> ReadAction.nonBlocking(() -> buildTemplateContext(task))
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .executeSynchronously()));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                indicator.checkCanceled();
+                final GenerationTask task = tasks.get(i);
+                try {
+                    task.templateCtxtParams = futures.get(i).get();
+                    if (task.templateCtxtParams == null) {
+                        report.add(task.toReport(ClassReport.Status.SKIPPED));
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) e.getCause();
+                    }
+                    LOG.warn("failed building test template context for " + task.context.getTargetClass(), e.getCause());
+                    report.add(task.toReport(ClassReport.Status.FAILED, e.getCause()));
+                } catch (InterruptedException e) {
+                    throw new ProcessCanceledException(e);
+                }
+                indicator.setFraction((double) (i + 1) / tasks.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds the test template context and renders the test file, so the write action only creates the file
+     * @return null if test class already exists or test subject is no longer valid
+     */
+    @Nullable
+    private Map<String, Object> buildTemplateContext(GenerationTask task) throws Exception {
+        final PsiClass srcClass = task.context.getSrcClass();
+        if (!srcClass.isValid() || testMeGenerator.findExistingTestClass(task.context) != null) {
+            return null;
+        }
+        final Map<String, Object> templateCtxtParams = testMeGenerator.buildTemplateContext(task.context);
+        task.renderedTestFile = testMeGenerator.renderTestFile(task.context, templateCtxtParams);
+        return templateCtxtParams;
+    }
+
+    /**
+     * Creates each test file in its own write command, so the UI thread is released between test files
+     */
+    private void writeTests(Project project, List<GenerationTask> tasks, ProgressIndicator indicator, BatchReport report) {
+        indicator.setText("Writing tests");
+        final List<GenerationTask> builtTasks = new ArrayList<>();
+        for (GenerationTask task : tasks) {
+            if (task.templateCtxtParams != null) {
+                builtTasks.add(task);
+            }
+        }
+        for (int i = 0; i < builtTasks.size(); i++) {
+            indicator.checkCanceled();
+            final GenerationTask task = builtTasks.get(i);
+            ApplicationManager.getApplication().invokeAndWait(() -> WriteCommandAction.writeCommandAction(project).withName("TestMe Generate Tests").run(() -> {
+                try {
+                    final boolean generated = testMeGenerator.generateTestFile(task.context, task.templateCtxtParams, task.renderedTestFile) != null;
+                    report.add(task.toReport(generated ? ClassReport.Status.GENERATED : ClassReport.Status.FAILED));
+                } catch (ProcessCanceledException e) {
+                    throw e;
+                } catch (Exception e) {
+                    LOG.warn("failed creating test file " + task.context.getTargetClass(), e);
+                    report.add(task.toReport(ClassReport.Status.FAILED, e));
+                }
+            }));
+            indicator.setFraction((double) (i + 1) / builtTasks.size());
+        }
+    }
+
+    private void notifyDone(Project project, BatchReport report) {
+        final List<String> failedClasses = report.getTestClasses(ClassReport.Status.FAILED);
+        final StringBuilder content = new StringBuilder();
+        content.append("Generated: ").append(report.count(ClassReport.Status.GENERATED)).append("<br/>Skipped: ").append(report.count(ClassReport.Status.SKIPPED)).append("<br/>Failed: ").append(failedClasses.size());
+        int reportedFailures = 0;
+        for (ClassReport classReport : report.getClassReports()) {
+            if (classReport.getStatus() == ClassReport.Status.FAILED && reportedFailures++ < MAX_FAILED_CLASSES_TO_REPORT) {
+                content.append("<br/>").append(StringUtil.escapeXmlEntities(classReport.getTestClass() == null ? String.valueOf(classReport.getSrcClass()) : classReport.getTestClass()));
+                if (classReport.getFailure() != null) {
+                    content.append(": ").append(StringUtil.escapeXmlEntities(classReport.getFailure()));
+                }
+            }
+        }
+        if (failedClasses.size() > MAX_FAILED_CLASSES_TO_REPORT) {
+            content.append("<br/>...");
+        }
+        content.append("<br/>Total time: ").append(report.getTotalMillis()).append(" millis");
+        NotificationGroupManager.getInstance().getNotificationGroup("TestMe")
+                .createNotification("TestMe batch generation done", content.toString(), failedClasses.isEmpty() ? NotificationType.INFORMATION : NotificationType.WARNING)
+                .notify(project);
+    }
+
+    private static class GenerationTask {
+        private final String srcClass;
+        private final FileTemplateContext context;
+        private volatile Map<String, Object> templateCtxtParams;
+        private volatile String renderedTestFile;
+
+        GenerationTask(String srcClass, FileTemplateContext context) {
+            this.srcClass = srcClass;
+            this.context = context;
+        }
+
+        ClassReport toReport(ClassReport.Status status) {
+            return new ClassReport(srcClass, context.getTargetClass(), status, context.getGenerationMetrics());
+        }
+
+        ClassReport toReport(ClassReport.Status status, Throwable failure) {
+            return new ClassReport(srcClass, context.getTargetClass(), status, context.getGenerationMetrics(), failure);
+        }
+    }
+
+    public static class BatchReport {
+        private final List<ClassReport> classReports = new ArrayList<>();
+        private long totalMillis;
+
+        void add(ClassReport classReport) {
+            classReports.add(classReport);
+        }
+
+        public List<ClassReport> getClassReports() {
+            return classReports;
+        }
+
+        public int count(ClassReport.Status status) {
+            int count = 0;
+            for (ClassReport classReport : classReports) {
+                if (classReport.getStatus() == status) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public List<String> getTestClasses(ClassReport.Status status) {
+            final List<String> testClasses = new ArrayList<>();
+            for (ClassReport classReport : classReports) {
+                if (classReport.getStatus() == status) {
+                    testClasses.add(classReport.getTestClass() == null ? classReport.getSrcClass() : classReport.getTestClass());
+                }
+            }
+            return testClasses;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+    }
+
+    /**
+     * Generation outcome of a single test subject
+     */
+    public static class ClassReport {
+        public enum Status {GENERATED, SKIPPED, FAILED}
+
+        private final String srcClass;
+        private final String testClass;
+        private final Status status;
+        private final GenerationMetrics generationMetrics;
+        private final String failure;
+
+        ClassReport(@Nullable String srcClass, @Nullable String testClass, Status status, @Nullable GenerationMetrics generationMetrics) {
+            this(srcClass, testClass, status, generationMetrics, null);
+        }
+
+        ClassReport(@Nullable String srcClass, @Nullable String testClass, Status status, @Nullable GenerationMetrics generationMetrics, @Nullable Throwable failure) {
+            this.srcClass = srcClass;
+            this.testClass = testClass;
+            this.status = status;
+            this.generationMetrics = generationMetrics;
+            this.failure = failure == null ? null : failure.getMessage() == null ? failure.getClass().getName() : failure.getMessage();
+        }
+
+        @Nullable
+        public String getSrcClass() {
+            return srcClass;
+        }
+
+        /**
+         * @return null if skipped before a test class name was composed
+         */
+        @Nullable
+        public String getTestClass() {
+            return testClass;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return null if skipped before a test template context was created
+         */
+        @Nullable
+        public GenerationMetrics getGenerationMetrics() {
+            return generationMetrics;
+        }
+
+        /**
+         * @return reason of failure, if known
+         */
+        @Nullable
+        public String getFailure() {
+            return failure;
+        }
+    }
+}
@@ -2,11 +2,11 @@ package com.weirddev.testme.intellij.action;
 
 import com.intellij.ide.fileTemplates.FileTemplateDescriptor;
 import com.intellij.ide.util.PropertiesComponent;
-import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ContentEntry;
 import com.intellij.openapi.roots.JavaProjectRootsUtil;
@@ -33,6 +33,7 @@ import org.jetbrains.jps.model.java.JavaResourceRootProperties;
 import org.jetbrains.jps.model.java.JavaSourceRootProperties;
 import org.jetbrains.jps.model.java.JavaSourceRootType;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -108,18 +109,12 @@ public class CreateTestMeAction extends CreateTestAction {
         LOG.debug("targetDirectory:"+targetDirectory.getVirtualFile().getUrl());
         final ClassNameSelection classNameSelection = generatedClassNameResolver.resolveClassName(project, targetDirectory, srcClass, templateDescriptor);
         if (classNameSelection.getUserDecision() != ClassNameSelection.UserDecision.Abort) {
-            final Module finalTestModule = testModule;
-            CommandProcessor.getInstance().executeCommand(project, new Runnable() {
-                @Override
-                public void run() {
-                    testMeGenerator.generateTest(
-                            new FileTemplateContext(
-                                    new FileTemplateDescriptor(templateDescriptor.getFilename()),templateDescriptor.getLanguage(),project, classNameSelection.getClassName(), srcPackage, srcModule, finalTestModule,targetDirectory, srcClass,
-                                    new FileTemplateConfig(TestMeConfigPersistent.getInstance().getState())
-                            )
-                    );
-                }
-            }, "TestMe Generate Test", this);
+            testMeGenerator.generateTestInBackground(
+                    new FileTemplateContext(
+                            new FileTemplateDescriptor(templateDescriptor.getFilename()),templateDescriptor.getLanguage(),project, classNameSelection.getClassName(), srcPackage, srcModule, testModule,targetDirectory, srcClass,
+                            new FileTemplateConfig(TestMeConfigPersistent.getInstance().getState()), classNameSelection.getUserDecision() == ClassNameSelection.UserDecision.Merge
+                    )
+            );
         }
         LOG.debug("End CreateTestMeAction.invoke");
     }
@@ -168,7 +163,7 @@ public class CreateTestMeAction extends CreateTestAction {
      * @return
      */
     @NotNull
-    private static Module suggestModuleForTestsReflective(@NotNull Project project, @NotNull Module productionModule) {
+    static Module suggestModuleForTestsReflective(@NotNull Project project, @NotNull Module productionModule) {
         try {
             Method suggestModuleForTests = null;
             //          suggestModuleForTests = CreateTestAction.class.getDeclaredMethod("suggestModuleForTests", Project.class,Module.class);
@@ -186,11 +181,18 @@ public class CreateTestMeAction extends CreateTestAction {
                     if (module != null) {
                         return (Module) module;
                     }
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) e.getCause();
+                    }
+                    LOG.debug("error invoking suggestModuleForTests through reflection. falling back to older implementation",e);
                 } catch (Exception e) {
                     LOG.debug("error invoking suggestModuleForTests through reflection. falling back to older implementation",e);
                 }
             }
 
+        } catch (ProcessCanceledException e) {
+            throw e;
         } catch (Exception e) {
             LOG.debug("suggestModuleForTests Method mot found. expected to exist on idea 15 - 2017. falling back to older implementation",e);
         }
@@ -0,0 +1,76 @@
+package com.weirddev.testme.intellij.action;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.weirddev.testme.intellij.template.TemplateDescriptor;
+import com.weirddev.testme.intellij.ui.template.TestMeTemplateManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates tests for all testable classes in the packages, directories or modules selected in the project view
+ */
+public class TestMeBatchAction extends AnAction {
+    private final BatchTestsCreator batchTestsCreator;
+
+    public TestMeBatchAction() {
+        this(new BatchTestsCreator());
+    }
+
+    TestMeBatchAction(BatchTestsCreator batchTestsCreator) {
+        this.batchTestsCreator = batchTestsCreator;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null && !collectSourceRoots(e).isEmpty());
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        final Project project = e.getProject();
+        final Set<VirtualFile> sourceRoots = collectSourceRoots(e);
+        if (project == null || sourceRoots.isEmpty()) {
+            return;
+        }
+        final List<TemplateDescriptor> templateDescriptors = TestMeTemplateManager.getInstance(project).getTestTemplates();
+        JBPopupFactory.getInstance().createPopupChooserBuilder(templateDescriptors)
+                .setTitle("TestMe: Generate Tests With")
+                .setRenderer(SimpleListCellRenderer.create("", TemplateDescriptor::getDisplayName))
+                .setItemChosenCallback(templateDescriptor -> batchTestsCreator.createTests(project, sourceRoots, templateDescriptor))
+                .createPopup()
+                .showInBestPositionFor(e.getDataContext());
+    }
+
+    @NotNull
+    private static Set<VirtualFile> collectSourceRoots(@NotNull AnActionEvent e) {
+        final Set<VirtualFile> sourceRoots = new LinkedHashSet<>();
+        final Module[] modules = e.getData(LangDataKeys.MODULE_CONTEXT_ARRAY);
+        if (modules != null) {
+            for (Module module : modules) {
+                sourceRoots.addAll(Arrays.asList(ModuleRootManager.getInstance(module).getSourceRoots(false)));
+            }
+        }
+        final VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (files != null) {
+            for (VirtualFile file : files) {
+                if (file.isDirectory()) {
+                    sourceRoots.add(file);
+                }
+            }
+        }
+        return sourceRoots;
+    }
+}
@@ -15,7 +15,7 @@ public class ClassNameSelection {
     }
 
     public enum UserDecision{
-        New,Goto,Abort
+        New,Goto,Merge,Abort
     }
 
     public String getClassName() {
@@ -1,11 +1,13 @@
 package com.weirddev.testme.intellij.action.helpers;
 
+import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.InputValidatorEx;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.codeStyle.JavaCodeStyleSettings;
 import com.intellij.refactoring.util.RefactoringMessageUtil;
 import com.weirddev.testme.intellij.template.TemplateDescriptor;
@@ -18,25 +20,38 @@ public class GeneratedClassNameResolver {
     public ClassNameSelection resolveClassName(@NotNull Project project, PsiDirectory targetDirectory, PsiClass targetTestSubjectClass, TemplateDescriptor templateDescriptor) {
         String className = composeTestClassName(targetTestSubjectClass);
         ClassNameSelection classNameSelection;
-        //TODO add merge option
         final String fileCreateErrorMessage = RefactoringMessageUtil.checkCanCreateFile(targetDirectory, className + "." + FileUtilRt.getExtension(templateDescriptor.getFilename()));
         if (fileCreateErrorMessage != null) {
-            classNameSelection = getUserDecision(project, className, fileCreateErrorMessage, "Target Test File Already Exists");
+            classNameSelection = getUserDecision(project, className, fileCreateErrorMessage, "Target Test File Already Exists", isMergeSupported(targetDirectory, className));
         } else {
             String classCreationErrorMessage = RefactoringMessageUtil.checkCanCreateClass(targetDirectory, className);
             if (classCreationErrorMessage != null) {
-                classNameSelection = getUserDecision(project, className, classCreationErrorMessage, "Target Test Class Already Exists");
+                classNameSelection = getUserDecision(project, className, classCreationErrorMessage, "Target Test Class Already Exists", isMergeSupported(targetDirectory, className));
             } else {
                 classNameSelection = new ClassNameSelection(className, ClassNameSelection.UserDecision.New);
             }
         }
         return classNameSelection;
     }
+    /**
+     * @return true if the existing test class is declared in a Java file. tests are added to existing Java test classes only
+     */
+    private boolean isMergeSupported(PsiDirectory targetDirectory, String className) {
+        return targetDirectory.findFile(className + "." + JavaFileType.DEFAULT_EXTENSION) instanceof PsiJavaFile;
+    }
+
+    /**
+     * @param mergeSupported true - to offer adding missing tests to the existing test class
+     */
     @NotNull
-    private ClassNameSelection getUserDecision(@NotNull Project project, final String className, String fileCreateErrorMessage, String dialogTitle) {
+    private ClassNameSelection getUserDecision(@NotNull Project project, final String className, String fileCreateErrorMessage, String dialogTitle, boolean mergeSupported) {
         ClassNameSelection classNameSelection;
-        final int selection = Messages.showDialog(project, fileCreateErrorMessage + "\nWhat would you like to do?", dialogTitle, new String[]{ "Pick a different name...", "&Go to existing test","&Cancel"}, 0, Messages.getQuestionIcon());
-        if (selection == 2 || selection == -1) {
+        final String[] options = mergeSupported ? new String[]{"Pick a different name...", "&Add missing tests", "&Go to existing test", "&Cancel"} : new String[]{"Pick a different name...", "&Go to existing test", "&Cancel"};
+        int selection = Messages.showDialog(project, fileCreateErrorMessage + "\nWhat would you like to do?", dialogTitle, options, 0, Messages.getQuestionIcon());
+        if (!mergeSupported && selection > 0) {
+            selection++;
+        }
+        if (selection == 3 || selection == -1) {
             classNameSelection = new ClassNameSelection(null, ClassNameSelection.UserDecision.Abort);
         } else if (selection == 0) {
             String resolvedClassName = Messages.showInputDialog(project, "Please rename target test class:", "Rename Test Class", Messages.getQuestionIcon(), className, new InputValidatorEx() {
@@ -62,12 +77,14 @@ public class GeneratedClassNameResolver {
 
             });
             classNameSelection = new ClassNameSelection(resolvedClassName, ClassNameSelection.UserDecision.New);
+        } else if (selection == 1) {
+            classNameSelection = new ClassNameSelection(className, ClassNameSelection.UserDecision.Merge);
         } else {
             classNameSelection = new ClassNameSelection(className, ClassNameSelection.UserDecision.Goto);
         }
         return classNameSelection;
     }
-    private String composeTestClassName(PsiClass targetClass) {
+    public String composeTestClassName(PsiClass targetClass) {
         JavaCodeStyleSettings customSettings = JavaCodeStyleSettings.getInstance(targetClass.getContainingFile());
         return customSettings.TEST_NAME_PREFIX + targetClass.getName() + customSettings.TEST_NAME_SUFFIX;
     }
@@ -2,6 +2,7 @@ package com.weirddev.testme.intellij.action.helpers;
 
 import com.intellij.CommonBundle;
 import com.intellij.codeInsight.CodeInsightBundle;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.application.Result;
 import com.intellij.openapi.command.WriteCommandAction;
@@ -36,6 +37,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Locates the test directory of a package in a test module, creating it if needed.
+ * When running headless, i.e. by the headless test generation command, the test source root is chosen without prompting and failures are thrown rather than shown in a dialog
+ *
  * Date: 10/18/2016
  *
  * @author Yaron Yamin
@@ -55,6 +59,9 @@ public class TargetDirectoryLocator{
             myTargetDirectory = selectTargetDirectory(packageQualifiedName, project, targetModule);
             if (myTargetDirectory == null) return null;
         } catch (IncorrectOperationException e) {
+            if (ApplicationManager.getApplication().isHeadlessEnvironment()) {
+                throw e;
+            }
             String errorMessage = e.getMessage();
             if (errorMessage != null) {
                 Messages.showMessageDialog(project, errorMessage, CommonBundle.getErrorTitle(), Messages.getErrorIcon());
@@ -92,12 +99,21 @@ public class TargetDirectoryLocator{
                 }
                 else {
                     PsiDirectory defaultDir = chooseDefaultDirectory(targetPackage.getDirectories(),roots, myTargetModule, myProject);
-                    result.setResult(MoveClassesOrPackagesUtil.chooseSourceRoot(targetPackage, roots, defaultDir));
+                    if (ApplicationManager.getApplication().isHeadlessEnvironment()) {
+                        result.setResult(chooseDefaultRoot(roots, defaultDir));
+                    } else {
+                        result.setResult(MoveClassesOrPackagesUtil.chooseSourceRoot(targetPackage, roots, defaultDir));
+                    }
                 }
             }
         }.execute().getResultObject();
 
-        if (selectedRoot == null) return null;
+        if (selectedRoot == null) {
+            if (ApplicationManager.getApplication().isHeadlessEnvironment()) {
+                throw new IncorrectOperationException("No test source root found in module " + myTargetModule.getName());
+            }
+            return null;
+        }
 
         return new WriteCommandAction<PsiDirectory>(myProject, CodeInsightBundle.message("create.directory.command")) {
             protected void run(Result<? super PsiDirectory> result) throws Throwable {
@@ -137,6 +153,21 @@ public class TargetDirectoryLocator{
         return null;
 //        return PackageUtil.findPossiblePackageDirectoryInModule(myTargetModule, packageName); //from v14
     }
+    /**
+     * @return the root containing the default directory, or the first root otherwise. used instead of prompting the user when running headless
+     */
+    @NotNull
+    private static VirtualFile chooseDefaultRoot(List<VirtualFile> roots, @Nullable PsiDirectory defaultDir) {
+        if (defaultDir != null) {
+            for (VirtualFile root : roots) {
+                if (VfsUtilCore.isAncestor(root, defaultDir.getVirtualFile(), false)) {
+                    return root;
+                }
+            }
+        }
+        return roots.get(0);
+    }
+
     /**
      * @see JavaProjectRootsUtil#collectSuitableDestinationSourceRoots (*added in v15)
      */
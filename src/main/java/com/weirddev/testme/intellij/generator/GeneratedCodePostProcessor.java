@@ -0,0 +1,141 @@
+package com.weirddev.testme.intellij.generator;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Segment;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassOwner;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiFileRange;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.impl.source.PostprocessReformattingAspect;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetrics;
+import com.weirddev.testme.intellij.template.FileTemplateConfig;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Post processes code generated from a test template - FQNs shortening and reformatting - restricted to the text ranges of the generated elements.
+ * For a new test file these are the classes it declares, so its header and imports are skipped. Ranges separated by whitespace only are joined, so adjacent generated members are processed in one pass.
+ * Ranges are tracked while FQNs are shortened, and reformatted together in a single formatting pass, after flushing formatting postponed by the preceding modifications.
+ */
+public class GeneratedCodePostProcessor {
+    private final CodeRefactorUtil codeRefactorUtil;
+
+    public GeneratedCodePostProcessor(CodeRefactorUtil codeRefactorUtil) {
+        this.codeRefactorUtil = codeRefactorUtil;
+    }
+
+    /**
+     * @return classes declared by a test file created from the template, excluding its header and imports. the whole file if it declares no class
+     */
+    @NotNull
+    public static List<PsiElement> findGeneratedElements(@NotNull PsiFile psiFile) {
+        final List<PsiElement> generatedElements = new ArrayList<>();
+        if (psiFile instanceof PsiClassOwner) {
+            for (PsiClass psiClass : ((PsiClassOwner) psiFile).getClasses()) {
+                if (psiClass.getContainingFile() == psiFile && psiClass.getTextRange() != null) {
+                    generatedElements.add(psiClass);
+                }
+            }
+        }
+        return generatedElements.isEmpty() ? Collections.singletonList(psiFile) : generatedElements;
+    }
+
+    /**
+     * Should be invoked inside a write action
+     * @param generatedElements elements of psiFile generated from the template. see {@link #findGeneratedElements(PsiFile)} for a new test file
+     * @param newFile true - if psiFile was created from the template. imports of new files are optimized and commented imports are restored
+     */
+    public void postProcess(@NotNull FileTemplateContext context, @NotNull PsiFile psiFile, @NotNull Collection<? extends PsiElement> generatedElements, boolean newFile) {
+        final Project project = context.getProject();
+        final FileTemplateConfig fileTemplateConfig = context.getFileTemplateConfig();
+        final GenerationMetrics generationMetrics = context.getGenerationMetrics();
+        final SmartPointerManager smartPointerManager = SmartPointerManager.getInstance(project);
+        final List<TextRange> joinedRanges = joinAdjacent(psiFile.getViewProvider().getContents(), generatedElements);
+        final List<SmartPsiFileRange> generatedRanges = new ArrayList<>(joinedRanges.size());
+        for (TextRange joinedRange : joinedRanges) {
+            generatedRanges.add(smartPointerManager.createSmartPsiFileRangePointer(psiFile, joinedRange));
+        }
+        final JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        if (newFile && fileTemplateConfig.isOptimizeImports()) {
+            final long startOptimizeImports = generationMetrics.start();
+            codeStyleManager.optimizeImports(psiFile);
+            generationMetrics.stop(GenerationMetrics.Phase.OPTIMIZE_IMPORTS, startOptimizeImports);
+        }
+        if (fileTemplateConfig.isReplaceFqn()) {
+            final long startShortenClassReferences = generationMetrics.start();
+            for (SmartPsiFileRange generatedRange : generatedRanges) {
+                final Segment range = generatedRange.getRange();
+                if (range != null) {
+                    codeStyleManager.shortenClassReferences(psiFile, range.getStartOffset(), range.getEndOffset());
+                }
+            }
+            generationMetrics.stop(GenerationMetrics.Phase.SHORTEN_CLASS_REFERENCES, startShortenClassReferences);
+        }
+        if (newFile) {
+            codeRefactorUtil.uncommentImports(psiFile, project);
+        }
+        if (fileTemplateConfig.isReformatCode()) {
+            final long startReformat = generationMetrics.start();
+            PostprocessReformattingAspect.getInstance(project).doPostponedFormatting(psiFile.getViewProvider());
+            CodeStyleManager.getInstance(project).reformatText(psiFile, toTextRanges(generatedRanges));
+            generationMetrics.stop(GenerationMetrics.Phase.REFORMAT, startReformat);
+        }
+        for (SmartPsiFileRange generatedRange : generatedRanges) {
+            smartPointerManager.removePointer(generatedRange);
+        }
+    }
+
+    /**
+     * @return text ranges of the elements, sorted, with overlapping ranges and ranges separated by whitespace only joined
+     */
+    @NotNull
+    static List<TextRange> joinAdjacent(@NotNull CharSequence text, @NotNull Collection<? extends PsiElement> elements) {
+        final List<TextRange> ranges = new ArrayList<>(elements.size());
+        for (PsiElement element : elements) {
+            ranges.add(element.getTextRange());
+        }
+        ranges.sort(Comparator.comparingInt(TextRange::getStartOffset));
+        final List<TextRange> joinedRanges = new ArrayList<>(ranges.size());
+        for (TextRange range : ranges) {
+            final int lastIndex = joinedRanges.size() - 1;
+            if (lastIndex >= 0 && isWhitespaceBetween(text, joinedRanges.get(lastIndex).getEndOffset(), range.getStartOffset())) {
+                joinedRanges.set(lastIndex, joinedRanges.get(lastIndex).union(range));
+            } else {
+                joinedRanges.add(range);
+            }
+        }
+        return joinedRanges;
+    }
+
+    private static boolean isWhitespaceBetween(CharSequence text, int startOffset, int endOffset) {
+        for (int i = startOffset; i < endOffset; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    private static List<TextRange> toTextRanges(List<SmartPsiFileRange> smartRanges) {
+        final List<TextRange> textRanges = new ArrayList<>(smartRanges.size());
+        for (SmartPsiFileRange smartRange : smartRanges) {
+            final Segment range = smartRange.getRange();
+            if (range != null) {
+                textRanges.add(TextRange.create(range));
+            }
+        }
+        return textRanges;
+    }
+}
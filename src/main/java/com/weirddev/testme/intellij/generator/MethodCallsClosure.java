@@ -0,0 +1,228 @@
+package com.weirddev.testme.intellij.generator;
+
+import com.weirddev.testme.intellij.template.context.Method;
+import com.weirddev.testme.intellij.template.context.MethodCall;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Resolves method calls made by methods of the tested type, directly or on the call stack via other methods of the same owner type.
+ * Called methods that were resolved in a shallow manner are replaced by the deeply resolved tested type methods (or methods of their return types) having the same method id.
+ * Method calls are propagated up to a max depth of calls via same owner methods. When the depth can not bound the propagation, method calls are propagated over strongly connected components of the call graph,
+ * so each method's calls are collected once regardless of call chains length. Otherwise, calls are propagated one level at a time, stopping once no more calls are found.
+ */
+class MethodCallsClosure {
+    private final Map<String, Method> methodsById = new HashMap<>();
+    private final Map<Method, Node> nodes = new IdentityHashMap<>();
+
+    MethodCallsClosure(List<Method> methods) {
+        for (Method method : methods) {
+            methodsById.putIfAbsent(method.getMethodId(), method);
+            if (method.getReturnType() != null) {
+                for (Method returnTypeMethod : method.getReturnType().getMethods()) {
+                    methodsById.putIfAbsent(returnTypeMethod.getMethodId(), returnTypeMethod);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves the methods given methods call directly or indirectly. given methods are not updated, as they may be shared with other generations
+     * @param maxMethodCallsDepth max depth of calls via same owner methods whose method calls are propagated to the calling method
+     * @return method calls of each of the given methods, keyed by method identity. empty when method calls are not propagated, so methods keep their direct method calls
+     */
+    static Map<Method, Set<MethodCall>> resolve(List<Method> methods, int maxMethodCallsDepth) {
+        if (maxMethodCallsDepth < 1) {
+            return Collections.emptyMap();
+        }
+        return new MethodCallsClosure(methods).resolveMethodCalls(methods, maxMethodCallsDepth);
+    }
+
+    private Map<Method, Set<MethodCall>> resolveMethodCalls(List<Method> methods, int maxMethodCallsDepth) {
+        for (Method method : methods) {
+            nodeOf(method);
+        }
+        if (maxMethodCallsDepth < methods.size() + methodsById.size()) {
+            resolveClosuresByLevel(methods, maxMethodCallsDepth);
+        } else {
+            resolveClosuresByComponent(methods);
+        }
+        final Map<Method, Set<MethodCall>> methodCalls = new IdentityHashMap<>();
+        for (Method method : methods) {
+            final Set<MethodCall> closure = new LinkedHashSet<>(nodes.get(method).closure);
+            closure.addAll(method.getDirectMethodCalls());
+            methodCalls.put(method, closure);
+        }
+        return methodCalls;
+    }
+
+    /**
+     * closure of each node at a level is its direct calls and the closures of its successors at the previous level. a call chain can not be longer than the number of nodes, so the unbounded closure is reached otherwise
+     */
+    private void resolveClosuresByLevel(List<Method> methods, int maxMethodCallsDepth) {
+        final List<Node> reachableNodes = new ArrayList<>();
+        final Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Node> toVisit = new ArrayDeque<>();
+        for (Method method : methods) {
+            toVisit.add(nodes.get(method));
+        }
+        while (!toVisit.isEmpty()) {
+            final Node node = toVisit.poll();
+            if (visited.add(node)) {
+                reachableNodes.add(node);
+                node.closure = new LinkedHashSet<>(node.directCalls);
+                toVisit.addAll(node.getSuccessors());
+            }
+        }
+        for (int depth = 0; depth < maxMethodCallsDepth; depth++) {
+            final Map<Node, Set<MethodCall>> nextClosures = new IdentityHashMap<>();
+            boolean expanded = false;
+            for (Node node : reachableNodes) {
+                final Set<MethodCall> closure = new LinkedHashSet<>(node.directCalls);
+                for (Node successor : node.getSuccessors()) {
+                    closure.addAll(successor.closure);
+                }
+                expanded |= closure.size() > node.closure.size();
+                nextClosures.put(node, closure);
+            }
+            if (!expanded) {
+                break;
+            }
+            for (Node node : reachableNodes) {
+                node.closure = nextClosures.get(node);
+            }
+        }
+    }
+
+    private void resolveClosuresByComponent(List<Method> methods) {
+        int index = 0;
+        final Deque<Node> sccStack = new ArrayDeque<>();
+        for (Method method : methods) {
+            final Node node = nodes.get(method);
+            if (node.index < 0) {
+                index = findStronglyConnectedComponents(node, index, sccStack);
+            }
+        }
+    }
+
+    /**
+     * iterative Tarjan's algorithm. closure of each component is computed once all components it calls are completed
+     */
+    private int findStronglyConnectedComponents(Node root, int index, Deque<Node> sccStack) {
+        final Deque<Node> callStack = new ArrayDeque<>();
+        final Deque<Iterator<Node>> successorsStack = new ArrayDeque<>();
+        index = visit(root, index, sccStack);
+        callStack.push(root);
+        successorsStack.push(root.getSuccessors().iterator());
+        while (!callStack.isEmpty()) {
+            final Node node = callStack.peek();
+            final Iterator<Node> successors = successorsStack.peek();
+            if (successors.hasNext()) {
+                final Node successor = successors.next();
+                if (successor.index < 0) {
+                    index = visit(successor, index, sccStack);
+                    callStack.push(successor);
+                    successorsStack.push(successor.getSuccessors().iterator());
+                } else if (successor.onStack) {
+                    node.lowLink = Math.min(node.lowLink, successor.index);
+                }
+            } else {
+                callStack.pop();
+                successorsStack.pop();
+                if (node.lowLink == node.index) {
+                    completeComponent(node, sccStack);
+                }
+                final Node caller = callStack.peek();
+                if (caller != null) {
+                    caller.lowLink = Math.min(caller.lowLink, node.lowLink);
+                }
+            }
+        }
+        return index;
+    }
+
+    private int visit(Node node, int index, Deque<Node> sccStack) {
+        node.index = index;
+        node.lowLink = index;
+        sccStack.push(node);
+        node.onStack = true;
+        return index + 1;
+    }
+
+    private void completeComponent(Node root, Deque<Node> sccStack) {
+        final List<Node> component = new ArrayList<>();
+        Node member;
+        do {
+            member = sccStack.pop();
+            member.onStack = false;
+            component.add(member);
+        } while (member != root);
+        final Set<MethodCall> closure = new LinkedHashSet<>();
+        for (Node node : component) {
+            closure.addAll(node.directCalls);
+        }
+        for (Node node : component) {
+            for (Node successor : node.getSuccessors()) {
+                if (successor.closure != null) {
+                    closure.addAll(successor.closure);
+                }
+            }
+        }
+        for (Node node : component) {
+            node.closure = closure;
+        }
+    }
+
+    private Node nodeOf(Method method) {
+        Node node = nodes.get(method);
+        if (node == null) {
+            node = new Node();
+            nodes.put(method, node);
+            for (MethodCall methodCall : method.getDirectMethodCalls()) {
+                final Method calledMethodFound = methodsById.get(methodCall.getMethod().getMethodId());
+                if (calledMethodFound == null) {
+                    node.directCalls.add(methodCall);
+                } else {
+                    node.directCalls.add(methodCall.getMethod() == calledMethodFound ? methodCall : new MethodCall(calledMethodFound, methodCall.getMethodCallArguments()));
+                    if (isSameOwner(method, calledMethodFound)) {
+                        node.calledFamilyMembers.add(calledMethodFound);
+                    }
+                }
+            }
+        }
+        return node;
+    }
+
+    private static boolean isSameOwner(Method method, Method calledMethod) {
+        return method.getOwnerClassCanonicalType() != null && method.getOwnerClassCanonicalType().equals(calledMethod.getOwnerClassCanonicalType());
+    }
+
+    private class Node {
+        /**
+         * method calls, with called methods replaced by the deeply resolved ones when found
+         */
+        private final Set<MethodCall> directCalls = new LinkedHashSet<>();
+        /**
+         * called methods of the same owner type, whose method calls are propagated to this method
+         */
+        private final List<Method> calledFamilyMembers = new ArrayList<>();
+        @Nullable
+        private List<Node> successors;
+        private int index = -1;
+        private int lowLink;
+        private boolean onStack;
+        @Nullable
+        private Set<MethodCall> closure;
+
+        List<Node> getSuccessors() {
+            if (successors == null) {
+                successors = new ArrayList<>(calledFamilyMembers.size());
+                for (Method calledMethod : calledFamilyMembers) {
+                    successors.add(nodeOf(calledMethod));
+                }
+            }
+            return successors;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.weirddev.testme.intellij.generator;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.weirddev.testme.intellij.common.utils.PsiMethodUtils;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Adds tests rendered for methods not tested yet into an existing test class, instead of regenerating the whole test class.
+ * A method of the test subject is considered tested when a test method of the existing test class references it - fixtures and helper methods do not count. A method which signature changed is therefore considered not tested.
+ * Test methods are recognized by the test annotations of JUnit and TestNG, or by name in JUnit 3 test cases.
+ * Only inserted members are post processed, so merging is proportional to the change rather than to the test class size.
+ * Supported for Java test classes.
+ */
+class TestClassMerger {
+    private static final Logger LOG = Logger.getInstance(TestClassMerger.class.getName());
+    private static final List<String> TEST_ANNOTATIONS = Arrays.asList("org.junit.Test", "org.junit.jupiter.api.Test", "org.testng.annotations.Test");
+    private static final String JUNIT3_TEST_CASE = "junit.framework.TestCase";
+    private static final String TEST_METHOD_NAME_PREFIX = "test";
+    private final CodeRefactorUtil codeRefactorUtil;
+    private final GeneratedCodePostProcessor generatedCodePostProcessor;
+
+    TestClassMerger(CodeRefactorUtil codeRefactorUtil, GeneratedCodePostProcessor generatedCodePostProcessor) {
+        this.codeRefactorUtil = codeRefactorUtil;
+        this.generatedCodePostProcessor = generatedCodePostProcessor;
+    }
+
+    boolean isMergeSupported(@NotNull PsiClass existingTestClass) {
+        return existingTestClass.getContainingFile() instanceof PsiJavaFile;
+    }
+
+    /**
+     * @return ids of methods, declared or inherited by srcClass, referenced by test methods of testClass or of its nested classes
+     */
+    @NotNull
+    Set<String> findTestedMethodIds(@NotNull PsiClass testClass, @NotNull PsiClass srcClass) {
+        final Set<String> testedMethodIds = new HashSet<>();
+        for (PsiMethod testMethod : PsiTreeUtil.findChildrenOfType(testClass, PsiMethod.class)) {
+            if (isTestMethod(testMethod)) {
+                collectReferencedMethodIds(testMethod, srcClass, testedMethodIds);
+            }
+        }
+        LOG.debug("found " + testedMethodIds.size() + " methods of " + srcClass.getQualifiedName() + " tested by " + testClass.getQualifiedName());
+        return testedMethodIds;
+    }
+
+    private static void collectReferencedMethodIds(PsiMethod testMethod, PsiClass srcClass, Set<String> testedMethodIds) {
+        for (PsiElement element : SyntaxTraverser.psiTraverser(testMethod)) {
+            if (element instanceof PsiReference) {
+                final PsiElement resolved = ((PsiReference) element).resolve();
+                if (resolved instanceof PsiMethod && isMemberOf((PsiMethod) resolved, srcClass)) {
+                    testedMethodIds.add(PsiMethodUtils.formatMethodId((PsiMethod) resolved));
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts imports, fields and test methods of the rendered test class that are missing in the existing test class. Should be invoked inside a write action
+     * @param renderedTestFile test file rendered for the methods not tested yet
+     * @return number of inserted members
+     */
+    int merge(@NotNull FileTemplateContext context, @NotNull PsiClass existingTestClass, @NotNull String renderedTestFile) {
+        final Project project = context.getProject();
+        final PsiJavaFile renderedFile = (PsiJavaFile) PsiFileFactory.getInstance(project).createFileFromText(context.getTargetClass() + "." + JavaFileType.DEFAULT_EXTENSION, JavaFileType.INSTANCE, renderedTestFile);
+        codeRefactorUtil.uncommentImports(renderedFile, project);
+        final PsiClass renderedClass = findClass(renderedFile, context.getTargetClass());
+        if (renderedClass == null) {
+            LOG.warn("rendered test file does not declare class " + context.getTargetClass());
+            return 0;
+        }
+        mergeImports(renderedFile, (PsiJavaFile) existingTestClass.getContainingFile());
+        final List<PsiMember> insertedMembers = new ArrayList<>();
+        for (PsiField field : renderedClass.getFields()) {
+            if (existingTestClass.findFieldByName(field.getName(), false) == null) {
+                insertedMembers.add(insertField(existingTestClass, field));
+            }
+        }
+        for (PsiMethod method : renderedClass.getMethods()) {
+            final boolean isTestMethod = isTestMethod(method);
+            if (existingTestClass.findMethodsByName(method.getName(), false).length == 0) {
+                insertedMembers.add((PsiMember) existingTestClass.add(method));
+            } else if (isTestMethod) {
+                final PsiMethod insertedMethod = (PsiMethod) existingTestClass.add(method);
+                insertedMethod.setName(uniqueMethodName(existingTestClass, method.getName()));
+                insertedMembers.add(insertedMethod);
+            }
+        }
+        generatedCodePostProcessor.postProcess(context, existingTestClass.getContainingFile(), insertedMembers, false);
+        return insertedMembers.size();
+    }
+
+    private static void mergeImports(PsiJavaFile renderedFile, PsiJavaFile existingFile) {
+        final PsiImportList renderedImportList = renderedFile.getImportList();
+        final PsiImportList existingImportList = existingFile.getImportList();
+        if (renderedImportList == null || existingImportList == null) {
+            return;
+        }
+        final Set<String> existingImports = new HashSet<>();
+        for (PsiImportStatementBase importStatement : existingImportList.getAllImportStatements()) {
+            existingImports.add(importStatement.getText());
+        }
+        for (PsiImportStatementBase importStatement : renderedImportList.getAllImportStatements()) {
+            if (existingImports.add(importStatement.getText())) {
+                existingImportList.add(importStatement);
+            }
+        }
+    }
+
+    private static PsiMember insertField(PsiClass existingTestClass, PsiField field) {
+        final PsiField[] existingFields = existingTestClass.getFields();
+        if (existingFields.length > 0) {
+            return (PsiMember) existingTestClass.addAfter(field, existingFields[existingFields.length - 1]);
+        }
+        final PsiMethod[] existingMethods = existingTestClass.getMethods();
+        if (existingMethods.length > 0) {
+            return (PsiMember) existingTestClass.addBefore(field, existingMethods[0]);
+        }
+        return (PsiMember) existingTestClass.add(field);
+    }
+
+    /**
+     * @return true if method is annotated with a Test annotation of JUnit 4, JUnit 5 or TestNG, or is named by the JUnit 3 convention in a JUnit 3 test case
+     */
+    private static boolean isTestMethod(PsiMethod method) {
+        for (PsiAnnotation annotation : method.getModifierList().getAnnotations()) {
+            if (isTestAnnotation(annotation)) {
+                return true;
+            }
+        }
+        return method.getName().startsWith(TEST_METHOD_NAME_PREFIX) && InheritanceUtil.isInheritor(method.getContainingClass(), JUNIT3_TEST_CASE);
+    }
+
+    /**
+     * An annotation not resolved - i.e. when the test framework is not found in the resolve scope of the rendered test file - is qualified by its import
+     */
+    private static boolean isTestAnnotation(PsiAnnotation annotation) {
+        final String qualifiedName = annotation.getQualifiedName();
+        if (TEST_ANNOTATIONS.contains(qualifiedName)) {
+            return true;
+        }
+        final PsiJavaCodeReferenceElement nameReference = annotation.getNameReferenceElement();
+        if (nameReference == null || nameReference.isQualified() || nameReference.resolve() != null || !(annotation.getContainingFile() instanceof PsiJavaFile)) {
+            return false;
+        }
+        final PsiImportList importList = ((PsiJavaFile) annotation.getContainingFile()).getImportList();
+        if (importList == null) {
+            return false;
+        }
+        for (String testAnnotation : TEST_ANNOTATIONS) {
+            if (testAnnotation.equals(StringUtil.getPackageName(testAnnotation) + "." + nameReference.getReferenceName())
+                    && (importList.findSingleClassImportStatement(testAnnotation) != null || importList.findOnDemandImportStatement(StringUtil.getPackageName(testAnnotation)) != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    private static String uniqueMethodName(PsiClass psiClass, String methodName) {
+        int suffix = 2;
+        while (psiClass.findMethodsByName(methodName + suffix, false).length > 0) {
+            suffix++;
+        }
+        return methodName + suffix;
+    }
+
+    private static boolean isMemberOf(PsiMethod psiMethod, PsiClass srcClass) {
+        final PsiClass containingClass = psiMethod.getContainingClass();
+        return containingClass != null && (srcClass.getManager().areElementsEquivalent(containingClass, srcClass) || srcClass.isInheritor(containingClass, true));
+    }
+
+    @Nullable
+    private static PsiClass findClass(PsiJavaFile javaFile, String className) {
+        for (PsiClass psiClass : javaFile.getClasses()) {
+            if (className.equals(psiClass.getName())) {
+                return psiClass;
+            }
+        }
+        return PsiTreeUtil.findChildOfType(javaFile, PsiClass.class);
+    }
+}
@@ -6,28 +6,43 @@ import com.intellij.codeInsight.FileModificationService;
 import com.intellij.ide.fileTemplates.FileTemplate;
 import com.intellij.ide.fileTemplates.FileTemplateManager;
 import com.intellij.ide.fileTemplates.FileTemplateUtil;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileEditor.ex.IdeDocumentHistory;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.Computable;
-import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
-import com.intellij.psi.codeStyle.CodeStyleManager;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.impl.source.PostprocessReformattingAspect;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.GlobalSearchScopesCore;
 import com.intellij.testIntegration.createTest.JavaTestGenerator;
 import com.intellij.util.IncorrectOperationException;
+import com.weirddev.testme.intellij.HackedRuntimeInstance;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetrics;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetricsRegistry;
 import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TypeDictionary;
 import com.weirddev.testme.intellij.ui.template.TestMeTemplateManager;
 import org.apache.velocity.app.Velocity;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Date;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Date: 10/19/2016
@@ -38,8 +53,10 @@ import java.util.Map;
 public class TestMeGenerator {
     private final TestClassElementsLocator testClassElementsLocator;
     private final TestTemplateContextBuilder testTemplateContextBuilder;
-    private final CodeRefactorUtil codeRefactorUtil;
+    private final TestClassMerger testClassMerger;
+    private final GeneratedCodePostProcessor generatedCodePostProcessor;
     private static final Logger LOG = Logger.getInstance(TestMeGenerator.class.getName());
+    private static final String GENERATE_TEST_COMMAND_NAME = "TestMe Generate Test";
 
     public TestMeGenerator() {
         this(new TestClassElementsLocator(), new TestTemplateContextBuilder(new MockBuilderFactory()),new CodeRefactorUtil());
@@ -48,10 +65,96 @@ public class TestMeGenerator {
     TestMeGenerator(TestClassElementsLocator testClassElementsLocator, TestTemplateContextBuilder testTemplateContextBuilder, CodeRefactorUtil codeRefactorUtil) {
         this.testClassElementsLocator = testClassElementsLocator;
         this.testTemplateContextBuilder = testTemplateContextBuilder;
-        this.codeRefactorUtil = codeRefactorUtil;
+        this.generatedCodePostProcessor = new GeneratedCodePostProcessor(codeRefactorUtil);
+        this.testClassMerger = new TestClassMerger(codeRefactorUtil, generatedCodePostProcessor);
     }
 
     public PsiElement generateTest(final FileTemplateContext context) {
+        return generateTest(context, null);
+    }
+
+    /**
+     * Generates a test without blocking the UI thread. The test template context - which requires deep inspection of the tested class - is built and the test file is rendered in a cancellable non-blocking read action in the background,
+     * both for a new test class and for tests merged into an existing one. Only the test file creation or merging and its post processing are done in a write action on the UI thread.
+     * Should be invoked from the UI thread.
+     */
+    public void generateTestInBackground(final FileTemplateContext context) {
+        final Project project = context.getProject();
+        final PsiClass existingTestClass = findExistingTestClass(context);
+        if (existingTestClass != null && !shouldMerge(context, existingTestClass)) {
+            CommandProcessor.getInstance().executeCommand(project, () -> generateTest(context), GENERATE_TEST_COMMAND_NAME, null);
+            return;
+        }
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "TestMe: Generating " + context.getTargetClass(), true) {
+            private Pair<Map<String, Object>, String> renderedTest;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                indicator.setText("Inspecting " + context.getTargetClass() + " test subject");
+                renderedTest = ReadAction.nonBlocking(() -> {
+                    if (!context.getSrcClass().isValid()) {
+                        return null;
+                    }
+                    final Map<String, Object> templateCtxtParams = buildTemplateContext(context);
+                    return Pair.create(templateCtxtParams, renderTestFile(context, templateCtxtParams));
+                })
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .executeSynchronously();
+            }
+
+            @Override
+            public void onSuccess() {
+                if (renderedTest != null && !project.isDisposed()) {
+                    CommandProcessor.getInstance().executeCommand(project, () -> generateTest(context, renderedTest.first, renderedTest.second), GENERATE_TEST_COMMAND_NAME, null);
+                }
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                LOG.warn("error rendering test class " + context.getTargetClass(), error);
+                showErrorLater(project, context.getTargetClass());
+            }
+        });
+    }
+
+    /**
+     * Builds the test template context. requires read access only.
+     */
+    public Map<String, Object> buildTemplateContext(FileTemplateContext context) {
+        final Properties defaultProperties = TestMeTemplateManager.getInstance(context.getProject()).getDefaultProperties();
+        if (context.isMergeIntoExistingTestClass()) {
+            final PsiClass existingTestClass = findExistingTestClass(context);
+            if (existingTestClass != null && shouldMerge(context, existingTestClass)) {
+                return testTemplateContextBuilder.build(context, defaultProperties, testClassMerger.findTestedMethodIds(existingTestClass, context.getSrcClass()));
+            }
+        }
+        return testTemplateContextBuilder.build(context, defaultProperties);
+    }
+
+    /**
+     * Velocity wraps exceptions thrown by methods called from templates, i.e. in {@link org.apache.velocity.exception.MethodInvocationException}
+     */
+    private static void rethrowIfCanceled(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProcessCanceledException) {
+                throw (ProcessCanceledException) cause;
+            }
+        }
+    }
+
+    /**
+     * @param templateCtxtParams test template context built in advance by {@link #buildTemplateContext(FileTemplateContext)}. when null - context is built while generating the test
+     */
+    public PsiElement generateTest(final FileTemplateContext context, @Nullable final Map<String, Object> templateCtxtParams) {
+        return generateTest(context, templateCtxtParams, null);
+    }
+
+    /**
+     * @param renderedTestFile test file rendered in advance by {@link #renderTestFile(FileTemplateContext, Map)} with templateCtxtParams. when null - test file is rendered while generating the test
+     */
+    private PsiElement generateTest(final FileTemplateContext context, @Nullable final Map<String, Object> templateCtxtParams, @Nullable final String renderedTestFile) {
         final Project project = context.getProject();
         return PostprocessReformattingAspect.getInstance(project).postponeFormattingInside(new Computable<PsiElement>() {
             public PsiElement compute() {
@@ -60,7 +163,7 @@ public class TestMeGenerator {
                         try {
                             final long start = new Date().getTime();
                             IdeDocumentHistory.getInstance(project).includeCurrentPlaceAsChangePlace();
-                            PsiFile targetClass = createTestClass(context);
+                            PsiFile targetClass = createTestClass(context, templateCtxtParams, renderedTestFile);
                             if (targetClass == null) {
                                 return null;
                             }
@@ -90,57 +193,146 @@ public class TestMeGenerator {
         });
     }
 
+    /**
+     * Renders the test file of a new test class, or the tests merged into an existing test class. requires read access only, so tests are rendered before the write action creating or merging their files
+     * @param templateCtxtParams test template context built by {@link #buildTemplateContext(FileTemplateContext)}
+     */
+    public String renderTestFile(FileTemplateContext context, Map<String, Object> templateCtxtParams) throws Exception {
+        final GenerationMetrics generationMetrics = context.getGenerationMetrics();
+        final long startRender = generationMetrics.start();
+        final String renderedTestFile = renderTemplate(context, TestMeTemplateManager.getInstance(context.getProject()).getInternalTemplate(context.getFileTemplateDescriptor().getFileName()), templateCtxtParams);
+        generationMetrics.stop(GenerationMetrics.Phase.TEMPLATE_RENDER, startRender);
+        return renderedTestFile;
+    }
+
+    /**
+     * Creates the test file without navigating to it. Used when generating tests in bulk. Should be invoked inside a write command
+     * @param renderedTestFile test file rendered by {@link #renderTestFile(FileTemplateContext, Map)}. when null - test file is rendered while creating it
+     * @return created test file or null if failed
+     */
+    @Nullable
+    public PsiFile generateTestFile(final FileTemplateContext context, @Nullable final Map<String, Object> templateCtxtParams, @Nullable final String renderedTestFile) {
+        return PostprocessReformattingAspect.getInstance(context.getProject()).postponeFormattingInside(new Computable<PsiFile>() {
+            public PsiFile compute() {
+                return ApplicationManager.getApplication().runWriteAction(new Computable<PsiFile>() {
+                    public PsiFile compute() {
+                        try {
+                            return createTestClass(context, templateCtxtParams, renderedTestFile);
+                        } catch (IncorrectOperationException e) {
+                            LOG.warn("unable to create test class " + context.getTargetClass(), e);
+                            return null;
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    @Nullable
+    private PsiFile createTestClass(FileTemplateContext context, @Nullable Map<String, Object> templateCtxtParams, @Nullable String renderedTestFile) {
+        final PsiDirectory targetDirectory = context.getTargetDirectory();
+        final PsiClass existingTestClass = findExistingTestClass(context);
+        if (existingTestClass != null) {
+            if (!FileModificationService.getInstance().preparePsiElementForWrite(existingTestClass)) {
+                return null;
+            }
+            if (shouldMerge(context, existingTestClass) && !mergeIntoExistingTestClass(context, existingTestClass, templateCtxtParams != null ? templateCtxtParams : buildTemplateContext(context), renderedTestFile)) {
+                return null;
+            }
+            return existingTestClass.getContainingFile();
+        }
+        final PsiFile classFromTemplate = createTestClassFromCodeTemplate(context, targetDirectory, templateCtxtParams, renderedTestFile);
+        if (classFromTemplate != null) {
+            return classFromTemplate;
+        }
+        return JavaDirectoryService.getInstance().createClass(targetDirectory, context.getTargetClass()).getContainingFile();
+    }
+
+    private boolean shouldMerge(FileTemplateContext context, PsiClass existingTestClass) {
+        return context.isMergeIntoExistingTestClass() && testClassMerger.isMergeSupported(existingTestClass);
+    }
+
+    /**
+     * Renders tests for methods not tested by existingTestClass, unless rendered in advance, and inserts them into it
+     * @param renderedTestFile tests rendered in advance by {@link #renderTestFile(FileTemplateContext, Map)} with templateCtxtParams. when null - tests are rendered while merging
+     * @return false if merging failed. the user is notified of the failure
+     */
+    private boolean mergeIntoExistingTestClass(FileTemplateContext context, PsiClass existingTestClass, Map<String, Object> templateCtxtParams, @Nullable String renderedTestFile) {
+        try {
+            final GenerationMetrics generationMetrics = context.getGenerationMetrics();
+            final String renderedTests = renderedTestFile != null ? renderedTestFile : renderTestFile(context, templateCtxtParams);
+            final int insertedMembersCount = testClassMerger.merge(context, existingTestClass, renderedTests);
+            LOG.debug("Merged " + insertedMembersCount + " members into existing test class " + context.getTargetClass());
+            GenerationMetricsRegistry.getInstance(context.getProject()).add(generationMetrics);
+            return true;
+        } catch (Exception e) {
+            rethrowIfCanceled(e);
+            LOG.warn("error merging tests into existing test class " + context.getTargetClass(), e);
+            showMergeError(context.getProject(), context.getTargetClass(), e);
+            return false;
+        }
+    }
+
     @Nullable
-    private PsiFile createTestClass(FileTemplateContext context) {
+    public PsiClass findExistingTestClass(FileTemplateContext context) {
         final PsiDirectory targetDirectory = context.getTargetDirectory();
         final PsiPackage aPackage = JavaDirectoryService.getInstance().getPackage(targetDirectory);
         if (aPackage != null) {
             final GlobalSearchScope scope = GlobalSearchScopesCore.directoryScope(targetDirectory, false);
             final PsiClass[] classes = aPackage.findClassByShortName(context.getTargetClass(), scope);
             if (classes.length > 0) {
-                if (!FileModificationService.getInstance().preparePsiElementForWrite(classes[0])) {
-                    return null;
-                }
-                return classes[0].getContainingFile();
+                return classes[0];
             }
         }
-        final PsiFile classFromTemplate = createTestClassFromCodeTemplate(context, targetDirectory);
-        if (classFromTemplate != null) {
-            return classFromTemplate;
+        return null;
+    }
+
+    private String renderTemplate(FileTemplateContext context, FileTemplate codeTemplate, Map<String, Object> templateCtxtParams) throws Exception {
+        Velocity.setProperty( Velocity.VM_MAX_DEPTH, 200);
+        if (context.getFileTemplateConfig().isCacheCompiledTemplates()) {
+            return computeWithTypeDictionary(context, () -> HackedRuntimeInstance.computeWithCompiledTemplatesCache(() -> codeTemplate.getText(templateCtxtParams)));
+        } else {
+            return computeWithTypeDictionary(context, () -> codeTemplate.getText(templateCtxtParams));
         }
-        return JavaDirectoryService.getInstance().createClass(targetDirectory, context.getTargetClass()).getContainingFile();
     }
 
-    private PsiFile createTestClassFromCodeTemplate(final FileTemplateContext context, final PsiDirectory targetDirectory) {
+    /**
+     * Types first accessed while rendering resolve their deferred dependencies with the type dictionary of this generation
+     */
+    private static <T> T computeWithTypeDictionary(FileTemplateContext context, ThrowableComputable<T, Exception> computable) throws Exception {
+        final TypeDictionary typeDictionary = context.getTypeDictionary();
+        return typeDictionary == null ? computable.compute() : typeDictionary.computeActive(computable);
+    }
+
+    private PsiFile createTestClassFromCodeTemplate(final FileTemplateContext context, final PsiDirectory targetDirectory, @Nullable Map<String, Object> prebuiltTemplateCtxtParams, @Nullable String renderedTestFile) {
         final String templateName = context.getFileTemplateDescriptor().getFileName();
         FileTemplateManager fileTemplateManager = TestMeTemplateManager.getInstance(targetDirectory.getProject());
-        Map<String, Object> templateCtxtParams = testTemplateContextBuilder.build(context, fileTemplateManager.getDefaultProperties());
+        Map<String, Object> templateCtxtParams = prebuiltTemplateCtxtParams != null ? prebuiltTemplateCtxtParams : testTemplateContextBuilder.build(context, fileTemplateManager.getDefaultProperties());
         try {
             FileTemplate codeTemplate = fileTemplateManager.getInternalTemplate(templateName);
             codeTemplate.setReformatCode(false);
             Velocity.setProperty( Velocity.VM_MAX_DEPTH, 200);
-            final long startGeneration = new Date().getTime();
-            final PsiElement psiElement = FileTemplateUtil.createFromTemplate(codeTemplate, context.getTargetClass(), templateCtxtParams, targetDirectory, null);
-            LOG.debug("Done generating PsiElement from template "+codeTemplate.getName()+" in "+(new Date().getTime()-startGeneration)+" millis");
+            final GenerationMetrics generationMetrics = context.getGenerationMetrics();
+            final long startGeneration = generationMetrics.start();
+            final PsiElement psiElement;
+            if (renderedTestFile != null) {
+                psiElement = FileTemplateUtil.findHandler(codeTemplate).createFromTemplate(context.getProject(), targetDirectory, context.getTargetClass(), codeTemplate, StringUtil.convertLineSeparators(renderedTestFile), templateCtxtParams);
+            } else if (context.getFileTemplateConfig().isCacheCompiledTemplates()) {
+                psiElement = computeWithTypeDictionary(context, () -> HackedRuntimeInstance.computeWithCompiledTemplatesCache(() -> FileTemplateUtil.createFromTemplate(codeTemplate, context.getTargetClass(), templateCtxtParams, targetDirectory, null)));
+            } else {
+                psiElement = computeWithTypeDictionary(context, () -> FileTemplateUtil.createFromTemplate(codeTemplate, context.getTargetClass(), templateCtxtParams, targetDirectory, null));
+            }
+            generationMetrics.stop(GenerationMetrics.Phase.TEMPLATE_RENDER, startGeneration);
+            LOG.debug("Done generating PsiElement from template "+codeTemplate.getName()+" in "+TimeUnit.NANOSECONDS.toMillis(generationMetrics.getNanos(GenerationMetrics.Phase.TEMPLATE_RENDER))+" millis");
             final long startReformating = new Date().getTime();
             final PsiElement resolvedPsiElement=resolveEmbeddedClass(psiElement);
             final PsiFile psiFile = resolvedPsiElement instanceof PsiFile? (PsiFile) resolvedPsiElement : resolvedPsiElement.getContainingFile();
-            JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(targetDirectory.getProject());
-            if (context.getFileTemplateConfig().isOptimizeImports()) {
-                codeStyleManager.optimizeImports(psiFile);
-            }
-            if (context.getFileTemplateConfig().isReplaceFqn()) {
-                codeStyleManager.shortenClassReferences(psiFile);
-            }
-            codeRefactorUtil.uncommentImports(psiFile, context.getProject());
-            if (context.getFileTemplateConfig().isReformatCode()) {
-                final PsiFile containingFile = psiFile;
-                final TextRange textRange = containingFile.getTextRange();
-                CodeStyleManager.getInstance(context.getProject()).reformatText(containingFile, textRange.getStartOffset(), textRange.getEndOffset());
-            }
+            generatedCodePostProcessor.postProcess(context, psiFile, GeneratedCodePostProcessor.findGeneratedElements(psiFile), true);
             LOG.debug("Done reformatting generated PsiClass in "+(new Date().getTime()-startReformating)+" millis");
+            GenerationMetricsRegistry.getInstance(context.getProject()).add(generationMetrics);
                 return psiFile;
         } catch (Exception e) {
+            rethrowIfCanceled(e);
             LOG.error("error generating test class",e);
             return null;
         }
@@ -191,6 +383,12 @@ public class TestMeGenerator {
             }
         });
     }
+    private static void showMergeError(final Project project, final String targetClassName, Exception e) {
+        NotificationGroupManager.getInstance().getNotificationGroup("TestMe")
+                .createNotification("TestMe failed merging tests into " + targetClassName, StringUtil.escapeXmlEntities(e.getMessage() == null ? e.getClass().getName() : e.getMessage()), NotificationType.ERROR)
+                .notify(project);
+    }
+
     @Override
     public String toString() {
         return CodeInsightBundle.message("intention.create.test.dialog.java");
@@ -2,15 +2,17 @@ package com.weirddev.testme.intellij.generator;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.impl.scopes.ModuleWithDependenciesScope;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.ModuleRootManager;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.lang.JavaVersion;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetrics;
 import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.ResolutionBudget;
+import com.weirddev.testme.intellij.template.SubtypesCache;
+import com.weirddev.testme.intellij.template.TestClasspathProfileCache;
 import com.weirddev.testme.intellij.template.TypeDictionary;
+import com.weirddev.testme.intellij.template.TypeDictionaryCache;
 import com.weirddev.testme.intellij.template.context.*;
 import com.weirddev.testme.intellij.template.context.impl.TestBuilderImpl;
 import org.jetbrains.annotations.NotNull;
@@ -18,6 +20,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -34,48 +37,67 @@ public class TestTemplateContextBuilder {
     }
 
     public Map<String, Object> build(FileTemplateContext context, Properties defaultProperties) {
-        final long start = new Date().getTime();
-        HashMap<String, Object> ctxtParams = initTemplateContext(defaultProperties);
+        return build(context, defaultProperties, Collections.emptySet());
+    }
+
+    /**
+     * @param testedMethodIds ids of methods already tested by the existing test class tests are merged into. tests are not generated for these methods
+     */
+    public Map<String, Object> build(FileTemplateContext context, Properties defaultProperties, Set<String> testedMethodIds) {
+        final GenerationMetrics generationMetrics = context.getGenerationMetrics();
+        final long start = generationMetrics.start();
+        final HashMap<String, Object> ctxtParams = initTemplateContext(defaultProperties);
         populateDateFields(ctxtParams, Calendar.getInstance());
         ctxtParams.put(TestMeTemplateParams.CLASS_NAME, context.getTargetClass());
         ctxtParams.put(TestMeTemplateParams.PACKAGE_NAME, context.getTargetPackage().getQualifiedName());
-        int maxRecursionDepth = context.getFileTemplateConfig().getMaxRecursionDepth();
-        ctxtParams.put(TestMeTemplateParams.MAX_RECURSION_DEPTH, maxRecursionDepth);
+        ctxtParams.put(TestMeTemplateParams.MAX_RECURSION_DEPTH, context.getFileTemplateConfig().getMaxRecursionDepth());
         ctxtParams.put(TestMeTemplateParams.StringUtils, new StringUtils());
-        final TypeDictionary typeDictionary = new TypeDictionary(context.getSrcClass(), context.getTargetPackage());
+        final TypeDictionary typeDictionary = new TypeDictionary(context.getSrcClass(), context.getTargetPackage(), context.getFileTemplateConfig().isCacheResolvedTypes() ? TypeDictionaryCache.getInstance(context.getProject()) : null,
+                context.getFileTemplateConfig().isCacheSubtypes() ? SubtypesCache.getInstance(context.getProject()) : null, ResolutionBudget.of(context.getFileTemplateConfig()));
+        context.setTypeDictionary(typeDictionary);
+        return typeDictionary.computeActive(() -> build(context, testedMethodIds, ctxtParams, typeDictionary, start));
+    }
+
+    /**
+     * populates the test template context with types resolved by typeDictionary. invoked with typeDictionary active
+     */
+    private Map<String, Object> build(FileTemplateContext context, Set<String> testedMethodIds, HashMap<String, Object> ctxtParams, TypeDictionary typeDictionary, long start) {
+        final GenerationMetrics generationMetrics = context.getGenerationMetrics();
+        final int maxRecursionDepth = context.getFileTemplateConfig().getMaxRecursionDepth();
         JavaVersion javaVersion = getJavaVersion(context.getTestModule());
         ctxtParams.put(TestMeTemplateParams.JAVA_VERSION, javaVersion);
-        ctxtParams.put(TestMeTemplateParams.TestBuilder, new TestBuilderImpl(context.getLanguage(), context.getSrcModule(), typeDictionary, context.getFileTemplateConfig(), javaVersion));
+        final TestBuilderImpl testBuilder = new TestBuilderImpl(context.getLanguage(), context.getSrcModule(), typeDictionary, context.getFileTemplateConfig(), javaVersion);
+        ctxtParams.put(TestMeTemplateParams.TestBuilder, testBuilder);
         final PsiClass targetClass = context.getSrcClass();
+        final CallGraphIndex callGraphIndex = new CallGraphIndex();
+        List<Method> testedClassMethods = Collections.emptyList();
         if (targetClass != null && targetClass.isValid()) {
             ctxtParams.put(TestMeTemplateParams.TESTED_CLASS_LANGUAGE, targetClass.getLanguage().getID());
+            final long startTypeResolution = generationMetrics.start();
             final Type type = typeDictionary.getType(Type.resolveType(targetClass), maxRecursionDepth, true);
+            generationMetrics.stop(GenerationMetrics.Phase.TYPE_RESOLUTION, startTypeResolution);
             ctxtParams.put(TestMeTemplateParams.TESTED_CLASS, type);
             if (type != null) {
-                resolveInternalReferences(maxRecursionDepth, type.getMethods());
+                final long startMethodCallsResolution = generationMetrics.start();
+                testedClassMethods = type.getMethods();
+                resolveInternalReferences(maxRecursionDepth, testedClassMethods, typeDictionary);
+                callGraphIndex.indexCallers(testedClassMethods);
+                generationMetrics.stop(GenerationMetrics.Phase.METHOD_CALLS_RESOLUTION, startMethodCallsResolution);
             }
         }
-        final TestSubjectInspector testSubjectInspector = new TestSubjectInspector(context.getFileTemplateConfig().isGenerateTestsForInheritedMethods());
+        final TestSubjectInspector testSubjectInspector = new TestSubjectInspector(context.getFileTemplateConfig().isGenerateTestsForInheritedMethods(), callGraphIndex, testedMethodIds);
         ctxtParams.put(TestMeTemplateParams.TestSubjectUtils, testSubjectInspector);
-        List<String> classpathJars = resolveClasspathJars(context);
-        ctxtParams.put(TestMeTemplateParams.MockitoMockBuilder, mockBuilderFactory.createMockitoMockBuilder(context, testSubjectInspector, classpathJars));
-        ctxtParams.put(TestMeTemplateParams.TestedClasspathJars, classpathJars);
-        logger.debug("Done building Test Template context in "+(new Date().getTime()-start)+" millis");
+        testBuilder.setTestedMethods(testedClassMethods.stream().filter(testSubjectInspector::shouldBeTested).collect(Collectors.toList()));
+        final TestClasspathProfile testClasspathProfile = TestClasspathProfileCache.getInstance(context.getProject()).getProfile(context.getTestModule());
+        ctxtParams.put(TestMeTemplateParams.MockitoMockBuilder, mockBuilderFactory.createMockitoMockBuilder(context, testSubjectInspector, testClasspathProfile));
+        ctxtParams.put(TestMeTemplateParams.TestedClasspathJars, testClasspathProfile.getClasspathJars());
+        ctxtParams.put(TestMeTemplateParams.TestClasspathProfile, testClasspathProfile);
+        generationMetrics.stop(GenerationMetrics.Phase.CONTEXT_BUILD, start);
+        generationMetrics.setResolvedCounts(typeDictionary.getNewTypesCount(), typeDictionary.getCachedTypeHitsCount(), typeDictionary.getResolvedMethodsCount());
+        logger.debug("Done building Test Template context in " + TimeUnit.NANOSECONDS.toMillis(generationMetrics.getNanos(GenerationMetrics.Phase.CONTEXT_BUILD)) + " millis. new types:" + typeDictionary.getNewTypesCount() + " cached types reused:" + typeDictionary.getCachedTypeHitsCount());
         return ctxtParams;
     }
 
-    @NotNull
-    private List<String> resolveClasspathJars(FileTemplateContext context) {
-        GlobalSearchScope searchScope = context.getTestModule().getModuleWithDependenciesAndLibrariesScope(true);
-        if (searchScope instanceof ModuleWithDependenciesScope) {
-            ModuleWithDependenciesScope moduleWithDependenciesScope = (ModuleWithDependenciesScope) searchScope;
-            return moduleWithDependenciesScope.getRoots().stream().map(VirtualFile::getName).filter(name -> name.endsWith(".jar")).collect(Collectors.toList());
-        }
-        else {
-            return List.of();
-        }
-    }
-
     @Nullable
     private JavaVersion getJavaVersion(Module testModule) {
         ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(testModule);
@@ -105,20 +127,21 @@ public class TestTemplateContextBuilder {
         return templateCtxtParams;
     }
 
-    private void resolveInternalReferences(int maxMethodCallsDepth, List<Method> methods) {
+    /**
+     * method calls and fields affected by constructors are kept by typeDictionary, since methods of types cached by {@link TypeDictionaryCache} are shared with other generations
+     */
+    private void resolveInternalReferences(int maxMethodCallsDepth, List<Method> methods, TypeDictionary typeDictionary) {
 //              todo test generic methods and type params. use actual type params passed
-        for (int i = 0; i < maxMethodCallsDepth; i++) {
-            for (Method method : methods) {
-                resolveMethodCalls(methods, method);
-            }
+        for (Map.Entry<Method, Set<MethodCall>> methodCalls : MethodCallsClosure.resolve(methods, maxMethodCallsDepth).entrySet()) {
+            typeDictionary.putMethodCallsClosure(methodCalls.getKey(), methodCalls.getValue());
         }
         for (Method method : methods) {
-            resolveFieldsAffectedByCtor(method.getReturnType(),maxMethodCallsDepth);
+            resolveFieldsAffectedByCtor(method.getReturnType(),maxMethodCallsDepth, typeDictionary);
         }
         logger.debug("Resolved internal references in test template context");
     }
 
-    private void resolveFieldsAffectedByCtor(Type type, int maxMethodCallsDepth) {//todo consider moving to test builder
+    private void resolveFieldsAffectedByCtor(Type type, int maxMethodCallsDepth, TypeDictionary typeDictionary) {//todo consider moving to test builder
         if (maxMethodCallsDepth < 1) {
             return;
         }
@@ -132,10 +155,10 @@ public class TestTemplateContextBuilder {
                                 affectedFields.add(assignedToField);
                             }
                         }
-                        resolveFieldsAffectedByCtor(param.getType(), maxMethodCallsDepth--);
+                        resolveFieldsAffectedByCtor(param.getType(), maxMethodCallsDepth--, typeDictionary);
                     }
                 }
-                ctor.getIndirectlyAffectedFields().addAll(affectedFields);
+                typeDictionary.addIndirectlyAffectedFields(ctor, affectedFields);
             }
         }
     }
@@ -144,45 +167,4 @@ public class TestTemplateContextBuilder {
         return type != null && !type.isPrimitive() && !type.isArray() && !type.isInterface() && !type.isAbstract() && !type.isVarargs();
     }
 
-    private void resolveMethodCalls(List<Method> methods, Method method) {
-        final Set<MethodCall> calledMethodsByMethodCalls = new HashSet<MethodCall>();
-//        final Set<MethodCall> methodsInMyFamilyTree= new HashSet<MethodCall>();
-        for (MethodCall methodCall : method.getMethodCalls()) {
-            final Method calledMethodFound = find(methods, methodCall.getMethod().getMethodId());//find originally resolved method since methods in resolved method call are resolved in a shallow manner
-            if (calledMethodFound != null) {
-                MethodCall methodCallFound;
-                if (methodCall.getMethod() == calledMethodFound) {
-                    methodCallFound = methodCall;
-                } else {
-                    methodCallFound = new MethodCall(calledMethodFound, methodCall.getMethodCallArguments());
-                }
-//                methodsInMyFamilyTree.add(methodCallFound);
-                calledMethodsByMethodCalls.add(methodCallFound);
-                if (method.getOwnerClassCanonicalType()!=null && method.getOwnerClassCanonicalType().equals(methodCallFound.getMethod().getOwnerClassCanonicalType())) {
-                    calledMethodsByMethodCalls.addAll(calledMethodFound.getMethodCalls());
-                }
-            }
-        }
-        method.getMethodCalls().removeAll(calledMethodsByMethodCalls);
-        method.getMethodCalls().addAll(calledMethodsByMethodCalls);
-//        method.getCalledFamilyMembers().addAll(methodsInMyFamilyTree);
-    }
-
-    private Method find(List<Method> methods, String methodId) {
-        for (Method method : methods) {
-            if (method.getMethodId().equals(methodId)) {
-                return method;
-            }
-            if (method.getReturnType() != null) {
-                for (Method returnTypeMethod : method.getReturnType().getMethods()) {
-                    if (returnTypeMethod.getMethodId().equals(methodId)) {
-                        return returnTypeMethod;
-                    }
-                }
-
-            }
-        }
-        return null;
-    }
-
 }
@@ -0,0 +1,110 @@
+package com.weirddev.testme.intellij.generator.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Timings and sizes measured while generating a single test class.
+ */
+public class GenerationMetrics {
+    public enum Phase {
+        CONTEXT_BUILD("Context build", false),
+        TYPE_RESOLUTION("Type resolution", true),
+        METHOD_CALLS_RESOLUTION("Method calls resolution", true),
+        TEMPLATE_RENDER("Template render", false),
+        OPTIMIZE_IMPORTS("Optimize imports", false),
+        SHORTEN_CLASS_REFERENCES("Shorten FQNs", false),
+        REFORMAT("Reformat", false);
+
+        private final String displayName;
+        /**
+         * true - when this phase is measured as part of another phase
+         */
+        private final boolean nested;
+
+        Phase(String displayName, boolean nested) {
+            this.displayName = displayName;
+            this.nested = nested;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public boolean isNested() {
+            return nested;
+        }
+    }
+
+    private final String testClass;
+    private final String templateName;
+    private final Map<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+    private long completionTime;
+    private int resolvedTypesCount;
+    private int cachedTypesCount;
+    private int resolvedMethodsCount;
+
+    public GenerationMetrics(String testClass, String templateName) {
+        this.testClass = testClass;
+        this.templateName = templateName;
+    }
+
+    /**
+     * @return start time to pass to {@link #stop(Phase, long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public synchronized void stop(Phase phase, long startNanos) {
+        phaseNanos.merge(phase, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    public synchronized long getNanos(Phase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    public synchronized long getTotalNanos() {
+        long totalNanos = 0;
+        for (Map.Entry<Phase, Long> entry : phaseNanos.entrySet()) {
+            if (!entry.getKey().isNested()) {
+                totalNanos += entry.getValue();
+            }
+        }
+        return totalNanos;
+    }
+
+    public synchronized void setResolvedCounts(int resolvedTypesCount, int cachedTypesCount, int resolvedMethodsCount) {
+        this.resolvedTypesCount = resolvedTypesCount;
+        this.cachedTypesCount = cachedTypesCount;
+        this.resolvedMethodsCount = resolvedMethodsCount;
+    }
+
+    synchronized void markCompleted() {
+        completionTime = System.currentTimeMillis();
+    }
+
+    public String getTestClass() {
+        return testClass;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public synchronized long getCompletionTime() {
+        return completionTime;
+    }
+
+    public synchronized int getResolvedTypesCount() {
+        return resolvedTypesCount;
+    }
+
+    public synchronized int getCachedTypesCount() {
+        return cachedTypesCount;
+    }
+
+    public synchronized int getResolvedMethodsCount() {
+        return resolvedMethodsCount;
+    }
+}
@@ -0,0 +1,70 @@
+package com.weirddev.testme.intellij.generator.metrics;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.messages.Topic;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps metrics of the last test generations in the project
+ */
+public class GenerationMetricsRegistry {
+    public static final Topic<Listener> TOPIC = Topic.create("TestMe generation metrics", Listener.class);
+    static final int DEFAULT_HISTORY_SIZE = 50;
+    private final Project project;
+    private final int historySize;
+    private final Deque<GenerationMetrics> history = new ArrayDeque<>();
+
+    public GenerationMetricsRegistry(Project project) {
+        this(project, Integer.parseInt(System.getProperty("testMe.metrics.historySize", String.valueOf(DEFAULT_HISTORY_SIZE))));
+    }
+
+    GenerationMetricsRegistry(Project project, int historySize) {
+        this.project = project;
+        this.historySize = Math.max(1, historySize);
+    }
+
+    public static GenerationMetricsRegistry getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, GenerationMetricsRegistry.class);
+    }
+
+    public void add(GenerationMetrics generationMetrics) {
+        generationMetrics.markCompleted();
+        synchronized (history) {
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(generationMetrics);
+        }
+        if (!project.isDisposed()) {
+            project.getMessageBus().syncPublisher(TOPIC).generationCompleted(generationMetrics);
+        }
+    }
+
+    /**
+     * @return metrics of last test generations, most recent first
+     */
+    public List<GenerationMetrics> getHistory() {
+        synchronized (history) {
+            final List<GenerationMetrics> generationMetrics = new ArrayList<>(history);
+            Collections.reverse(generationMetrics);
+            return generationMetrics;
+        }
+    }
+
+    public void clear() {
+        synchronized (history) {
+            history.clear();
+        }
+    }
+
+    public interface Listener {
+        void generationCompleted(GenerationMetrics generationMetrics);
+    }
+}
@@ -0,0 +1,119 @@
+package com.weirddev.testme.intellij.headless;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command line arguments of the headless test generation command:
+ * <pre>
+ * testme-generate &lt;project path&gt; --template &lt;template name or file name&gt; (--classes &lt;fqn&gt;[,&lt;fqn&gt;...] | --git-diff &lt;revision range&gt;) [--report &lt;json report file&gt;]
+ * </pre>
+ */
+class GenerateTestsArgs {
+    static final String USAGE = "Usage: testme-generate <project path> --template <template name or file name> (--classes <fqn>[,<fqn>...] | --git-diff <revision range>) [--report <json report file>]";
+    private final String projectPath;
+    private final String template;
+    private final List<String> classes;
+    private final String gitDiffRange;
+    private final String reportPath;
+
+    private GenerateTestsArgs(String projectPath, String template, List<String> classes, String gitDiffRange, String reportPath) {
+        this.projectPath = projectPath;
+        this.template = template;
+        this.classes = classes;
+        this.gitDiffRange = gitDiffRange;
+        this.reportPath = reportPath;
+    }
+
+    /**
+     * @param args command arguments, excluding the command name
+     * @throws IllegalArgumentException when arguments are missing or malformed
+     */
+    @NotNull
+    static GenerateTestsArgs parse(@NotNull List<String> args) {
+        String projectPath = null;
+        String template = null;
+        final List<String> classes = new ArrayList<>();
+        String gitDiffRange = null;
+        String reportPath = null;
+        for (int i = 0; i < args.size(); i++) {
+            final String arg = args.get(i);
+            switch (arg) {
+                case "--template":
+                    template = valueOf(args, ++i, arg);
+                    break;
+                case "--classes":
+                    for (String fqn : valueOf(args, ++i, arg).split(",")) {
+                        if (!fqn.trim().isEmpty()) {
+                            classes.add(fqn.trim());
+                        }
+                    }
+                    break;
+                case "--git-diff":
+                    gitDiffRange = valueOf(args, ++i, arg);
+                    break;
+                case "--report":
+                    reportPath = valueOf(args, ++i, arg);
+                    break;
+                default:
+                    if (arg.startsWith("--") || projectPath != null) {
+                        throw new IllegalArgumentException("Unexpected argument " + arg);
+                    }
+                    projectPath = arg;
+            }
+        }
+        if (projectPath == null) {
+            throw new IllegalArgumentException("Project path is missing");
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("Template is missing");
+        }
+        if (classes.isEmpty() == (gitDiffRange == null)) {
+            throw new IllegalArgumentException("Either --classes or --git-diff should be specified");
+        }
+        return new GenerateTestsArgs(projectPath, template, Collections.unmodifiableList(classes), gitDiffRange, reportPath);
+    }
+
+    @NotNull
+    private static String valueOf(List<String> args, int index, String option) {
+        if (index >= args.size() || args.get(index).startsWith("--")) {
+            throw new IllegalArgumentException("Missing value of " + option);
+        }
+        return args.get(index);
+    }
+
+    @NotNull
+    String getProjectPath() {
+        return projectPath;
+    }
+
+    @NotNull
+    String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return fully qualified names of classes to test. empty when classes to test are resolved from git diff
+     */
+    @NotNull
+    List<String> getClasses() {
+        return classes;
+    }
+
+    @Nullable
+    String getGitDiffRange() {
+        return gitDiffRange;
+    }
+
+    /**
+     * @return null - when report should be printed to standard output
+     */
+    @Nullable
+    String getReportPath() {
+        return reportPath;
+    }
+}
@@ -0,0 +1,186 @@
+package com.weirddev.testme.intellij.headless;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.util.ExecUtil;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.weirddev.testme.intellij.action.BatchTestsCreator;
+import com.weirddev.testme.intellij.template.TemplateDescriptor;
+import com.weirddev.testme.intellij.ui.template.TestMeTemplateManager;
+import com.weirddev.testme.intellij.utils.TestSubjectResolverUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates tests from the command line without UI, e.g. in a nightly CI job:
+ * <pre>
+ * idea.sh testme-generate /path/to/project --template "JUnit5 &amp; Mockito.java" --git-diff origin/main..HEAD --report testme-report.json
+ * </pre>
+ * The project is opened headlessly and the tests are generated by the same pipeline as the batch generation action.
+ * The project should be importable offline, i.e. have its IDEA project files and dependencies available locally.
+ * Exits with status 0 when no test failed to generate, 1 when some failed and 2 on invalid arguments or unrecoverable errors.
+ *
+ * @see GenerateTestsArgs
+ */
+public class GenerateTestsStarter implements ApplicationStarter {
+    private static final Logger LOG = Logger.getInstance(GenerateTestsStarter.class.getName());
+    private static final String COMMAND_NAME = "testme-generate";
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_GENERATION_FAILURES = 1;
+    private static final int EXIT_ERROR = 2;
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        int exitCode;
+        try {
+            exitCode = generate(GenerateTestsArgs.parse(args.subList(1, args.size())));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(GenerateTestsArgs.USAGE);
+            exitCode = EXIT_ERROR;
+        } catch (Throwable e) {
+            LOG.error("TestMe headless test generation failed", e);
+            System.err.println("TestMe headless test generation failed: " + e);
+            exitCode = EXIT_ERROR;
+        }
+        System.exit(exitCode);
+    }
+
+    private int generate(GenerateTestsArgs generateTestsArgs) throws ExecutionException, IOException {
+        final String projectPath = FileUtil.toSystemIndependentName(new File(generateTestsArgs.getProjectPath()).getAbsolutePath());
+        final Ref<Project> projectRef = Ref.create();
+        ApplicationManager.getApplication().invokeAndWait(() -> projectRef.set(ProjectUtil.openOrImport(projectPath, null, false)));
+        final Project project = projectRef.get();
+        if (project == null) {
+            throw new IllegalArgumentException("Unable to open project at " + projectPath);
+        }
+        try {
+            System.out.println("Waiting for indexing of " + project.getName() + " to complete");
+            DumbService.getInstance(project).waitForSmartMode();
+            final TemplateDescriptor templateDescriptor = findTemplate(project, generateTestsArgs.getTemplate());
+            final BatchTestsCreator batchTestsCreator = new BatchTestsCreator();
+            final List<SmartPsiElementPointer<PsiClass>> testSubjects = generateTestsArgs.getGitDiffRange() == null ?
+                    findClasses(project, generateTestsArgs.getClasses()) : findChangedClasses(project, projectPath, generateTestsArgs.getGitDiffRange(), batchTestsCreator);
+            System.out.println("Generating tests for " + testSubjects.size() + " classes with template " + templateDescriptor.getDisplayName());
+            final ProgressIndicator indicator = new EmptyProgressIndicator();
+            final BatchTestsCreator.BatchReport report = ProgressManager.getInstance().runProcess(() -> batchTestsCreator.generateTests(project, testSubjects, templateDescriptor, indicator), indicator);
+            ApplicationManager.getApplication().invokeAndWait(() -> FileDocumentManager.getInstance().saveAllDocuments());
+            for (BatchTestsCreator.ClassReport classReport : report.getClassReports()) {
+                if (classReport.getStatus() == BatchTestsCreator.ClassReport.Status.FAILED) {
+                    System.err.println("Failed generating test for " + classReport.getSrcClass() + ": " + classReport.getFailure());
+                }
+            }
+            writeReport(generateTestsArgs, new GenerationReportWriter().toJson(projectPath, templateDescriptor.getFilename(), report));
+            return report.count(BatchTestsCreator.ClassReport.Status.FAILED) == 0 ? EXIT_OK : EXIT_GENERATION_FAILURES;
+        } finally {
+            ApplicationManager.getApplication().invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(project));
+        }
+    }
+
+    @NotNull
+    private static TemplateDescriptor findTemplate(Project project, String template) {
+        final List<TemplateDescriptor> testTemplates = TestMeTemplateManager.getInstance(project).getTestTemplates();
+        for (TemplateDescriptor templateDescriptor : testTemplates) {
+            if (template.equals(templateDescriptor.getFilename()) || template.equals(templateDescriptor.getDisplayName())) {
+                return templateDescriptor;
+            }
+        }
+        final List<String> templateNames = new ArrayList<>();
+        for (TemplateDescriptor templateDescriptor : testTemplates) {
+            templateNames.add(templateDescriptor.getFilename());
+        }
+        throw new IllegalArgumentException("Template " + template + " was not found. Available templates: " + String.join(", ", templateNames));
+    }
+
+    @NotNull
+    private static List<SmartPsiElementPointer<PsiClass>> findClasses(Project project, List<String> classes) {
+        return ReadAction.compute(() -> {
+            final JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
+            final SmartPointerManager smartPointerManager = SmartPointerManager.getInstance(project);
+            final List<SmartPsiElementPointer<PsiClass>> testSubjects = new ArrayList<>();
+            for (String fqn : classes) {
+                final PsiClass psiClass = javaPsiFacade.findClass(fqn, GlobalSearchScope.projectScope(project));
+                if (psiClass == null) {
+                    System.err.println("Class " + fqn + " was not found in project sources");
+                } else if (!TestSubjectResolverUtils.isValidForTesting(psiClass)) {
+                    System.err.println("Class " + fqn + " is not testable");
+                } else {
+                    testSubjects.add(smartPointerManager.createSmartPsiElementPointer(psiClass));
+                }
+            }
+            return testSubjects;
+        });
+    }
+
+    /**
+     * finds classes in source files that were added or modified in given revision range, under the project directory
+     */
+    @NotNull
+    private static List<SmartPsiElementPointer<PsiClass>> findChangedClasses(Project project, String projectPath, String gitDiffRange, BatchTestsCreator batchTestsCreator) throws ExecutionException {
+        final GeneralCommandLine commandLine = new GeneralCommandLine("git", "diff", "--name-only", "--relative", "--diff-filter=d", gitDiffRange)
+                .withWorkDirectory(projectPath)
+                .withCharset(StandardCharsets.UTF_8);
+        final ProcessOutput output = ExecUtil.execAndGetOutput(commandLine);
+        if (output.getExitCode() != 0) {
+            throw new IllegalArgumentException("git diff " + gitDiffRange + " failed: " + output.getStderr());
+        }
+        final List<VirtualFile> changedFiles = new ArrayList<>();
+        for (String relativePath : output.getStdoutLines()) {
+            final VirtualFile changedFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(new File(projectPath, relativePath));
+            if (changedFile != null) {
+                changedFiles.add(changedFile);
+            }
+        }
+        return ReadAction.compute(() -> batchTestsCreator.findTestSubjects(project, changedFiles));
+    }
+
+    private static void writeReport(GenerateTestsArgs generateTestsArgs, String json) throws IOException {
+        if (generateTestsArgs.getReportPath() == null) {
+            System.out.println(json);
+        } else {
+            FileUtil.writeToFile(new File(generateTestsArgs.getReportPath()), json);
+            System.out.println("Report written to " + generateTestsArgs.getReportPath());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.weirddev.testme.intellij.headless;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.weirddev.testme.intellij.action.BatchTestsCreator;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats the outcome of headless test generation as JSON, including per class phase timings in millis
+ */
+class GenerationReportWriter {
+
+    @NotNull
+    String toJson(@NotNull String projectPath, @NotNull String templateName, @NotNull BatchTestsCreator.BatchReport report) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("project", projectPath);
+        json.addProperty("template", templateName);
+        json.addProperty("totalMillis", report.getTotalMillis());
+        for (BatchTestsCreator.ClassReport.Status status : BatchTestsCreator.ClassReport.Status.values()) {
+            json.addProperty(status.name().toLowerCase(), report.count(status));
+        }
+        final JsonArray classes = new JsonArray();
+        for (BatchTestsCreator.ClassReport classReport : report.getClassReports()) {
+            classes.add(toJson(classReport));
+        }
+        json.add("classes", classes);
+        return new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(json);
+    }
+
+    @NotNull
+    private JsonObject toJson(BatchTestsCreator.ClassReport classReport) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("sourceClass", classReport.getSrcClass());
+        json.addProperty("testClass", classReport.getTestClass());
+        json.addProperty("status", classReport.getStatus().name());
+        if (classReport.getFailure() != null) {
+            json.addProperty("failure", classReport.getFailure());
+        }
+        final GenerationMetrics generationMetrics = classReport.getGenerationMetrics();
+        if (generationMetrics != null) {
+            json.addProperty("totalMillis", TimeUnit.NANOSECONDS.toMillis(generationMetrics.getTotalNanos()));
+            final JsonObject phases = new JsonObject();
+            for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+                phases.addProperty(phase.name(), TimeUnit.NANOSECONDS.toMillis(generationMetrics.getNanos(phase)));
+            }
+            json.add("phasesMillis", phases);
+            json.addProperty("resolvedTypes", generationMetrics.getResolvedTypesCount());
+            json.addProperty("cachedTypes", generationMetrics.getCachedTypesCount());
+            json.addProperty("resolvedMethods", generationMetrics.getResolvedMethodsCount());
+        }
+        return json;
+    }
+}
@@ -82,6 +82,10 @@ public class FileTemplateConfig {
      * Default:true
      */
     private boolean generateTestsForInheritedMethods = true;
+    /**
+     * Test generator optimizations, modes and safeguards
+     */
+    private final GeneratorSettings generatorSettings;
 
     public FileTemplateConfig(TestMeConfig testMeConfig)  {
         this(
@@ -95,13 +99,15 @@ public class FileTemplateConfig {
                 Boolean.valueOf(System.getProperties().getProperty("testMe.generator.stubMockMethodCallsReturnValues", "true")),
                 Integer.valueOf(System.getProperties().getProperty("testMe.generator.maxNumOfConcreteCandidatesToReplaceInterfaceParam", "5")),
                 Integer.valueOf(System.getProperties().getProperty("testMe.generator.minPercentOfExcessiveSettersToPreferMapCtor", "50")),
-                Integer.valueOf(System.getProperties().getProperty("testMe.generator.minPercentOfInteractionWithPropertiesToTriggerConstructorOptimization", "66"))
+                Integer.valueOf(System.getProperties().getProperty("testMe.generator.minPercentOfInteractionWithPropertiesToTriggerConstructorOptimization", "66")),
+                GeneratorSettings.fromSystemProperties()
         );
 
     }
 
     private FileTemplateConfig(int maxRecursionDepth, boolean reformatCode, boolean replaceFqn, boolean optimizeImports, boolean generateTestsForInheritedMethods, boolean ignoreUnusedProperties, boolean replaceInterfaceParamsWithConcreteTypes, boolean stubMockMethodCallsReturnValues,
-                              int maxNumOfConcreteCandidatesToReplaceInterfaceParam, int minPercentOfExcessiveSettersToPreferMapCtor, int minPercentOfInteractionWithPropertiesToTriggerConstructorOptimization) {
+                              int maxNumOfConcreteCandidatesToReplaceInterfaceParam, int minPercentOfExcessiveSettersToPreferMapCtor, int minPercentOfInteractionWithPropertiesToTriggerConstructorOptimization,
+                              GeneratorSettings generatorSettings) {
         this.maxRecursionDepth = maxRecursionDepth;
         this.reformatCode = reformatCode;
         this.replaceFqn = replaceFqn;
@@ -113,6 +119,7 @@ public class FileTemplateConfig {
         this.maxNumOfConcreteCandidatesToReplaceInterfaceParam = maxNumOfConcreteCandidatesToReplaceInterfaceParam;
         this.minPercentOfExcessiveSettersToPreferMapCtor = minPercentOfExcessiveSettersToPreferMapCtor;
         this.minPercentOfInteractionWithPropertiesToTriggerConstructorOptimization = minPercentOfInteractionWithPropertiesToTriggerConstructorOptimization;
+        this.generatorSettings = generatorSettings;
     }
 
     public boolean isReformatCode() {
@@ -186,4 +193,64 @@ public class FileTemplateConfig {
     public boolean isGenerateTestsForInheritedMethods() {
         return generateTestsForInheritedMethods;
     }
+
+    public GeneratorSettings getGeneratorSettings() {
+        return generatorSettings;
+    }
+
+    public boolean isCacheResolvedTypes() {
+        return generatorSettings.isCacheResolvedTypes();
+    }
+
+    public void setCacheResolvedTypes(boolean cacheResolvedTypes) {
+        generatorSettings.setCacheResolvedTypes(cacheResolvedTypes);
+    }
+
+    public boolean isCacheCompiledTemplates() {
+        return generatorSettings.isCacheCompiledTemplates();
+    }
+
+    public void setCacheCompiledTemplates(boolean cacheCompiledTemplates) {
+        generatorSettings.setCacheCompiledTemplates(cacheCompiledTemplates);
+    }
+
+    public boolean isCacheSubtypes() {
+        return generatorSettings.isCacheSubtypes();
+    }
+
+    public void setCacheSubtypes(boolean cacheSubtypes) {
+        generatorSettings.setCacheSubtypes(cacheSubtypes);
+    }
+
+    public boolean isCacheRenderedParams() {
+        return generatorSettings.isCacheRenderedParams();
+    }
+
+    public void setCacheRenderedParams(boolean cacheRenderedParams) {
+        generatorSettings.setCacheRenderedParams(cacheRenderedParams);
+    }
+
+    public int getMaxResolvedTypes() {
+        return generatorSettings.getMaxResolvedTypes();
+    }
+
+    public void setMaxResolvedTypes(int maxResolvedTypes) {
+        generatorSettings.setMaxResolvedTypes(maxResolvedTypes);
+    }
+
+    public int getMaxResolvedMethods() {
+        return generatorSettings.getMaxResolvedMethods();
+    }
+
+    public void setMaxResolvedMethods(int maxResolvedMethods) {
+        generatorSettings.setMaxResolvedMethods(maxResolvedMethods);
+    }
+
+    public boolean isPreRenderMethods() {
+        return generatorSettings.isPreRenderMethods();
+    }
+
+    public void setPreRenderMethods(boolean preRenderMethods) {
+        generatorSettings.setPreRenderMethods(preRenderMethods);
+    }
 }
@@ -6,7 +6,9 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiPackage;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetrics;
 import com.weirddev.testme.intellij.template.context.Language;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Date: 10/19/2016
@@ -24,8 +26,21 @@ public class FileTemplateContext {
     private final PsiDirectory targetDirectory;
     private final PsiClass srcClass;
     private final FileTemplateConfig fileTemplateConfig;
+    private final GenerationMetrics generationMetrics;
+    /**
+     * true - when tests should be added to an existing test class for the methods it does not test yet
+     */
+    private final boolean mergeIntoExistingTestClass;
+    /**
+     * types resolved for this generation. set once the test template context is built
+     */
+    private volatile TypeDictionary typeDictionary;
 
     public FileTemplateContext(FileTemplateDescriptor fileTemplateDescriptor, Language language, Project project, String targetClass, PsiPackage targetPackage, Module srcModule, Module testModule, PsiDirectory targetDirectory, PsiClass srcClass, FileTemplateConfig fileTemplateConfig) {
+        this(fileTemplateDescriptor, language, project, targetClass, targetPackage, srcModule, testModule, targetDirectory, srcClass, fileTemplateConfig, false);
+    }
+
+    public FileTemplateContext(FileTemplateDescriptor fileTemplateDescriptor, Language language, Project project, String targetClass, PsiPackage targetPackage, Module srcModule, Module testModule, PsiDirectory targetDirectory, PsiClass srcClass, FileTemplateConfig fileTemplateConfig, boolean mergeIntoExistingTestClass) {
         this.fileTemplateDescriptor = fileTemplateDescriptor;
         this.language = language;
         this.project = project;
@@ -36,6 +51,8 @@ public class FileTemplateContext {
         this.targetDirectory = targetDirectory;
         this.srcClass = srcClass;
         this.fileTemplateConfig = fileTemplateConfig;
+        this.generationMetrics = new GenerationMetrics(targetClass, fileTemplateDescriptor.getFileName());
+        this.mergeIntoExistingTestClass = mergeIntoExistingTestClass;
     }
 
     public Project getProject() {
@@ -76,4 +93,21 @@ public class FileTemplateContext {
     public FileTemplateConfig getFileTemplateConfig() {
         return fileTemplateConfig;
     }
+
+    public GenerationMetrics getGenerationMetrics() {
+        return generationMetrics;
+    }
+
+    public boolean isMergeIntoExistingTestClass() {
+        return mergeIntoExistingTestClass;
+    }
+
+    @Nullable
+    public TypeDictionary getTypeDictionary() {
+        return typeDictionary;
+    }
+
+    public void setTypeDictionary(TypeDictionary typeDictionary) {
+        this.typeDictionary = typeDictionary;
+    }
 }
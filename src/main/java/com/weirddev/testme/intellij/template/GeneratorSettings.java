@@ -0,0 +1,135 @@
+package com.weirddev.testme.intellij.template;
+
+/**
+ * Test generator optimizations, modes and safeguards, configured by testMe.generator.* system properties
+ *
+ * @see FileTemplateConfig
+ */
+public class GeneratorSettings {
+    private static final String PROPERTY_PREFIX = "testMe.generator.";
+    /**
+     * Test generator optimization. keep types resolved while inspecting the tested class in a project level cache, so following generations introspecting the same types reuse them.
+     * A cached type is discarded once its source file or the source files of its dependencies are modified.
+     * Valid values:true,false
+     * Default:true
+     */
+    private boolean cacheResolvedTypes = true;
+    /**
+     * Test generator optimization. reuse parsed velocity templates and includes, keyed by their content hash, instead of re-parsing them on every generation.
+     * Valid values:true,false
+     * Default:true
+     */
+    private boolean cacheCompiledTemplates = true;
+    /**
+     * Test generator optimization. keep direct subtypes found when replacing interface params with concrete types in a project level cache, so following generations skip the hierarchy search.
+     * Cached subtypes are discarded once PSI is modified. Subtypes are always reused within a single generation.
+     * Valid values:true,false
+     * Default:true
+     */
+    private boolean cacheSubtypes = true;
+    /**
+     * Test generator optimization. reuse code rendered for params of the same type and context within a single generation, instead of rendering identical constructor calls for every test method.
+     * Valid values:true,false
+     * Default:true
+     */
+    private boolean cacheRenderedParams = true;
+    /**
+     * Test generator safeguard. max no. of types resolved while introspecting the tested class in a single generation. once exceeded, further types are not introspected so params of these types are initialized with null.
+     * Types requested deeper in the object graph get a proportionally smaller share of this budget, so types closer to the tested class are prioritized.
+     * Valid values:positive integer
+     * Default:5000
+     */
+    private int maxResolvedTypes = 5000;
+    /**
+     * Test generator safeguard. max no. of methods resolved while introspecting the tested class in a single generation. once exceeded, methods of further types are not introspected.
+     * Shared proportionally by depth, as maxResolvedTypes.
+     * Valid values:positive integer
+     * Default:20000
+     */
+    private int maxResolvedMethods = 20000;
+    /**
+     * Test generator optimization. when the test file is rendered in the background, render params and expected results of all tested methods concurrently once the template renders the first of them, with the maps the template renders it with.
+     * Valid values:true,false
+     * Default:true
+     */
+    private boolean preRenderMethods = true;
+
+    /**
+     * @return settings with defaults overridden by testMe.generator.* system properties
+     */
+    public static GeneratorSettings fromSystemProperties() {
+        final GeneratorSettings generatorSettings = new GeneratorSettings();
+        generatorSettings.cacheResolvedTypes = booleanProperty("cacheResolvedTypes", generatorSettings.cacheResolvedTypes);
+        generatorSettings.cacheCompiledTemplates = booleanProperty("cacheCompiledTemplates", generatorSettings.cacheCompiledTemplates);
+        generatorSettings.cacheSubtypes = booleanProperty("cacheSubtypes", generatorSettings.cacheSubtypes);
+        generatorSettings.cacheRenderedParams = booleanProperty("cacheRenderedParams", generatorSettings.cacheRenderedParams);
+        generatorSettings.maxResolvedTypes = intProperty("maxResolvedTypes", generatorSettings.maxResolvedTypes);
+        generatorSettings.maxResolvedMethods = intProperty("maxResolvedMethods", generatorSettings.maxResolvedMethods);
+        generatorSettings.preRenderMethods = booleanProperty("preRenderMethods", generatorSettings.preRenderMethods);
+        return generatorSettings;
+    }
+
+    private static boolean booleanProperty(String name, boolean defaultValue) {
+        return Boolean.valueOf(System.getProperties().getProperty(PROPERTY_PREFIX + name, String.valueOf(defaultValue)));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.valueOf(System.getProperties().getProperty(PROPERTY_PREFIX + name, String.valueOf(defaultValue)));
+    }
+
+    public boolean isCacheResolvedTypes() {
+        return cacheResolvedTypes;
+    }
+
+    public void setCacheResolvedTypes(boolean cacheResolvedTypes) {
+        this.cacheResolvedTypes = cacheResolvedTypes;
+    }
+
+    public boolean isCacheCompiledTemplates() {
+        return cacheCompiledTemplates;
+    }
+
+    public void setCacheCompiledTemplates(boolean cacheCompiledTemplates) {
+        this.cacheCompiledTemplates = cacheCompiledTemplates;
+    }
+
+    public boolean isCacheSubtypes() {
+        return cacheSubtypes;
+    }
+
+    public void setCacheSubtypes(boolean cacheSubtypes) {
+        this.cacheSubtypes = cacheSubtypes;
+    }
+
+    public boolean isCacheRenderedParams() {
+        return cacheRenderedParams;
+    }
+
+    public void setCacheRenderedParams(boolean cacheRenderedParams) {
+        this.cacheRenderedParams = cacheRenderedParams;
+    }
+
+    public int getMaxResolvedTypes() {
+        return maxResolvedTypes;
+    }
+
+    public void setMaxResolvedTypes(int maxResolvedTypes) {
+        this.maxResolvedTypes = maxResolvedTypes;
+    }
+
+    public int getMaxResolvedMethods() {
+        return maxResolvedMethods;
+    }
+
+    public void setMaxResolvedMethods(int maxResolvedMethods) {
+        this.maxResolvedMethods = maxResolvedMethods;
+    }
+
+    public boolean isPreRenderMethods() {
+        return preRenderMethods;
+    }
+
+    public void setPreRenderMethods(boolean preRenderMethods) {
+        this.preRenderMethods = preRenderMethods;
+    }
+}
@@ -0,0 +1,50 @@
+package com.weirddev.testme.intellij.template;
+
+/**
+ * Bounds the no. of types and methods resolved in a single generation, regardless of the shape of the tested class object graph.
+ * Types are resolved lazily, in the order the template accesses them, so deep types reachable from the first tested params could use up the budget before shallow types of the next ones.
+ * To prioritize types closer to the tested class, a request with remaining recursion depth d may only use a (d + 1) / (maxRecursionDepth + 1) share of the budget,
+ * so the budget left for top level types is never consumed by deeper ones.
+ */
+public class ResolutionBudget {
+    public static final ResolutionBudget UNLIMITED = new ResolutionBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+    private final int maxResolvedTypes;
+    private final int maxResolvedMethods;
+    private final int maxRecursionDepth;
+
+    /**
+     * @param maxRecursionDepth recursion depth of the tested class types
+     */
+    public ResolutionBudget(int maxResolvedTypes, int maxResolvedMethods, int maxRecursionDepth) {
+        this.maxResolvedTypes = maxResolvedTypes;
+        this.maxResolvedMethods = maxResolvedMethods;
+        this.maxRecursionDepth = maxRecursionDepth;
+    }
+
+    public static ResolutionBudget of(FileTemplateConfig fileTemplateConfig) {
+        return new ResolutionBudget(fileTemplateConfig.getMaxResolvedTypes(), fileTemplateConfig.getMaxResolvedMethods(), fileTemplateConfig.getMaxRecursionDepth());
+    }
+
+    /**
+     * @param resolvedTypes no. of types resolved so far
+     * @param recursionDepth remaining recursion depth of the requested type
+     */
+    public boolean allowsType(int resolvedTypes, int recursionDepth) {
+        return resolvedTypes < limitAtDepth(maxResolvedTypes, recursionDepth);
+    }
+
+    /**
+     * @param resolvedMethods no. of methods resolved so far
+     * @param recursionDepth remaining recursion depth of the type which methods are requested
+     */
+    public boolean allowsMethods(int resolvedMethods, int recursionDepth) {
+        return resolvedMethods < limitAtDepth(maxResolvedMethods, recursionDepth);
+    }
+
+    int limitAtDepth(int limit, int recursionDepth) {
+        if (recursionDepth >= maxRecursionDepth || limit == Integer.MAX_VALUE) {
+            return limit;
+        }
+        return (int) ((long) limit * (Math.max(recursionDepth, 0) + 1) / (maxRecursionDepth + 1));
+    }
+}
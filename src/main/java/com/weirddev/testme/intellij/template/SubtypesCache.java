@@ -0,0 +1,91 @@
+package com.weirddev.testme.intellij.template;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.search.searches.FunctionalExpressionSearch;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project level cache of direct subtypes found in the project production sources, used for replacing interface and abstract params with concrete types.
+ * Cached subtypes are discarded once PSI or project roots are modified.
+ */
+public class SubtypesCache {
+    private static final Logger LOG = Logger.getInstance(SubtypesCache.class.getName());
+    private final Project project;
+    private final Map<String, List<String>> subtypesByClass = new ConcurrentHashMap<>();
+    private volatile long cachedModificationCount = -1;
+
+    public SubtypesCache(Project project) {
+        this.project = project;
+    }
+
+    public static SubtypesCache getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, SubtypesCache.class);
+    }
+
+    /**
+     * @return qualified names of direct subtypes of psiClass. empty if psiClass has no subtypes or more than maxCandidates subtypes
+     * @see #searchDirectSubtypes(PsiClass, int)
+     */
+    @NotNull
+    public List<String> getDirectSubtypes(@NotNull PsiClass psiClass, int maxCandidates) {
+        final String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName == null) {
+            return searchDirectSubtypes(psiClass, maxCandidates);
+        }
+        final long modificationCount = PsiModificationTracker.getInstance(project).getModificationCount() + ProjectRootManager.getInstance(project).getModificationCount();
+        if (modificationCount != cachedModificationCount) {
+            subtypesByClass.clear();
+            cachedModificationCount = modificationCount;
+        }
+        final String key = qualifiedName + ":" + maxCandidates;
+        List<String> subtypes = subtypesByClass.get(key);
+        if (subtypes == null) {
+            subtypes = searchDirectSubtypes(psiClass, maxCandidates);
+            subtypesByClass.put(key, subtypes);
+        }
+        return subtypes;
+    }
+
+    /**
+     * Searches direct inheritors of psiClass in the project production sources. Functional expressions implementing psiClass count as subtypes as well but are not returned.
+     * The search stops once more than maxCandidates subtypes are found
+     * @return qualified names of direct subtypes. empty if psiClass has no subtypes or more than maxCandidates subtypes
+     */
+    @NotNull
+    public static List<String> searchDirectSubtypes(@NotNull PsiClass psiClass, int maxCandidates) {
+        if (CommonClassNames.JAVA_LANG_OBJECT.equals(psiClass.getQualifiedName()) || psiClass.hasModifierProperty(PsiModifier.FINAL)) {
+            return Collections.emptyList();
+        }
+        final SearchScope searchScope = psiClass.getUseScope().intersectWith(GlobalSearchScopesCore.projectProductionScope(psiClass.getProject()));
+        final List<String> subtypes = new ArrayList<>();
+        final AtomicInteger subtypesCount = new AtomicInteger();
+        final boolean withinLimit = ClassInheritorsSearch.search(psiClass, searchScope, false).forEach(inheritor -> {
+            if (inheritor.getQualifiedName() != null) {
+                subtypes.add(inheritor.getQualifiedName());
+            }
+            return subtypesCount.incrementAndGet() <= maxCandidates;
+        }) && (!psiClass.isInterface() || FunctionalExpressionSearch.search(psiClass, searchScope).forEach(expression -> subtypesCount.incrementAndGet() <= maxCandidates));
+        if (!withinLimit) {
+            LOG.debug("more than " + maxCandidates + " subtypes found for " + psiClass.getQualifiedName());
+            return Collections.emptyList();
+        }
+        return subtypes.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(subtypes);
+    }
+}
@@ -0,0 +1,140 @@
+package com.weirddev.testme.intellij.template;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ResourceFileUtil;
+import com.intellij.openapi.module.impl.scopes.ModuleWithDependenciesScope;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.weirddev.testme.intellij.template.context.StringUtils;
+import com.weirddev.testme.intellij.template.context.TestClasspathProfile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Project level cache of test module classpath profiles - classpath jars, test frameworks versions and mockito mock maker configuration.
+ * Profiles are discarded once project roots change. A profile is also recomputed when the mockito MockMaker file it was resolved from is modified,
+ * or - when no MockMaker file was found - when one appears on the test module classpath.
+ */
+public class TestClasspathProfileCache implements Disposable {
+    private static final Logger LOG = Logger.getInstance(TestClasspathProfileCache.class.getName());
+    private static final String MOCK_MAKER_RESOURCE = "mockito-extensions/org.mockito.plugins.MockMaker";
+    private final Project project;
+    private final Map<Module, CachedProfile> profilesByModule = new ConcurrentHashMap<>();
+
+    public TestClasspathProfileCache(Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                invalidateAll();
+            }
+        });
+    }
+
+    public static TestClasspathProfileCache getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, TestClasspathProfileCache.class);
+    }
+
+    @NotNull
+    public TestClasspathProfile getProfile(@NotNull Module testModule) {
+        CachedProfile cachedProfile = profilesByModule.get(testModule);
+        if (cachedProfile == null || !cachedProfile.isUpToDate(testModule)) {
+            cachedProfile = resolveProfile(testModule);
+            profilesByModule.put(testModule, cachedProfile);
+            LOG.debug("resolved test classpath profile of module " + testModule.getName() + ":" + cachedProfile.profile);
+        }
+        return cachedProfile.profile;
+    }
+
+    public void invalidateAll() {
+        LOG.debug("invalidating all test classpath profiles");
+        profilesByModule.clear();
+    }
+
+    @Override
+    public void dispose() {
+        profilesByModule.clear();
+    }
+
+    @NotNull
+    private CachedProfile resolveProfile(@NotNull Module testModule) {
+        final long vfsModificationCount = VirtualFileManager.getInstance().getModificationCount();
+        final VirtualFile mockMakerVFile = findMockMaker(testModule);
+        LOG.debug("found mockito MockMaker in test module classpath:" + mockMakerVFile);
+        boolean mockMakerInlineOn = false;
+        if (mockMakerVFile != null && mockMakerVFile.isValid()) {
+            final PsiFile mockMakerPsiFile = PsiManager.getInstance(project).findFile(mockMakerVFile);
+            if (mockMakerPsiFile != null) {
+                final String mockFileText = mockMakerPsiFile.getText();
+                mockMakerInlineOn = StringUtils.hasLine(mockFileText, "mock-maker-inline");
+                LOG.debug("mockito MockMaker content:" + mockFileText);
+            }
+        }
+        return new CachedProfile(new TestClasspathProfile(resolveClasspathJars(testModule), mockMakerInlineOn), mockMakerVFile, vfsModificationCount);
+    }
+
+    @Nullable
+    private static VirtualFile findMockMaker(@NotNull Module testModule) {
+        return ResourceFileUtil.findResourceFileInDependents(testModule, MOCK_MAKER_RESOURCE);
+    }
+
+    @NotNull
+    private static List<String> resolveClasspathJars(@NotNull Module testModule) {
+        GlobalSearchScope searchScope = testModule.getModuleWithDependenciesAndLibrariesScope(true);
+        if (searchScope instanceof ModuleWithDependenciesScope) {
+            ModuleWithDependenciesScope moduleWithDependenciesScope = (ModuleWithDependenciesScope) searchScope;
+            return moduleWithDependenciesScope.getRoots().stream().map(VirtualFile::getName).filter(name -> name.endsWith(".jar")).collect(Collectors.toList());
+        }
+        else {
+            return List.of();
+        }
+    }
+
+    private static class CachedProfile {
+        private final TestClasspathProfile profile;
+        @Nullable
+        private final VirtualFile mockMakerVFile;
+        private final long mockMakerModificationStamp;
+        /**
+         * VFS modification count when the MockMaker file was looked up. While no MockMaker file was found, the lookup is repeated only once files have changed since
+         */
+        private volatile long vfsModificationCount;
+
+        private CachedProfile(TestClasspathProfile profile, @Nullable VirtualFile mockMakerVFile, long vfsModificationCount) {
+            this.profile = profile;
+            this.mockMakerVFile = mockMakerVFile;
+            this.vfsModificationCount = vfsModificationCount;
+            mockMakerModificationStamp = mockMakerVFile == null ? -1 : mockMakerVFile.getModificationStamp();
+        }
+
+        private boolean isUpToDate(@NotNull Module testModule) {
+            if (mockMakerVFile != null) {
+                return mockMakerVFile.isValid() && mockMakerVFile.getModificationStamp() == mockMakerModificationStamp;
+            }
+            final long currentVfsModificationCount = VirtualFileManager.getInstance().getModificationCount();
+            if (currentVfsModificationCount == vfsModificationCount) {
+                return true;
+            }
+            if (findMockMaker(testModule) != null) {
+                return false;
+            }
+            vfsModificationCount = currentVfsModificationCount;
+            return true;
+        }
+    }
+}
@@ -1,35 +1,171 @@
 package com.weirddev.testme.intellij.template;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiPackage;
 import com.intellij.psi.PsiType;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiUtil;
+import com.weirddev.testme.intellij.common.utils.PsiMethodUtils;
+import com.weirddev.testme.intellij.resolvers.MethodBodyAnalysis;
+import com.weirddev.testme.intellij.template.context.Field;
+import com.weirddev.testme.intellij.template.context.Method;
+import com.weirddev.testme.intellij.template.context.MethodCall;
 import com.weirddev.testme.intellij.template.context.Type;
 import com.weirddev.testme.intellij.utils.JavaTypeUtils;
+import com.weirddev.testme.intellij.utils.MethodBodyAnalyzers;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 /**
+ * Types resolved for a single test generation. Types may be resolved by several threads concurrently, i.e. when pre rendering tested methods in parallel.
+ * A type is created by the first thread requesting it, while other threads requesting it meanwhile wait for it to be created, so each type is resolved once.
+ * A thread waiting for a type created by a thread that waits, directly or indirectly, for a type it creates, gets the type created so far - as a single thread resolving a recursive type graph does.
+ * When that type is not created yet, the waiting thread gets a shallow type that is not added to the dictionary, so the type is still created once.
+ * Types lazily resolving their dependencies lock only themselves, and resolve them with the dictionary active in the accessing thread - see {@link #computeActive(ThrowableComputable)}.
+ *
  * Date: 26/11/2016
  *
  * @author Yaron Yamin
  */
 public class TypeDictionary {
     private static final Logger LOG = Logger.getInstance(TypeDictionary.class.getName());
-    Map<String, Type> typeDictionary = new HashMap<String, Type>();
+    /**
+     * dictionary of the test generation each thread currently works on
+     */
+    private static final ThreadLocal<TypeDictionary> activeTypeDictionary = new ThreadLocal<>();
+    Map<String, Type> typeDictionary = new ConcurrentHashMap<>();
     private final PsiClass srcClass;
     private final PsiPackage targetPackage;
+    @Nullable
+    private final TypeDictionaryCache typeDictionaryCache;
+    /**
+     * types currently being created, keyed by canonical name
+     */
+    private final Map<String, InFlightType> inFlightTypes = new ConcurrentHashMap<>();
+    /**
+     * types created by other threads that threads resolving types of this dictionary currently wait for
+     */
+    private final Map<Thread, InFlightType> awaitedTypes = new ConcurrentHashMap<>();
+    /**
+     * canonical names of types currently being resolved by each thread. used for tracking dependencies between resolved types
+     */
+    private final ThreadLocal<Deque<String>> resolutionStack = ThreadLocal.withInitial(ArrayDeque::new);
+    private final Map<String, Set<String>> typeDependencies = new ConcurrentHashMap<>();
+    /**
+     * canonical names of cached types already verified as up to date during this generation
+     */
+    private final Set<String> verifiedCachedTypes = ConcurrentHashMap.newKeySet();
+    @Nullable
+    private final SubtypesCache subtypesCache;
+    /**
+     * direct subtypes found during this generation, keyed by canonical name of the super type
+     */
+    private final Map<String, List<PsiClass>> directSubtypes = new ConcurrentHashMap<>();
+    /**
+     * types of direct subtypes resolved during this generation, keyed by canonical name of the super type
+     */
+    private final Map<String, List<Type>> directSubtypeTypes = new ConcurrentHashMap<>();
+    private final Map<String, Optional<PsiClass>> classesInModule = new ConcurrentHashMap<>();
+    /**
+     * whether owner classes of methods introspected during this generation are found in project scope, keyed by qualified name
+     */
+    private final Map<String, Boolean> classesInProjectScope = new ConcurrentHashMap<>();
+    /**
+     * formatted ids of methods introspected during this generation
+     */
+    private final Map<PsiMethod, String> methodIds = new ConcurrentHashMap<>();
+    /**
+     * implementations of methods introspected during this generation, each traversed once
+     */
+    private final Map<PsiMethod, MethodBodyAnalysis> methodBodyAnalyses = new ConcurrentHashMap<>();
+    /**
+     * method calls of tested methods, directly or on the call stack, resolved for this generation. kept apart from the methods, which may be shared with other generations through the {@link TypeDictionaryCache}
+     */
+    private final Map<Method, Set<MethodCall>> methodCallsClosures = Collections.synchronizedMap(new IdentityHashMap<>());
+    /**
+     * fields affected by methods called from constructors, resolved for this generation
+     */
+    private final Map<Method, Set<Field>> indirectlyAffectedFields = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final ResolutionBudget resolutionBudget;
+    private final AtomicBoolean budgetExhaustionReported = new AtomicBoolean();
     private AtomicInteger newTypeCounter = new AtomicInteger();
     private AtomicInteger existingTypeHitsCounter = new AtomicInteger();
+    private AtomicInteger cachedTypeHitsCounter = new AtomicInteger();
+    private AtomicInteger resolvedMethodsCounter = new AtomicInteger();
 
     public TypeDictionary(PsiClass srcClass, PsiPackage targetPackage) {
+        this(srcClass, targetPackage, null);
+    }
+
+    public TypeDictionary(PsiClass srcClass, PsiPackage targetPackage, @Nullable TypeDictionaryCache typeDictionaryCache) {
+        this(srcClass, targetPackage, typeDictionaryCache, null);
+    }
+
+    public TypeDictionary(PsiClass srcClass, PsiPackage targetPackage, @Nullable TypeDictionaryCache typeDictionaryCache, @Nullable SubtypesCache subtypesCache) {
+        this(srcClass, targetPackage, typeDictionaryCache, subtypesCache, ResolutionBudget.UNLIMITED);
+    }
+
+    public TypeDictionary(PsiClass srcClass, PsiPackage targetPackage, @Nullable TypeDictionaryCache typeDictionaryCache, @Nullable SubtypesCache subtypesCache, @NotNull ResolutionBudget resolutionBudget) {
         this.srcClass = srcClass;
         this.targetPackage = targetPackage;
+        this.typeDictionaryCache = typeDictionaryCache;
+        this.subtypesCache = subtypesCache;
+        this.resolutionBudget = resolutionBudget;
+    }
+
+    /**
+     * @return a dictionary for resolving deferred dependencies of a type accessed outside of any generation, once the generation that introspected it is over
+     */
+    @NotNull
+    public static TypeDictionary createDetached(@NotNull Project project, @Nullable String targetPackage) {
+        return new TypeDictionary(null, targetPackage == null ? null : JavaPsiFacade.getInstance(project).findPackage(targetPackage));
+    }
+
+    /**
+     * @return dictionary of the test generation the current thread works on. null if none
+     */
+    @Nullable
+    public static TypeDictionary getActive() {
+        return activeTypeDictionary.get();
+    }
+
+    /**
+     * Activates this dictionary in the current thread while computing. Types accessed meanwhile resolve their deferred dependencies with this dictionary,
+     * including types shared with other generations through the {@link TypeDictionaryCache}
+     */
+    public <T, E extends Throwable> T computeActive(@NotNull ThrowableComputable<T, E> computable) throws E {
+        final TypeDictionary previous = activeTypeDictionary.get();
+        activeTypeDictionary.set(this);
+        try {
+            return computable.compute();
+        } finally {
+            if (previous == null) {
+                activeTypeDictionary.remove();
+            } else {
+                activeTypeDictionary.set(previous);
+            }
+        }
+    }
+
+    @Nullable
+    public String getTargetPackageName() {
+        return targetPackage == null ? null : targetPackage.getQualifiedName();
     }
 
     @Nullable
@@ -48,30 +184,385 @@ public class TypeDictionary {
 
     @Nullable
     private Type getTypeInternal(Object element, int maxRecursionDepth, boolean shouldResolveAllMethods, Object typeElement) {
-        Type type = null;
+        ProgressManager.checkCanceled();
         String canonicalText = JavaTypeUtils.resolveCanonicalName(element, typeElement);
-        if  (canonicalText != null) {
-            type = typeDictionary.get(canonicalText);
-            if (type == null || !type.isDependenciesResolvable() && shouldResolveAllMethods && maxRecursionDepth > 1) {
-                LOG.debug(newTypeCounter.incrementAndGet() + ". Creating new type object for:" + canonicalText + " maxRecursionDepth:" + maxRecursionDepth);
-                if (element instanceof PsiType) {
-                    final PsiType psiType = (PsiType) element;
-                    type = new Type(psiType, typeElement, this, maxRecursionDepth, shouldResolveAllMethods);
-                    typeDictionary.put(canonicalText, type);
-                    type.resolveDependencies(this, maxRecursionDepth, psiType, shouldResolveAllMethods);
-                } else if (element instanceof PsiClass) {
-                    final PsiClass psiClass = (PsiClass) element;
-                    type = new Type(psiClass, this, maxRecursionDepth, shouldResolveAllMethods);
-                    typeDictionary.put(canonicalText, type);
+        if (canonicalText == null) {
+            return null;
+        }
+        registerDependency(canonicalText);
+        while (true) {
+            final InFlightType inFlight = inFlightTypes.get(canonicalText);
+            if (inFlight != null && inFlight.owner != Thread.currentThread()) {
+                if (awaitCreation(inFlight)) {
+                    continue;
                 }
-            } else {
+                final Type createdSoFar = inFlight.type;
+                return createdSoFar != null ? createdSoFar : createShallowType(element, typeElement);
+            }
+            final Type type = typeDictionary.get(canonicalText);
+            if (type != null && !isRecreationRequired(type, maxRecursionDepth, shouldResolveAllMethods)) {
                 LOG.debug(existingTypeHitsCounter.incrementAndGet() + ". Found existing type object for:" + canonicalText + " maxRecursionDepth:" + maxRecursionDepth);
+                return type;
+            }
+            if (inFlight != null) {
+                // requested again while being created by this thread, i.e. by a type referencing itself
+                return resolveType(canonicalText, element, maxRecursionDepth, shouldResolveAllMethods, typeElement, null);
+            }
+            final InFlightType inFlightType = new InFlightType();
+            if (inFlightTypes.putIfAbsent(canonicalText, inFlightType) == null) {
+                try {
+                    return resolveType(canonicalText, element, maxRecursionDepth, shouldResolveAllMethods, typeElement, inFlightType);
+                } finally {
+                    inFlightTypes.remove(canonicalText, inFlightType);
+                    inFlightType.created.countDown();
+                }
             }
         }
+    }
+
+    /**
+     * Creates the type with given canonical name unless found in this dictionary or in the type dictionary cache meanwhile
+     * @param inFlightType creation of the type by the current thread, awaited by other threads. null if created again while being created, in which case the type is not shared with other threads until created
+     */
+    @Nullable
+    private Type resolveType(String canonicalText, Object element, int maxRecursionDepth, boolean shouldResolveAllMethods, Object typeElement, @Nullable InFlightType inFlightType) {
+        Type type = typeDictionary.get(canonicalText);
+        if (type == null) {
+            type = findCachedType(canonicalText, maxRecursionDepth, shouldResolveAllMethods);
+        }
+        if (type != null && !isRecreationRequired(type, maxRecursionDepth, shouldResolveAllMethods)) {
+            LOG.debug(existingTypeHitsCounter.incrementAndGet() + ". Found existing type object for:" + canonicalText + " maxRecursionDepth:" + maxRecursionDepth);
+            return type;
+        }
+        final boolean withinBudget = resolutionBudget.allowsType(newTypeCounter.get(), maxRecursionDepth);
+        if (!withinBudget) {
+            reportBudgetExhaustion("types", canonicalText, maxRecursionDepth);
+            if (type != null) {
+                return type;
+            }
+            maxRecursionDepth = 0;
+            shouldResolveAllMethods = false;
+        }
+        LOG.debug(newTypeCounter.incrementAndGet() + ". Creating new type object for:" + canonicalText + " maxRecursionDepth:" + maxRecursionDepth);
+        typeDependencies.put(canonicalText, ConcurrentHashMap.newKeySet());
+        final Deque<String> resolutionStack = this.resolutionStack.get();
+        resolutionStack.push(canonicalText);
+        try {
+            if (element instanceof PsiType) {
+                final PsiType psiType = (PsiType) element;
+                type = new Type(psiType, typeElement, this, maxRecursionDepth, shouldResolveAllMethods);
+                publish(canonicalText, type, inFlightType);
+                type.resolveDependencies(this, maxRecursionDepth, psiType, shouldResolveAllMethods, canonicalText);
+            } else if (element instanceof PsiClass) {
+                final PsiClass psiClass = (PsiClass) element;
+                type = new Type(psiClass, this, maxRecursionDepth, shouldResolveAllMethods);
+                publish(canonicalText, type, inFlightType);
+            }
+        } finally {
+            resolutionStack.pop();
+        }
+        if (withinBudget) {
+            cacheType(canonicalText, type, element, maxRecursionDepth, shouldResolveAllMethods);
+        }
         return type;
     }
 
+    /**
+     * @return type of element without its dependencies. it is not added to this dictionary, so it does not replace the type another thread creates meanwhile
+     */
+    @Nullable
+    private static Type createShallowType(Object element, Object typeElement) {
+        if (element instanceof PsiType) {
+            return new Type((PsiType) element, typeElement, null, 0, false);
+        } else if (element instanceof PsiClass) {
+            return new Type((PsiClass) element, null, 0, false);
+        }
+        return null;
+    }
+
+    private static boolean isRecreationRequired(Type type, int maxRecursionDepth, boolean shouldResolveAllMethods) {
+        return !type.isDependenciesResolvable() && shouldResolveAllMethods && maxRecursionDepth > 1;
+    }
+
+    /**
+     * Makes a type available to further requests of the creating thread before its dependencies are resolved, so types referencing each other are created once
+     */
+    private void publish(String canonicalText, Type type, @Nullable InFlightType inFlightType) {
+        typeDictionary.put(canonicalText, type);
+        if (inFlightType != null) {
+            inFlightType.type = type;
+        }
+    }
+
+    /**
+     * Waits for a type created by another thread, unless that thread waits, directly or indirectly, for a type created by the current thread
+     * @return true - if the type was created. false - if waiting would deadlock
+     */
+    private boolean awaitCreation(InFlightType inFlightType) {
+        final Thread currentThread = Thread.currentThread();
+        awaitedTypes.put(currentThread, inFlightType);
+        try {
+            if (isAwaitedBy(currentThread, inFlightType)) {
+                return false;
+            }
+            while (!inFlightType.created.await(50, TimeUnit.MILLISECONDS)) {
+                ProgressManager.checkCanceled();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } finally {
+            awaitedTypes.remove(currentThread);
+        }
+    }
+
+    /**
+     * @return true - if the thread creating inFlightType waits, directly or indirectly, for a type created by thread
+     */
+    private boolean isAwaitedBy(Thread thread, InFlightType inFlightType) {
+        final Set<Thread> visitedOwners = new HashSet<>();
+        for (InFlightType awaited = inFlightType; awaited != null && visitedOwners.add(awaited.owner); awaited = awaitedTypes.get(awaited.owner)) {
+            if (awaited.owner == thread) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void registerDependency(String canonicalText) {
+        final String dependentType = resolutionStack.get().peek();
+        if (dependentType != null && !dependentType.equals(canonicalText)) {
+            typeDependencies.computeIfAbsent(dependentType, name -> ConcurrentHashMap.newKeySet()).add(canonicalText);
+        }
+    }
+
+    @Nullable
+    private Type findCachedType(String canonicalText, int maxRecursionDepth, boolean shouldResolveAllMethods) {
+        if (typeDictionaryCache == null || targetPackage == null) {
+            return null;
+        }
+        final Type cachedType = typeDictionaryCache.getType(targetPackage.getQualifiedName(), canonicalText, maxRecursionDepth, shouldResolveAllMethods, verifiedCachedTypes);
+        if (cachedType != null) {
+            LOG.debug(cachedTypeHitsCounter.incrementAndGet() + ". Found cached type object for:" + canonicalText + " maxRecursionDepth:" + maxRecursionDepth);
+            typeDictionary.put(canonicalText, cachedType);
+        }
+        return cachedType;
+    }
+
+    /**
+     * Resolves deferred dependencies of a type - its methods, fields or implemented interfaces - on first access, tracking types resolved meanwhile as dependencies of that type
+     * @param dictionaryKey key of the type in this dictionary
+     * @param resolution resolves the deferred dependencies and returns the number of methods resolved
+     */
+    public void resolveDeferred(String dictionaryKey, IntSupplier resolution) {
+        typeDependencies.computeIfAbsent(dictionaryKey, name -> ConcurrentHashMap.newKeySet());
+        final Deque<String> resolutionStack = this.resolutionStack.get();
+        resolutionStack.push(dictionaryKey);
+        try {
+            resolvedMethodsCounter.addAndGet(resolution.getAsInt());
+        } finally {
+            resolutionStack.pop();
+        }
+        if (typeDictionaryCache != null && targetPackage != null) {
+            typeDictionaryCache.addDependencies(targetPackage.getQualifiedName(), dictionaryKey, typeDictionary.get(dictionaryKey), typeDependencies.get(dictionaryKey));
+        }
+    }
+
+    /**
+     * @param maxRecursionDepth remaining recursion depth of the type which methods are requested
+     * @return true - if methods resolution is within the resolution budget of this generation
+     */
+    public boolean isMethodsResolutionAllowed(String dictionaryKey, int maxRecursionDepth) {
+        if (resolutionBudget.allowsMethods(resolvedMethodsCounter.get(), maxRecursionDepth)) {
+            return true;
+        }
+        reportBudgetExhaustion("methods", dictionaryKey, maxRecursionDepth);
+        return false;
+    }
+
+    private void reportBudgetExhaustion(String resolved, String canonicalText, int maxRecursionDepth) {
+        if (budgetExhaustionReported.compareAndSet(false, true)) {
+            LOG.info("resolution budget of " + resolved + " exhausted while generating test for " + (srcClass == null ? null : srcClass.getQualifiedName()) + ". " + canonicalText + " at recursion depth " + maxRecursionDepth
+                    + " and following types will not be fully introspected");
+        }
+    }
+
+    private void cacheType(String canonicalText, @Nullable Type type, Object element, int maxRecursionDepth, boolean shouldResolveAllMethods) {
+        if (typeDictionaryCache == null || targetPackage == null || type == null) {
+            return;
+        }
+        final PsiClass psiClass = element instanceof PsiClass ? (PsiClass) element : PsiUtil.resolveClassInType((PsiType) element);
+        typeDictionaryCache.putType(targetPackage.getQualifiedName(), canonicalText, type, psiClass, maxRecursionDepth, shouldResolveAllMethods, typeDependencies.getOrDefault(canonicalText, Collections.emptySet()));
+        verifiedCachedTypes.add(canonicalText);
+    }
+
+    public int getNewTypesCount() {
+        return newTypeCounter.get();
+    }
+
+    public int getExistingTypeHitsCount() {
+        return existingTypeHitsCounter.get();
+    }
+
+    public int getCachedTypeHitsCount() {
+        return cachedTypeHitsCounter.get();
+    }
+
+    public int getResolvedMethodsCount() {
+        return resolvedMethodsCounter.get();
+    }
+
     public boolean isAccessible(PsiMethod psiMethod) {
         return PsiUtil.isAccessibleFromPackage(psiMethod, targetPackage) && (psiMethod.getContainingClass() == null || PsiUtil.isAccessibleFromPackage(psiMethod.getContainingClass(), targetPackage));
     }
+
+    /**
+     * @return formatted method id of psiMethod. formatted once per method during this generation
+     */
+    @NotNull
+    public String getMethodId(@NotNull PsiMethod psiMethod) {
+        String methodId = methodIds.get(psiMethod);
+        if (methodId == null) {
+            methodId = PsiMethodUtils.formatMethodId(psiMethod);
+            methodIds.put(psiMethod, methodId);
+        }
+        return methodId;
+    }
+
+    /**
+     * @return analysis of psiMethod implementation. the implementation is traversed once during this generation
+     */
+    @NotNull
+    public MethodBodyAnalysis getMethodBodyAnalysis(@NotNull PsiMethod psiMethod) {
+        MethodBodyAnalysis methodBodyAnalysis = methodBodyAnalyses.get(psiMethod);
+        if (methodBodyAnalysis == null) {
+            methodBodyAnalysis = MethodBodyAnalyzers.analyze(psiMethod);
+            methodBodyAnalyses.put(psiMethod, methodBodyAnalysis);
+        }
+        return methodBodyAnalysis;
+    }
+
+    /**
+     * @param methodCalls methods called by method directly or on the call stack, as resolved during this generation
+     */
+    public void putMethodCallsClosure(@NotNull Method method, @NotNull Set<MethodCall> methodCalls) {
+        methodCallsClosures.put(method, Collections.unmodifiableSet(methodCalls));
+    }
+
+    /**
+     * @return methods called by method directly or on the call stack, as resolved during this generation. null if not resolved
+     */
+    @Nullable
+    public Set<MethodCall> getMethodCallsClosure(@NotNull Method method) {
+        return methodCallsClosures.get(method);
+    }
+
+    /**
+     * @param fields fields affected by methods called from constructor, as resolved during this generation
+     */
+    public void addIndirectlyAffectedFields(@NotNull Method constructor, @NotNull Set<Field> fields) {
+        indirectlyAffectedFields.computeIfAbsent(constructor, ctor -> ConcurrentHashMap.newKeySet()).addAll(fields);
+    }
+
+    /**
+     * @return fields affected by methods called from constructor, as resolved during this generation
+     */
+    @NotNull
+    public Set<Field> getIndirectlyAffectedFields(@NotNull Method constructor) {
+        final Set<Field> fields = indirectlyAffectedFields.get(constructor);
+        return fields == null ? Collections.emptySet() : Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * @return true - if a class with the qualified name of psiClass is found in project scope. looked up once per qualified name during this generation
+     */
+    public boolean isInProjectScope(@NotNull PsiClass psiClass) {
+        final String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName == null) {
+            return false;
+        }
+        Boolean inProjectScope = classesInProjectScope.get(qualifiedName);
+        if (inProjectScope == null) {
+            inProjectScope = JavaPsiFacade.getInstance(psiClass.getProject()).findClasses(qualifiedName, GlobalSearchScope.projectScope(psiClass.getProject())).length > 0;
+            classesInProjectScope.put(qualifiedName, inProjectScope);
+        }
+        return inProjectScope;
+    }
+
+    /**
+     * Subtypes are looked up without locking. threads looking up the same subtypes concurrently keep the subtypes found first
+     * @return direct subtypes, found in project production sources and in the runtime scope of module, of the class with given canonical name. empty if the class has more than maxCandidates subtypes
+     */
+    @NotNull
+    public List<PsiClass> findDirectSubtypes(String canonicalName, Module module, int maxCandidates) {
+        List<PsiClass> subtypes = directSubtypes.get(canonicalName);
+        if (subtypes == null) {
+            subtypes = new ArrayList<>();
+            final PsiClass psiClass = findClassInModule(canonicalName, module);
+            if (psiClass != null) {
+                final List<String> subtypeNames = subtypesCache == null ? SubtypesCache.searchDirectSubtypes(psiClass, maxCandidates) : subtypesCache.getDirectSubtypes(psiClass, maxCandidates);
+                for (String subtypeName : subtypeNames) {
+                    final PsiClass subtype = findClassInModule(subtypeName, module);
+                    if (subtype != null) {
+                        subtypes.add(subtype);
+                    }
+                }
+            }
+            subtypes = Collections.unmodifiableList(subtypes);
+            final List<PsiClass> subtypesFound = directSubtypes.putIfAbsent(canonicalName, subtypes);
+            return subtypesFound != null ? subtypesFound : subtypes;
+        }
+        return subtypes;
+    }
+
+    /**
+     * @param maxRecursionDepth recursion depth subtypes are resolved with
+     * @return types of direct subtypes of the class with given canonical name, as found by {@link #findDirectSubtypes(String, Module, int)}. kept for the rest of the generation, so the type graph can be traversed without further PSI access
+     */
+    @NotNull
+    public List<Type> getDirectSubtypes(String canonicalName, Module module, int maxCandidates, int maxRecursionDepth) {
+        List<Type> subtypes = directSubtypeTypes.get(canonicalName);
+        if (subtypes == null) {
+            subtypes = new ArrayList<>();
+            for (PsiClass subtypeClass : findDirectSubtypes(canonicalName, module, maxCandidates)) {
+                final Type subtype = getType(JavaPsiFacade.getInstance(module.getProject()).getElementFactory().createType(subtypeClass), maxRecursionDepth, true);//todo verify behaviour with groovy classes
+                if (subtype != null) {
+                    subtypes.add(subtype);
+                }
+            }
+            subtypes = Collections.unmodifiableList(subtypes);
+            final List<Type> subtypesResolved = directSubtypeTypes.putIfAbsent(canonicalName, subtypes);
+            return subtypesResolved != null ? subtypesResolved : subtypes;
+        }
+        return subtypes;
+    }
+
+    /**
+     * classes are looked up outside of classesInModule, so concurrent look ups of other classes are not blocked meanwhile
+     */
+    @Nullable
+    private PsiClass findClassInModule(String qualifiedName, Module module) {
+        Optional<PsiClass> psiClass = classesInModule.get(qualifiedName);
+        if (psiClass == null) {
+            psiClass = Optional.ofNullable(JavaPsiFacade.getInstance(module.getProject()).findClass(qualifiedName, module.getModuleRuntimeScope(true)));
+            final Optional<PsiClass> psiClassFound = classesInModule.putIfAbsent(qualifiedName, psiClass);
+            if (psiClassFound != null) {
+                psiClass = psiClassFound;
+            }
+        }
+        return psiClass.orElse(null);
+    }
+
+    /**
+     * Creation of a type by a single thread
+     */
+    private static final class InFlightType {
+        private final Thread owner = Thread.currentThread();
+        private final CountDownLatch created = new CountDownLatch(1);
+        /**
+         * the type created so far. set once created, before its dependencies are resolved
+         */
+        private volatile Type type;
+    }
 }
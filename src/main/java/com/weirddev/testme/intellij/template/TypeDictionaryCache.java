@@ -0,0 +1,192 @@
+package com.weirddev.testme.intellij.template;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTypeParameter;
+import com.weirddev.testme.intellij.template.context.Type;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project level cache of resolved types, shared by test generations across invocations.
+ * Types are cached per target test package (method accessibility is resolved relative to it) and keyed by canonical name.
+ * A cached type is valid as long as its source file and the source files of all cached types it depends on were not modified since it was resolved.
+ */
+public class TypeDictionaryCache implements Disposable {
+    private static final Logger LOG = Logger.getInstance(TypeDictionaryCache.class.getName());
+    private final Project project;
+    private final Map<String, Map<String, CachedType>> cachedTypesByPackage = new ConcurrentHashMap<>();
+    private final AtomicInteger hitsCounter = new AtomicInteger();
+    private final AtomicInteger missesCounter = new AtomicInteger();
+    private final AtomicInteger invalidationsCounter = new AtomicInteger();
+
+    public TypeDictionaryCache(Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                invalidateAll();
+            }
+        });
+    }
+
+    public static TypeDictionaryCache getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, TypeDictionaryCache.class);
+    }
+
+    /**
+     * @param targetPackage qualified name of the test package
+     * @param canonicalName canonical name of the type, as used for keying types in {@link TypeDictionary}
+     * @param maxRecursionDepth minimal recursion depth the cached type should have been resolved with
+     * @param shouldResolveAllMethods true if all methods of the cached type should have been resolved
+     * @param verifiedTypes canonical names of cached types already verified as up to date by the calling generation
+     * @return cached type or null if not found, resolved in a shallower manner than requested or out of date
+     */
+    @Nullable
+    public Type getType(String targetPackage, String canonicalName, int maxRecursionDepth, boolean shouldResolveAllMethods, Set<String> verifiedTypes) {
+        final Map<String, CachedType> cachedTypes = cachedTypesByPackage.get(targetPackage);
+        final CachedType cachedType = cachedTypes == null ? null : cachedTypes.get(canonicalName);
+        if (cachedType == null || !cachedType.isResolvedAsDeepAs(maxRecursionDepth, shouldResolveAllMethods)) {
+            missesCounter.incrementAndGet();
+            return null;
+        }
+        if (!verifiedTypes.contains(canonicalName) && !isUpToDate(cachedTypes, canonicalName, verifiedTypes)) {
+            cachedTypes.remove(canonicalName);
+            invalidationsCounter.incrementAndGet();
+            missesCounter.incrementAndGet();
+            LOG.debug("cached type is out of date:" + canonicalName);
+            return null;
+        }
+        hitsCounter.incrementAndGet();
+        return cachedType.type;
+    }
+
+    /**
+     * @param psiClass class the type was resolved from. null for primitive types
+     * @param dependencies canonical names of types resolved by {@link TypeDictionary} while resolving this type
+     */
+    public void putType(String targetPackage, String canonicalName, Type type, @Nullable PsiClass psiClass, int maxRecursionDepth, boolean shouldResolveAllMethods, Set<String> dependencies) {
+        if (psiClass instanceof PsiTypeParameter) {
+            return; //type parameters are keyed by their name only, which is not unique across classes
+        }
+        VirtualFile virtualFile = null;
+        long modificationStamp = 0;
+        if (psiClass != null) {
+            final PsiFile psiFile = psiClass.getContainingFile();
+            virtualFile = psiFile == null ? null : psiFile.getVirtualFile();
+            if (virtualFile == null) {
+                return;
+            }
+            modificationStamp = psiFile.getModificationStamp();
+        }
+        final Set<String> cachedDependencies = ConcurrentHashMap.newKeySet();
+        cachedDependencies.addAll(dependencies);
+        cachedTypesByPackage.computeIfAbsent(targetPackage, pkg -> new ConcurrentHashMap<>())
+                .put(canonicalName, new CachedType(type, virtualFile, modificationStamp, maxRecursionDepth, shouldResolveAllMethods, cachedDependencies));
+    }
+
+    /**
+     * Adds dependencies of a cached type resolved after it was cached, i.e. when its methods, fields or implemented interfaces were first accessed
+     */
+    public void addDependencies(String targetPackage, String canonicalName, @Nullable Type type, Set<String> dependencies) {
+        final Map<String, CachedType> cachedTypes = cachedTypesByPackage.get(targetPackage);
+        final CachedType cachedType = cachedTypes == null ? null : cachedTypes.get(canonicalName);
+        if (cachedType != null && cachedType.type == type) {
+            cachedType.dependencies.addAll(dependencies);
+        }
+    }
+
+    public void invalidateAll() {
+        LOG.debug("invalidating all cached types");
+        cachedTypesByPackage.clear();
+    }
+
+    public int getHitsCount() {
+        return hitsCounter.get();
+    }
+
+    public int getMissesCount() {
+        return missesCounter.get();
+    }
+
+    public int getInvalidationsCount() {
+        return invalidationsCounter.get();
+    }
+
+    @Override
+    public void dispose() {
+        cachedTypesByPackage.clear();
+    }
+
+    private boolean isUpToDate(Map<String, CachedType> cachedTypes, String canonicalName, Set<String> verifiedTypes) {
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        final Set<String> visited = new HashSet<>();
+        final Deque<String> pending = new ArrayDeque<>();
+        pending.push(canonicalName);
+        while (!pending.isEmpty()) {
+            final String name = pending.pop();
+            if (verifiedTypes.contains(name) || !visited.add(name)) {
+                continue;
+            }
+            final CachedType cachedType = cachedTypes.get(name);
+            if (cachedType == null) {
+                return false;
+            }
+            if (!cachedType.isSourceUnmodified(psiManager)) {
+                cachedTypes.remove(name);
+                invalidationsCounter.incrementAndGet();
+                return false;
+            }
+            pending.addAll(cachedType.dependencies);
+        }
+        verifiedTypes.addAll(visited);
+        return true;
+    }
+
+    private static class CachedType {
+        private final Type type;
+        @Nullable
+        private final VirtualFile virtualFile;
+        private final long modificationStamp;
+        private final int maxRecursionDepth;
+        private final boolean shouldResolveAllMethods;
+        private final Set<String> dependencies;
+
+        CachedType(Type type, @Nullable VirtualFile virtualFile, long modificationStamp, int maxRecursionDepth, boolean shouldResolveAllMethods, Set<String> dependencies) {
+            this.type = type;
+            this.virtualFile = virtualFile;
+            this.modificationStamp = modificationStamp;
+            this.maxRecursionDepth = maxRecursionDepth;
+            this.shouldResolveAllMethods = shouldResolveAllMethods;
+            this.dependencies = dependencies;
+        }
+
+        boolean isResolvedAsDeepAs(int maxRecursionDepth, boolean shouldResolveAllMethods) {
+            return this.maxRecursionDepth >= maxRecursionDepth && (this.shouldResolveAllMethods || !shouldResolveAllMethods);
+        }
+
+        boolean isSourceUnmodified(PsiManager psiManager) {
+            if (virtualFile == null) {
+                return true;
+            }
+            if (!virtualFile.isValid()) {
+                return false;
+            }
+            final PsiFile psiFile = psiManager.findFile(virtualFile);
+            return psiFile != null && psiFile.getModificationStamp() == modificationStamp;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.weirddev.testme.intellij.template.context;
+
+import gnu.trove.TIntHashSet;
+import gnu.trove.TIntObjectHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Index of method calls made by methods of the tested class, built once the test template context is resolved.
+ * Maps the id symbol of a calling method to the id symbols of the methods it calls, so call lookups from the template take constant time.
+ * Callers that were not indexed upfront are indexed on first lookup.
+ */
+public class CallGraphIndex {
+    private static final TIntHashSet NO_CALLEES = new TIntHashSet(0);
+    private final TIntObjectHashMap<TIntHashSet> calleeIdsByCallerId = new TIntObjectHashMap<>();
+
+    public synchronized void indexCallers(Collection<Method> callerMethods) {
+        for (Method callerMethod : callerMethods) {
+            index(callerMethod);
+        }
+    }
+
+    /**
+     * @return true - if callerMethod implementation invokes calledMethod
+     */
+    public synchronized boolean isMethodCalled(Method calledMethod, Method callerMethod) {
+        TIntHashSet calleeIds = calleeIdsByCallerId.get(callerMethod.getMethodIdSymbol());
+        if (calleeIds == null) {
+            calleeIds = index(callerMethod);
+        }
+        return calleeIds.contains(calledMethod.getMethodIdSymbol());
+    }
+
+    synchronized int size() {
+        return calleeIdsByCallerId.size();
+    }
+
+    @NotNull
+    private TIntHashSet index(Method callerMethod) {
+        final Set<MethodCall> methodCalls = callerMethod.getMethodCalls();
+        final TIntHashSet calleeIds;
+        if (methodCalls.isEmpty()) {
+            calleeIds = NO_CALLEES;
+        } else {
+            calleeIds = new TIntHashSet(methodCalls.size() * 2);
+            for (MethodCall methodCall : methodCalls) {
+                calleeIds.add(methodCall.getMethod().getMethodIdSymbol());
+            }
+        }
+        calleeIdsByCallerId.put(callerMethod.getMethodIdSymbol(), calleeIds);
+        return calleeIds;
+    }
+}
@@ -38,12 +38,16 @@ public class Field {
      * name given to field
      */
     @Getter private String name;
+    private final SymbolTable.Symbol ownerClassCanonicalNameSymbol;
+    private final SymbolTable.Symbol nameSymbol;
 
     public Field(PsiField psiField, PsiClass srcClass, TypeDictionary typeDictionary, int maxRecursionDepth) {
         this.name = psiField.getName();
         type= buildType(psiField.getType(), typeDictionary, maxRecursionDepth);
         String canonicalText = srcClass.getQualifiedName();
         ownerClassCanonicalName = ClassNameUtils.stripArrayVarargsDesignator(canonicalText);
+        ownerClassCanonicalNameSymbol = SymbolTable.intern(ownerClassCanonicalName);
+        nameSymbol = SymbolTable.intern(name);
         overridden = isOverriddenInChild(psiField, srcClass);
         isFinal = psiField.getModifierList() != null && psiField.getModifierList().hasExplicitModifier(PsiModifier.FINAL);
         isStatic = psiField.getModifierList() != null && psiField.getModifierList().hasExplicitModifier(PsiModifier.STATIC);
@@ -70,16 +74,16 @@ public class Field {
 
         Field field = (Field) o;
 
-        if (!type.equals(field.type)) return false;
-        if (!ownerClassCanonicalName.equals(field.ownerClassCanonicalName)) return false;
-        return name.equals(field.name);
+        if (nameSymbol != field.nameSymbol) return false;
+        if (ownerClassCanonicalNameSymbol != field.ownerClassCanonicalNameSymbol) return false;
+        return type.equals(field.type);
     }
 
     @Override
     public int hashCode() {
         int result = type.hashCode();
-        result = 31 * result + ownerClassCanonicalName.hashCode();
-        result = 31 * result + name.hashCode();
+        result = 31 * result + ownerClassCanonicalNameSymbol.getId();
+        result = 31 * result + nameSymbol.getId();
         return result;
     }
 
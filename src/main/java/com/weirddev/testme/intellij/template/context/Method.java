@@ -4,28 +4,22 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Pair;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.PsiClassReferenceType;
-import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.LocalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.psi.util.MethodSignatureUtil;
-import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.psi.util.PsiUtil;
 import com.weirddev.testme.intellij.common.utils.LanguageUtils;
-import com.weirddev.testme.intellij.common.utils.PsiMethodUtils;
-import com.weirddev.testme.intellij.groovy.resolvers.GroovyPsiTreeUtils;
+import com.weirddev.testme.intellij.resolvers.MethodBodyAnalysis;
 import com.weirddev.testme.intellij.resolvers.to.MethodCallArg;
 import com.weirddev.testme.intellij.resolvers.to.ResolvedMethodCall;
 import com.weirddev.testme.intellij.resolvers.to.ResolvedReference;
 import com.weirddev.testme.intellij.scala.resolvers.ScalaPsiTreeUtils;
 import com.weirddev.testme.intellij.template.TypeDictionary;
 import com.weirddev.testme.intellij.utils.ClassNameUtils;
-import com.weirddev.testme.intellij.utils.JavaPsiTreeUtils;
 import com.weirddev.testme.intellij.utils.PropertyUtils;
 import lombok.Getter;
 import javax.annotation.Nullable;
 import javax.annotation.Nonnull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -122,11 +116,7 @@ public class Method {
     /**
      * methods called directly from this method
      */
-    @Getter private final Set<MethodCall> directMethodCalls = new HashSet<>();
-    /**
-     * methods called directly from this method or on the call stack from this method via other methods belonging to the same type hierarchy
-     */
-    @Getter private Set<MethodCall> methodCalls = new HashSet<>();
+    @Getter private final Set<MethodCall> directMethodCalls = ConcurrentHashMap.newKeySet();
     /**
      * methods referenced from this method. i.e.  SomeClassName::someMethodName
      */
@@ -145,9 +135,10 @@ public class Method {
      */
     @Getter private final String methodId;
     /**
-     *  Fields affected (assigned to) by methods called from this method. currently calculated only for constructors. i.e. when delegating to other constructors
+     * symbol of method id. used for equality
+     * @see SymbolTable
      */
-    @Getter private final Set<Field> indirectlyAffectedFields = new HashSet<>();
+    private final SymbolTable.Symbol methodIdSymbol;
 
     public Method(PsiMethod psiMethod, PsiClass srcClass, int maxRecursionDepth, TypeDictionary typeDictionary, @Nullable PsiType ownerClassPsiType) {
         isPrivate = psiMethod.hasModifierProperty(PsiModifier.PRIVATE);
@@ -174,7 +165,8 @@ public class Method {
             inherited = false;
         }
         isInInterface = isInterface(psiMethod);
-        methodId = PsiMethodUtils.formatMethodId(psiMethod);
+        methodId = typeDictionary.getMethodId(psiMethod);
+        methodIdSymbol = SymbolTable.intern(methodId);
         accessible = typeDictionary.isAccessible(psiMethod);
         isSynthetic = isSyntheticMethod(psiMethod);
         Optional<PsiSubstitutor> methodSubstitutor = findMethodSubstitutor(psiMethod, srcClass, ownerClassPsiType);
@@ -182,29 +174,47 @@ public class Method {
         methodParams = extractMethodParams(psiMethod, primaryConstructor, maxRecursionDepth, typeDictionary, methodSubstitutor);
     }
 
-    static boolean isRelevant(PsiClass psiClass, PsiMethod psiMethod) {
+    /**
+     * Project scope lookups of owner classes and formatted method ids are kept by typeDictionary, so these are computed once per owner class and method during a generation
+     */
+    static boolean isRelevant(PsiClass psiClass, PsiMethod psiMethod, TypeDictionary typeDictionary) {
         boolean isRelevant = true;
         final PsiClass containingClass = psiMethod.getContainingClass();
         final PsiClass ownerClass = containingClass == null ? psiClass : containingClass;
         if (ownerClass != null && isLanguageInherited(ownerClass.getQualifiedName())) {
             isRelevant = false;
-        } else {
-            final String methodId = PsiMethodUtils.formatMethodId(psiMethod);
-            if (LanguageUtils.isGroovy(psiMethod.getLanguage())
-                    && (psiMethod.getClass().getCanonicalName().contains("GrGdkMethodImpl") || methodId.endsWith(".invokeMethod(java.lang.String,java.lang.Object)") || methodId.endsWith(".getProperty(java.lang.String)") || methodId
-                    .endsWith(".setProperty(java.lang.String,java.lang.Object)"))) {
-                isRelevant = false;
-            } else if(ownerClass!=null && ownerClass.getQualifiedName()!=null){
-                JavaPsiFacade facade = JavaPsiFacade.getInstance( ownerClass.getProject());
-                PsiClass[] possibleClasses = facade.findClasses(ownerClass.getQualifiedName(), GlobalSearchScope.projectScope(( ownerClass.getProject())));
-                if (possibleClasses.length == 0) {
-                    isRelevant = false;
-                }
-            }
+        } else if (LanguageUtils.isGroovy(psiMethod.getLanguage()) && isGroovyLangMethod(psiMethod, typeDictionary.getMethodId(psiMethod))) {
+            isRelevant = false;
+        } else if (ownerClass != null && ownerClass.getQualifiedName() != null && !typeDictionary.isInProjectScope(ownerClass)) {
+            isRelevant = false;
         }
         return isRelevant;
     }
 
+    private static boolean isGroovyLangMethod(PsiMethod psiMethod, String methodId) {
+        return psiMethod.getClass().getCanonicalName().contains("GrGdkMethodImpl") || methodId.endsWith(".invokeMethod(java.lang.String,java.lang.Object)") || methodId.endsWith(".getProperty(java.lang.String)") || methodId
+                .endsWith(".setProperty(java.lang.String,java.lang.Object)");
+    }
+
+    /**
+     * methods called directly from this method or on the call stack from this method via other methods belonging to the same type hierarchy.
+     * resolved per generation by the active {@link TypeDictionary}, so methods shared between generations are never updated once resolved
+     */
+    public Set<MethodCall> getMethodCalls() {
+        final TypeDictionary typeDictionary = TypeDictionary.getActive();
+        final Set<MethodCall> methodCallsClosure = typeDictionary == null ? null : typeDictionary.getMethodCallsClosure(this);
+        return methodCallsClosure == null ? Collections.unmodifiableSet(directMethodCalls) : methodCallsClosure;
+    }
+
+    /**
+     *  Fields affected (assigned to) by methods called from this method. currently calculated only for constructors. i.e. when delegating to other constructors.
+     *  resolved per generation by the active {@link TypeDictionary}
+     */
+    public Set<Field> getIndirectlyAffectedFields() {
+        final TypeDictionary typeDictionary = TypeDictionary.getActive();
+        return typeDictionary == null ? Collections.emptySet() : typeDictionary.getIndirectlyAffectedFields(this);
+    }
+
     /**
      *
      * true - if method has a return type
@@ -219,9 +229,10 @@ public class Method {
 
     void resolveInternalReferences(PsiMethod psiMethod, TypeDictionary typeDictionary) {
         if (!isLanguageInherited(getOwnerClassCanonicalType())) {
-            resolveCalledMethods(psiMethod, typeDictionary);
-            resolveReferences(psiMethod,typeDictionary);
-            resolveMethodReferences(psiMethod,typeDictionary);
+            final MethodBodyAnalysis methodBodyAnalysis = typeDictionary.getMethodBodyAnalysis(psiMethod);
+            resolveCalledMethods(psiMethod, methodBodyAnalysis, typeDictionary);
+            resolveReferences(methodBodyAnalysis, typeDictionary);
+            resolveMethodReferences(methodBodyAnalysis, typeDictionary);
         }
     }
 
@@ -244,16 +255,6 @@ public class Method {
         }
     }
 
-    private static PsiField resolveLeftHandExpressionAsField(@Nonnull PsiExpression expr) {
-        PsiElement parent = PsiTreeUtil.skipParentsOfType(expr, PsiParenthesizedExpression.class);
-        if (!(parent instanceof PsiAssignmentExpression)) {
-            return null;
-        }
-        final PsiAssignmentExpression psiAssignmentExpression = (PsiAssignmentExpression) parent;
-        final PsiReference reference = psiAssignmentExpression.getLExpression().getReference();
-        final PsiElement element = reference != null ? reference.resolve() : null;
-        return element == null || !(element instanceof PsiField) ? null : (PsiField)element ;
-    }
     private boolean isInterface(PsiMethod psiMethod) {
 //            //method inherited from an interface but implemented by this interface should not be considered as interface method
 //            return psiMethod.hasModifierProperty("abstract") || psiMethod.getContainingClass() != null && psiMethod.getContainingClass().isInterface();
@@ -294,29 +295,22 @@ public class Method {
         return psiType instanceof PsiClassReferenceType/* && ((PsiClassReferenceType) psiType).resolve() instanceof PsiTypeParameter */;
     }
 
-    private void resolveReferences(PsiMethod psiMethod, TypeDictionary typeDictionary) {
-        if (LanguageUtils.isGroovy(psiMethod.getLanguage())) {
-            for (ResolvedReference resolvedReference : GroovyPsiTreeUtils.findReferences(psiMethod)) {
-                internalReferences.add(new Reference(resolvedReference.getReferenceName(), resolvedReference.getRefType(), resolvedReference.getPsiOwnerType(), typeDictionary));
-            }
-        }
-        else {
-            for (ResolvedReference resolvedReference : JavaPsiTreeUtils.findReferences(psiMethod)) {
-                internalReferences.add(new Reference(resolvedReference.getReferenceName(), resolvedReference.getRefType(), resolvedReference.getPsiOwnerType(), typeDictionary));
-            }
+    private void resolveReferences(MethodBodyAnalysis methodBodyAnalysis, TypeDictionary typeDictionary) {
+        for (ResolvedReference resolvedReference : methodBodyAnalysis.findReferences()) {
+            internalReferences.add(new Reference(resolvedReference.getReferenceName(), resolvedReference.getRefType(), resolvedReference.getPsiOwnerType(), typeDictionary));
         }
     }
-    private void resolveMethodReferences(PsiMethod psiMethod, TypeDictionary typeDictionary) {
-        for (PsiMethod resolvedMethodReference : JavaPsiTreeUtils.findMethodReferences(psiMethod)) {
-            if (isRelevant(resolvedMethodReference.getContainingClass(), resolvedMethodReference)) {
+    private void resolveMethodReferences(MethodBodyAnalysis methodBodyAnalysis, TypeDictionary typeDictionary) {
+        for (PsiMethod resolvedMethodReference : methodBodyAnalysis.findMethodReferences()) {
+            if (isRelevant(resolvedMethodReference.getContainingClass(), resolvedMethodReference, typeDictionary)) {
                 this.methodReferences.add(new Method(resolvedMethodReference, resolvedMethodReference.getContainingClass(), 1, typeDictionary, null));
             }
         }
     }
-    private void resolveCalledMethods(PsiMethod psiMethod, TypeDictionary typeDictionary) {
+    private void resolveCalledMethods(PsiMethod psiMethod, MethodBodyAnalysis methodBodyAnalysis, TypeDictionary typeDictionary) {
         //todo try to pass/support src class in scala/groovy as well. if successful, consider re-implementing with a factory method call
         if (LanguageUtils.isGroovy(psiMethod.getLanguage())) {
-            for (ResolvedMethodCall resolvedMethodCall : GroovyPsiTreeUtils.findMethodCalls(psiMethod)) {
+            for (ResolvedMethodCall resolvedMethodCall : methodBodyAnalysis.findMethodCalls()) {
                 addDirectMethodCallIfRelevant(typeDictionary, resolvedMethodCall, null);
             }
         }
@@ -326,15 +320,14 @@ public class Method {
             }
         }
         else {
-            for (ResolvedMethodCall methodCalled : JavaPsiTreeUtils.findMethodCalls(psiMethod)) {
+            for (ResolvedMethodCall methodCalled : methodBodyAnalysis.findMethodCalls()) {
                 addDirectMethodCallIfRelevant(typeDictionary, methodCalled, methodCalled.getPsiMethod().getContainingClass());
             }
         }
-        methodCalls = this.directMethodCalls;
     }
 
     private void addDirectMethodCallIfRelevant(TypeDictionary typeDictionary, ResolvedMethodCall methodCalled, PsiClass srcClass) {
-        if (isRelevant(methodCalled.getPsiMethod().getContainingClass(), methodCalled.getPsiMethod())) {
+        if (isRelevant(methodCalled.getPsiMethod().getContainingClass(), methodCalled.getPsiMethod(), typeDictionary)) {
             this.directMethodCalls.add(new MethodCall(new Method(methodCalled.getPsiMethod(), srcClass, 1, typeDictionary, null),convertArgs(methodCalled.getMethodCallArguments())));
         }
     }
@@ -377,26 +370,18 @@ public class Method {
         }
         for (PsiParameter psiParameter : parameters) {
             Optional<PsiType> substitutedType = methodSubstitutor.map(psiSubstitutor -> psiSubstitutor.substitute(psiParameter.getType()));
-            final ArrayList<Field> assignedToFields = findMatchingFields(psiParameter, psiMethod);
+            final ArrayList<Field> assignedToFields = findMatchingFields(psiParameter, psiMethod, typeDictionary);
             params.add(new Param(psiParameter,substitutedType,typeDictionary,maxRecursionDepth,assignedToFields,shouldResolveAllMethods));
         }
         return params;
     }
 
-    private static ArrayList<Field> findMatchingFields(PsiParameter psiParameter, PsiMethod psiMethod) {
+    private static ArrayList<Field> findMatchingFields(PsiParameter psiParameter, PsiMethod psiMethod, TypeDictionary typeDictionary) {
         final ArrayList<Field> fields = new ArrayList<>();
         try {
             if (!psiMethod.hasModifierProperty(PsiModifier.STATIC)) {
-                for (PsiReference reference : ReferencesSearch.search(psiParameter, new LocalSearchScope(new PsiMethod[]{psiMethod}))) {
-                    final PsiElement element = reference.getElement();
-                    PsiField psiField = null;
-                    if (LanguageUtils.isGroovy(element.getLanguage())) {
-                        psiField = GroovyPsiTreeUtils.resolveGrLeftHandExpressionAsField(element);
-                    }
-                    else if (element instanceof PsiExpression && !PsiUtil.isOnAssignmentLeftHand((PsiExpression) element)) {
-                        psiField = resolveLeftHandExpressionAsField((PsiExpression) element);
-                    }
-                    if (psiField != null && psiField.getContainingClass() != null) {
+                for (PsiField psiField : typeDictionary.getMethodBodyAnalysis(psiMethod).findFieldsAssignedFrom(psiParameter)) {
+                    if (psiField.getContainingClass() != null) {
                         fields.add(new Field(psiField, psiField.getContainingClass(),null, 0));
                     }
                 }
@@ -418,12 +403,19 @@ public class Method {
 
         Method method = (Method) o;
 
-        return methodId.equals(method.methodId);
+        return methodIdSymbol == method.methodIdSymbol;
     }
 
     @Override
     public int hashCode() {
-        return methodId.hashCode();
+        return methodIdSymbol.getId();
+    }
+
+    /**
+     * @return id of method id symbol
+     */
+    public int getMethodIdSymbol() {
+        return methodIdSymbol.getId();
     }
 
     @Override
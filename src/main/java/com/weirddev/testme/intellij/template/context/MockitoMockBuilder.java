@@ -226,8 +226,11 @@ public class  MockitoMockBuilder {
     @SuppressWarnings("unused")
     public boolean shouldStub(Method testMethod, List<Field> testedClassFields) {
         boolean shouldStub = false;
-        if (stubMockMethodCallsReturnValues) {
+        if (stubMockMethodCallsReturnValues && !testMethod.getMethodCalls().isEmpty()) {
             for (Field testedClassField : testedClassFields) {
+                if (shouldStub) {
+                    break;
+                }
                 if (isMockable(testedClassField)) {
                     LOG.debug("field "+testedClassField.getName()+" type "+testedClassField.getType().getCanonicalName()+" type methods:"+testedClassField.getType().getMethods().size());
                     for (Method fieldMethod : testedClassField.getType().getMethods()) {
@@ -252,11 +255,14 @@ public class  MockitoMockBuilder {
     @SuppressWarnings("unused")
     public boolean shouldStub(Method testMethod, Method ctor, Map<String,String> defaultTypes) {
         boolean shouldStub = false;
-        if (ctor == null || !stubMockMethodCallsReturnValues) {
+        if (ctor == null || !stubMockMethodCallsReturnValues || testMethod.getMethodCalls().isEmpty()) {
             return false;
         }
         List<Param> ctorParams = ctor.getMethodParams();
         for (Param param : ctorParams) {
+            if (shouldStub) {
+                break;
+            }
             if (isMockable(param, defaultTypes)) {
                 LOG.debug("ctor param "+param.getName()+" type "+param.getType().getCanonicalName()+" type methods:"+param.getType().getMethods().size());
                 for (Method method : param.getType().getMethods()) {
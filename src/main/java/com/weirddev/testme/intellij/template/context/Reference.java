@@ -25,13 +25,13 @@ public class Reference {
      * Type of reference owner class
      */
     @Getter private final Type ownerType;
-    private final String referenceId;
+    private final SymbolTable.Symbol referenceNameSymbol;
 
     public Reference(String referenceName, PsiType refType, PsiType psiOwnerType, TypeDictionary typeDictionary) {
         this.referenceName = referenceName;
         referenceType = new Type(refType, null, typeDictionary, 1, false);
         ownerType = new Type(psiOwnerType, null, typeDictionary, 1, false);
-        referenceId = ownerType.getCanonicalName() + referenceName + referenceType.getCanonicalName();
+        referenceNameSymbol = SymbolTable.intern(referenceName);
     }
 
     @Override
@@ -41,12 +41,16 @@ public class Reference {
 
         Reference reference = (Reference) o;
 
-        return referenceId.equals(reference.referenceId);
+        return referenceNameSymbol == reference.referenceNameSymbol && ownerType.getCanonicalNameSymbol() == reference.ownerType.getCanonicalNameSymbol()
+                && referenceType.getCanonicalNameSymbol() == reference.referenceType.getCanonicalNameSymbol();
     }
 
     @Override
     public int hashCode() {
-        return referenceId.hashCode();
+        int result = ownerType.getCanonicalNameSymbol();
+        result = 31 * result + referenceNameSymbol.getId();
+        result = 31 * result + referenceType.getCanonicalNameSymbol();
+        return result;
     }
 
     @Override
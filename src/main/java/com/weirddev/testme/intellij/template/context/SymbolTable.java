@@ -0,0 +1,68 @@
+package com.weirddev.testme.intellij.template.context;
+
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns canonical names and method ids into compact symbols, so the template context model compares references and hashes ints instead of long strings.
+ * Symbols are shared by all projects, since model objects are cached across generations and some are constants. Model objects hold the symbols they use, while the table holds symbols weakly,
+ * so symbols of names no longer used by any model object - i.e. once cached types are invalidated or their project closed - are reclaimed. Symbol ids are never reused, so equal ids always stand for equal strings.
+ */
+public final class SymbolTable {
+    /**
+     * id of the null symbol
+     */
+    public static final int NULL_SYMBOL = 0;
+    private static final Symbol NULL = new Symbol(NULL_SYMBOL);
+    private static final ConcurrentMap<String, Symbol> symbols = ContainerUtil.createConcurrentWeakValueMap();
+    private static final AtomicInteger lastSymbol = new AtomicInteger(NULL_SYMBOL);
+
+    private SymbolTable() {
+    }
+
+    /**
+     * @return the symbol of given string. a symbol with id {@link #NULL_SYMBOL} for null
+     */
+    @NotNull
+    public static Symbol intern(@Nullable String name) {
+        if (name == null) {
+            return NULL;
+        }
+        final Symbol symbol = symbols.get(name);
+        if (symbol != null) {
+            return symbol;
+        }
+        final Symbol newSymbol = new Symbol(lastSymbol.incrementAndGet());
+        final Symbol existingSymbol = symbols.putIfAbsent(name, newSymbol);
+        return existingSymbol != null ? existingSymbol : newSymbol;
+    }
+
+    /**
+     * interned string. equal strings are interned to the same symbol instance as long as it is referenced
+     */
+    public static final class Symbol {
+        private final int id;
+
+        private Symbol(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return "Symbol{" + "id=" + id + '}';
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.weirddev.testme.intellij.template.context;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test frameworks facts of a test module classpath. Resolved once per module and reused by test generations until module roots change.
+ */
+public class TestClasspathProfile {
+    public static final TestClasspathProfile EMPTY = new TestClasspathProfile(Collections.emptyList(), false);
+    private static final Pattern MOCKITO_CORE_VERSION_REGEX = jarVersionPattern("mockito-core");
+    private static final Pattern JUNIT4_VERSION_REGEX = jarVersionPattern("junit");
+    private static final Pattern JUNIT5_VERSION_REGEX = jarVersionPattern("junit-jupiter-api");
+    private static final Pattern TESTNG_VERSION_REGEX = jarVersionPattern("testng");
+    private static final Pattern SPOCK_VERSION_REGEX = jarVersionPattern("spock-core");
+    private final List<String> classpathJars;
+    private final boolean mockitoMockMakerInlineOn;
+    private final String mockitoCoreVersion;
+    private final String junit4Version;
+    private final String junit5Version;
+    private final String testNgVersion;
+    private final String spockVersion;
+
+    /**
+     * @param classpathJars file names of jars in test module classpath
+     * @param mockitoMockMakerInlineOn true - if mock-maker-inline is configured in test module classpath
+     */
+    public TestClasspathProfile(@NotNull List<String> classpathJars, boolean mockitoMockMakerInlineOn) {
+        this.classpathJars = Collections.unmodifiableList(classpathJars);
+        this.mockitoMockMakerInlineOn = mockitoMockMakerInlineOn;
+        mockitoCoreVersion = resolveJarVersion(classpathJars, MOCKITO_CORE_VERSION_REGEX);
+        junit4Version = resolveJarVersion(classpathJars, JUNIT4_VERSION_REGEX);
+        junit5Version = resolveJarVersion(classpathJars, JUNIT5_VERSION_REGEX);
+        testNgVersion = resolveJarVersion(classpathJars, TESTNG_VERSION_REGEX);
+        spockVersion = resolveJarVersion(classpathJars, SPOCK_VERSION_REGEX);
+    }
+
+    /**
+     * @return version of the first mockito-core jar in classpathJars. null if not found
+     */
+    @Nullable
+    public static String resolveMockitoCoreVersion(@Nullable List<String> classpathJars) {
+        return resolveJarVersion(classpathJars, MOCKITO_CORE_VERSION_REGEX);
+    }
+
+    @Nullable
+    private static String resolveJarVersion(@Nullable List<String> classpathJars, Pattern jarVersionPattern) {
+        if (classpathJars == null) {
+            return null;
+        }
+        for (String jar : classpathJars) {
+            final Matcher matcher = jarVersionPattern.matcher(jar);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    private static Pattern jarVersionPattern(String artifactId) {
+        return Pattern.compile("(?:^|[/\\\\])" + Pattern.quote(artifactId) + "-(\\d[^/\\\\]*)\\.jar$");
+    }
+
+    /**
+     * @return file names of jars in test module classpath
+     */
+    public List<String> getClasspathJars() {
+        return classpathJars;
+    }
+
+    public boolean isMockitoMockMakerInlineOn() {
+        return mockitoMockMakerInlineOn;
+    }
+
+    @Nullable
+    public String getMockitoCoreVersion() {
+        return mockitoCoreVersion;
+    }
+
+    @Nullable
+    public String getJunit4Version() {
+        return junit4Version;
+    }
+
+    @Nullable
+    public String getJunit5Version() {
+        return junit5Version;
+    }
+
+    @Nullable
+    public String getTestNgVersion() {
+        return testNgVersion;
+    }
+
+    @Nullable
+    public String getSpockVersion() {
+        return spockVersion;
+    }
+
+    @Override
+    public String toString() {
+        return "TestClasspathProfile{" +
+                "mockitoMockMakerInlineOn=" + mockitoMockMakerInlineOn +
+                ", mockitoCoreVersion='" + mockitoCoreVersion + '\'' +
+                ", junit4Version='" + junit4Version + '\'' +
+                ", junit5Version='" + junit5Version + '\'' +
+                ", testNgVersion='" + testNgVersion + '\'' +
+                ", spockVersion='" + spockVersion + '\'' +
+                ", classpathJars=" + classpathJars.size() +
+                '}';
+    }
+}
@@ -54,6 +54,11 @@ public interface TestMeTemplateParams {
      * @see TestSubjectInspector
      */
     String TestedClasspathJars = "TestedClasspathJars";
+    /**
+     * Test frameworks facts of test module's classpath - mockito version and mock maker, JUnit, TestNG and Spock versions
+     * instance of {@link com.weirddev.testme.intellij.template.context.TestClasspathProfile}
+     */
+    String TestClasspathProfile = "TestClasspathProfile";
     /**
      * configured max recursion depth for object graph introspection
      * @see FileTemplateConfig#getMaxRecursionDepth()
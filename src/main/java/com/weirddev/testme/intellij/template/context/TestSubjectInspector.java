@@ -18,10 +18,25 @@ public class TestSubjectInspector
     private static final Logger LOG = Logger.getInstance(TestSubjectInspector.class.getName());
     private static final Set<String> SCALA_FUTURE_TYPES = Set.of("scala.concurrent.Future","scala.concurrent.impl.Promise");
     private final boolean generateTestsForInheritedMethods;
+    @Nullable
+    private final CallGraphIndex callGraphIndex;
+    /**
+     * ids of methods already tested by an existing test class, which tests are being merged into
+     */
+    private final Set<String> testedMethodIds;
 
     public TestSubjectInspector(boolean generateTestsForInheritedMethods) {
+        this(generateTestsForInheritedMethods, null);
+    }
 
+    public TestSubjectInspector(boolean generateTestsForInheritedMethods, @Nullable CallGraphIndex callGraphIndex) {
+        this(generateTestsForInheritedMethods, callGraphIndex, Collections.emptySet());
+    }
+
+    public TestSubjectInspector(boolean generateTestsForInheritedMethods, @Nullable CallGraphIndex callGraphIndex, Set<String> testedMethodIds) {
         this.generateTestsForInheritedMethods = generateTestsForInheritedMethods;
+        this.callGraphIndex = callGraphIndex;
+        this.testedMethodIds = testedMethodIds;
     }
 
     public boolean hasTestableInstanceMethod(List<Method> methods) {
@@ -34,10 +49,10 @@ public class TestSubjectInspector
     }
 
     /**
-     * @return true - if method should is testable according to it's access modifiers and TestMe configuration
+     * @return true - if method should is testable according to it's access modifiers and TestMe configuration, and not tested yet by the test class being merged into
      */
     public boolean shouldBeTested(Method method) {
-        return method.isTestable() && ( generateTestsForInheritedMethods || !method.isInherited());
+        return method.isTestable() && ( generateTestsForInheritedMethods || !method.isInherited()) && !testedMethodIds.contains(method.getMethodId());
     }
 
     /**
@@ -47,10 +62,13 @@ public class TestSubjectInspector
      * @return true - if callerMethod implementation invokes calledMethod
      */
     public boolean isMethodCalled(Method calledMethod, Method callerMethod) {
+        if (callGraphIndex != null) {
+            return callGraphIndex.isMethodCalled(calledMethod, callerMethod);
+        }
         Set<MethodCall> methodCalls = callerMethod.getMethodCalls();
         boolean isMethodCalled = false;
         for (MethodCall methodCall : methodCalls) {
-            if (methodCall.getMethod().getMethodId().equals(calledMethod.getMethodId())) {
+            if (methodCall.getMethod().getMethodIdSymbol() == calledMethod.getMethodIdSymbol()) {
                 isMethodCalled = true;
                 break;
             }
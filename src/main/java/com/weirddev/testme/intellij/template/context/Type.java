@@ -1,5 +1,7 @@
 package com.weirddev.testme.intellij.template.context;
 
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.util.PsiUtil;
@@ -15,8 +17,8 @@ import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.ref.WeakReference;
+import java.util.*;
 
 /**
  * A used type - object or primitive.
@@ -30,6 +32,11 @@ public class Type {
      */
     @Getter
     private final String canonicalName;
+    /**
+     * symbol of canonical name. used for equality
+     * @see SymbolTable
+     */
+    private final SymbolTable.Symbol canonicalNameSymbol;
     /**
      * Type's name
      */
@@ -83,17 +90,17 @@ public class Type {
      */
     @Getter private final boolean isFinal;
     /**
-     * types methods if relevant
+     * types methods if relevant. resolved on first access
      */
-    @Getter private final List<Method> methods;
+    private final List<Method> methods;
     /**
      * in case this is an inner class - the outer class where this type is defined
      */
     @Getter private final Type parentContainerClass;
     /**
-     * fields defined for this type
+     * fields defined for this type. resolved on first access
      */
-    @Getter private final List<Field> fields;
+    private final List<Field> fields;
     /**
      * true when all constructor dependencies, if exists, have been resolved by object graph introspection
      */
@@ -107,9 +114,9 @@ public class Type {
      */
     @Getter private boolean hasDefaultConstructor=false;
     /**
-     * interfaces implemented by this type if any
+     * interfaces implemented by this type if any. resolved on first access
      */
-    @Getter private List<Type> implementedInterfaces = new ArrayList<>();
+    private final List<Type> implementedInterfaces = new ArrayList<>();
     /**
      * true - if this is a scala case class
      */
@@ -122,9 +129,14 @@ public class Type {
      * relevant of scala sealed classes
      */
     @Getter private final List<String> childObjectsQualifiedNames;
+    /**
+     * pending resolution of methods, fields and implemented interfaces. null when there's nothing left to resolve
+     */
+    private DeferredDependencies deferredDependencies;
 
     public Type(String canonicalName, String name, String packageName, boolean isPrimitive, boolean isInterface, boolean isAbstract, boolean array, int arrayDimensions, boolean varargs, List<Type> composedTypes) {
         this.canonicalName = canonicalName;
+        canonicalNameSymbol = SymbolTable.intern(canonicalName);
         this.name = name;
         this.isPrimitive = isPrimitive;
         this.packageName = packageName;
@@ -156,6 +168,7 @@ public class Type {
         arrayDimensions = ClassNameUtils.arrayDimensions(canonicalText);
         varargs = ClassNameUtils.isVarargs(canonicalText);
         canonicalName = ClassNameUtils.stripArrayVarargsDesignator(canonicalText);
+        canonicalNameSymbol = SymbolTable.intern(canonicalName);
         name = ClassNameUtils.extractClassName(ClassNameUtils.stripArrayVarargsDesignator(psiType.getPresentableText()));
         packageName = ClassNameUtils.extractPackageName(canonicalName);
         isPrimitive = psiType instanceof PsiPrimitiveType;
@@ -183,6 +196,7 @@ public class Type {
         arrayDimensions = ClassNameUtils.arrayDimensions(canonicalText);
         varargs = ClassNameUtils.isVarargs(canonicalText);
         canonicalName = ClassNameUtils.stripArrayVarargsDesignator(canonicalText);
+        canonicalNameSymbol = SymbolTable.intern(canonicalName);
         name = psiClass.getQualifiedName() == null ? null : ClassNameUtils.extractClassName(ClassNameUtils.stripArrayVarargsDesignator(psiClass.getQualifiedName()));
         packageName = ClassNameUtils.extractPackageName(canonicalName);
         isPrimitive = false;
@@ -208,38 +222,149 @@ public class Type {
         return JavaPsiFacade.getInstance(psiClass.getProject()).getElementFactory().createType(psiClass);
     }
 
-    public void resolveDependencies(@Nullable TypeDictionary typeDictionary, int maxRecursionDepth, PsiType psiType, boolean shouldResolveAllMethods) {
+    /**
+     * Prepares methods, fields and implemented interfaces of this type for resolution on first access, so only the parts of the type graph used by the template get introspected.
+     * @param dictionaryKey key of this type in the type dictionary
+     */
+    public void resolveDependencies(@Nullable TypeDictionary typeDictionary, int maxRecursionDepth, PsiType psiType, boolean shouldResolveAllMethods, String dictionaryKey) {
         PsiClass psiClass = PsiUtil.resolveClassInType(psiType);
         String canonicalText = psiType.getCanonicalText();
         if (psiClass != null && maxRecursionDepth >0 && !canonicalText.startsWith("java.") && !canonicalText.startsWith("scala.") /*todo consider replacing with just java.util.* || java.lang.*  */&& typeDictionary !=null) {
             if (psiClass.getConstructors().length == 0) {
                  hasDefaultConstructor=true; //todo check if parent ctors are also retrieved by getConstructors()
             }
-            for (PsiMethod psiMethod : psiClass.getAllMethods()) {
-                    if ( (shouldResolveAllMethods || ( PropertyUtils.isPropertySetter(psiMethod) || PropertyUtils.isPropertyGetter(psiMethod)) && !isGroovyLangProperty(psiMethod) || psiMethod.isConstructor()) && Method.isRelevant(psiClass, psiMethod)){
-                        final Method method = new Method(psiMethod, psiClass, maxRecursionDepth - 1, typeDictionary, psiType);
-                        method.resolveInternalReferences(psiMethod, typeDictionary);
-                        this.methods.add(method);
-                    }
+            final SmartTypePointer psiTypePointer = SmartTypePointerManager.getInstance(psiClass.getProject()).createSmartTypePointer(psiType);
+            synchronized (this) {
+                deferredDependencies = new DeferredDependencies(typeDictionary, dictionaryKey, psiTypePointer, maxRecursionDepth, shouldResolveAllMethods);
+            }
+            dependenciesResolved=true;
+        }
+    }
+
+    public List<Method> getMethods() {
+        resolveDeferred(DeferredPart.METHODS);
+        return methods;
+    }
+
+    public List<Field> getFields() {
+        resolveDeferred(DeferredPart.FIELDS);
+        return fields;
+    }
+
+    public List<Type> getImplementedInterfaces() {
+        resolveDeferred(DeferredPart.INTERFACES);
+        return implementedInterfaces;
+    }
 
+    /**
+     * Resolves a deferred part of this type once, by the type dictionary of the test generation accessing it.
+     * This type is locked only while claiming and completing the resolution, never while calling the type dictionary. Other threads accessing the part meanwhile wait for it to be resolved,
+     * while the resolving thread gets the part resolved so far. A part failing to resolve, i.e. when canceled, is cleared and resolved again on next access.
+     */
+    private void resolveDeferred(DeferredPart part) {
+        final DeferredDependencies deferred;
+        synchronized (this) {
+            while (deferredDependencies != null && deferredDependencies.isResolvedByOtherThread(part)) {
+                awaitResolution();
+            }
+            deferred = deferredDependencies;
+            if (deferred == null || !deferred.pendingParts.remove(part)) {
+                return;
+            }
+            deferred.resolvers.put(part, Thread.currentThread());
+        }
+        boolean resolved = false;
+        try {
+            resolved = resolve(part, deferred);
+        } finally {
+            synchronized (this) {
+                deferred.resolvers.remove(part);
+                if (!resolved) {
+                    deferred.pendingParts.add(part);
+                } else if (deferred.pendingParts.isEmpty() && deferred.resolvers.isEmpty()) {
+                    deferredDependencies = null;
                 }
-            resolveFields(psiClass, typeDictionary, maxRecursionDepth - 1);
-            resolveImplementedInterfaces(psiClass, typeDictionary, shouldResolveAllMethods, maxRecursionDepth - 1);
-            dependenciesResolved=true;
+                notifyAll();
+            }
+        }
+    }
+
+    private void awaitResolution() {
+        try {
+            wait(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        }
+        ProgressManager.checkCanceled();
+    }
+
+    /**
+     * @return false - if the part was not resolved, since resolving methods is not within the resolution budget of the accessing generation
+     */
+    private boolean resolve(DeferredPart part, DeferredDependencies deferred) {
+        final PsiType psiType = deferred.psiTypePointer.getType();
+        final PsiClass psiClass = psiType != null && psiType.isValid() ? PsiUtil.resolveClassInType(psiType) : null;
+        if (psiClass == null || !psiClass.isValid()) {
+            return true;
+        }
+        final TypeDictionary typeDictionary = deferred.resolveTypeDictionary(psiClass.getProject());
+        if (part == DeferredPart.METHODS && !typeDictionary.isMethodsResolutionAllowed(deferred.dictionaryKey, deferred.maxRecursionDepth)) {
+            return false;
+        }
+        try {
+            typeDictionary.resolveDeferred(deferred.dictionaryKey, () -> {
+                switch (part) {
+                    case METHODS:
+                        return resolveMethods(psiClass, typeDictionary, deferred.maxRecursionDepth, psiType, deferred.shouldResolveAllMethods);
+                    case FIELDS:
+                        return resolveFields(psiClass, typeDictionary, deferred.maxRecursionDepth - 1);
+                    default:
+                        return resolveImplementedInterfaces(psiClass, typeDictionary, deferred.shouldResolveAllMethods, deferred.maxRecursionDepth - 1);
+                }
+            });
+            return true;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                switch (part) {
+                    case METHODS:
+                        methods.clear();
+                        break;
+                    case FIELDS:
+                        fields.clear();
+                        break;
+                    default:
+                        implementedInterfaces.clear();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private int resolveMethods(@NotNull PsiClass psiClass, TypeDictionary typeDictionary, int maxRecursionDepth, PsiType psiType, boolean shouldResolveAllMethods) {
+        for (PsiMethod psiMethod : psiClass.getAllMethods()) {
+            if ( (shouldResolveAllMethods || ( PropertyUtils.isPropertySetter(psiMethod) || PropertyUtils.isPropertyGetter(psiMethod)) && !isGroovyLangProperty(psiMethod) || psiMethod.isConstructor()) && Method.isRelevant(psiClass, psiMethod, typeDictionary)){
+                final Method method = new Method(psiMethod, psiClass, maxRecursionDepth - 1, typeDictionary, psiType);
+                method.resolveInternalReferences(psiMethod, typeDictionary);
+                this.methods.add(method);
+            }
         }
+        return methods.size();
     }
 
-    private void resolveFields(@NotNull PsiClass psiClass, TypeDictionary typeDictionary, int maxRecursionDepth) {
+    private int resolveFields(@NotNull PsiClass psiClass, TypeDictionary typeDictionary, int maxRecursionDepth) {
         for (PsiField psiField : psiClass.getAllFields()) {
             if(!"groovy.lang.MetaClass".equals(psiField.getType().getCanonicalText())){
                 fields.add(new Field(psiField, psiClass,typeDictionary,maxRecursionDepth));
             }
         }
+        return 0;
     }
-    private void resolveImplementedInterfaces(@NotNull PsiClass psiClass, TypeDictionary typeDictionary, boolean shouldResolveAllMethods, int maxRecursionDepth) {
+    private int resolveImplementedInterfaces(@NotNull PsiClass psiClass, TypeDictionary typeDictionary, boolean shouldResolveAllMethods, int maxRecursionDepth) {
         for (PsiClassType psiClassType : psiClass.getImplementsListTypes()) {
             implementedInterfaces.add(new Type(psiClassType, null,typeDictionary, maxRecursionDepth, shouldResolveAllMethods));
         }
+        return 0;
     }
 
     private boolean isFinalType(PsiClass aClass) {
@@ -318,12 +443,16 @@ public class Type {
         if (this == o) return true;
         if (o == null || !(o instanceof Type)) return false;
         Type type = (Type) o;
-        return canonicalName.equals(type.canonicalName);
+        return canonicalNameSymbol == type.canonicalNameSymbol;
     }
 
     @Override
     public int hashCode() {
-        return canonicalName.hashCode();
+        return canonicalNameSymbol.getId();
+    }
+
+    int getCanonicalNameSymbol() {
+        return canonicalNameSymbol.getId();
     }
 
     /**
@@ -332,7 +461,7 @@ public class Type {
      */
     public List<Method> findConstructors() {
         List<Method> constructors = new ArrayList<>();
-        for (Method method : methods) {
+        for (Method method : getMethods()) {
             if (method.isConstructor() && !"java.lang.Object".equals(method.getOwnerClassCanonicalType())) {
                 constructors.add(method);
             }
@@ -348,4 +477,52 @@ public class Type {
         return "Type{" + "canonicalName='" + canonicalName + '\'' + '}';
     }
 
+    private enum DeferredPart {METHODS, FIELDS, INTERFACES}
+
+    /**
+     * What's needed for resolving methods, fields and implemented interfaces of a type once accessed, with the recursion budget left when the type was introspected.
+     * Types are shared by generations through the project level type cache, so the type dictionary that introspected the type is referenced weakly, and used only when accessed outside of any generation
+     */
+    private static class DeferredDependencies {
+        private final WeakReference<TypeDictionary> introspectingTypeDictionary;
+        @Nullable
+        private final String targetPackage;
+        private final String dictionaryKey;
+        private final SmartTypePointer psiTypePointer;
+        private final int maxRecursionDepth;
+        private final boolean shouldResolveAllMethods;
+        private final Set<DeferredPart> pendingParts = EnumSet.allOf(DeferredPart.class);
+        /**
+         * threads currently resolving parts
+         */
+        private final Map<DeferredPart, Thread> resolvers = new EnumMap<>(DeferredPart.class);
+
+        DeferredDependencies(TypeDictionary typeDictionary, String dictionaryKey, SmartTypePointer psiTypePointer, int maxRecursionDepth, boolean shouldResolveAllMethods) {
+            introspectingTypeDictionary = new WeakReference<>(typeDictionary);
+            targetPackage = typeDictionary.getTargetPackageName();
+            this.dictionaryKey = dictionaryKey;
+            this.psiTypePointer = psiTypePointer;
+            this.maxRecursionDepth = maxRecursionDepth;
+            this.shouldResolveAllMethods = shouldResolveAllMethods;
+        }
+
+        boolean isResolvedByOtherThread(DeferredPart part) {
+            final Thread resolver = resolvers.get(part);
+            return resolver != null && resolver != Thread.currentThread();
+        }
+
+        /**
+         * @return type dictionary of the generation active in the current thread, if any
+         */
+        @NotNull
+        TypeDictionary resolveTypeDictionary(Project project) {
+            final TypeDictionary activeTypeDictionary = TypeDictionary.getActive();
+            if (activeTypeDictionary != null) {
+                return activeTypeDictionary;
+            }
+            final TypeDictionary typeDictionary = introspectingTypeDictionary.get();
+            return typeDictionary != null ? typeDictionary : TypeDictionary.createDetached(project, targetPackage);
+        }
+    }
+
 }
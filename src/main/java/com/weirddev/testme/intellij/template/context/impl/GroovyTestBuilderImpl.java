@@ -27,6 +27,11 @@ public class GroovyTestBuilderImpl extends JavaTestBuilderImpl {
         super(method, paramRole, fileTemplateConfig, srcModule, typeDictionary, javaVersion, defaultTypeValues, typesOverrides);
     }
 
+    public GroovyTestBuilderImpl(Method method, TestBuilder.ParamRole paramRole, FileTemplateConfig fileTemplateConfig, Module srcModule, TypeDictionary typeDictionary, JavaVersion javaVersion, Map<String, String> defaultTypeValues, Map<String, String> typesOverrides,
+            @Nullable ParamRenderCache paramRenderCache) {
+        super(method, paramRole, fileTemplateConfig, srcModule, typeDictionary, javaVersion, defaultTypeValues, typesOverrides, paramRenderCache);
+    }
+
     @Override
     protected void buildCallParam(StringBuilder testCodeString, Node<Param> paramNode) {
         final Type type = paramNode.getData().getType();
@@ -85,7 +90,7 @@ public class GroovyTestBuilderImpl extends JavaTestBuilderImpl {
 
     private boolean propertyMatchesField(Type type, SyntheticParam syntheticParam) {
         Field field = findFieldByName(type, syntheticParam.getName());
-        return field != null && field.getType().getCanonicalName().equals(syntheticParam.getType().getCanonicalName());
+        return field != null && field.getType().equals(syntheticParam.getType());
     }
 
     @Nullable
@@ -1,13 +1,7 @@
 package com.weirddev.testme.intellij.template.context.impl;
 
-import com.intellij.ide.hierarchy.HierarchyBrowserBaseEx;
-import com.intellij.ide.hierarchy.type.SubtypesHierarchyTreeStructure;
-import com.intellij.ide.hierarchy.type.TypeHierarchyNodeDescriptor;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
-import com.intellij.psi.JavaPsiFacade;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiClassType;
 import com.intellij.util.lang.JavaVersion;
 import com.weirddev.testme.intellij.generator.TestBuilderUtil;
 import com.weirddev.testme.intellij.template.FileTemplateConfig;
@@ -40,8 +34,19 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
     private JavaVersion javaVersion;
     private final Map<String, String> defaultTypeValues;
     private final Map<String, String> typesOverrides;
+    @Nullable
+    private final ParamRenderCache paramRenderCache;
+    /**
+     * Number of rendering decisions that consulted the tested method property usage, so rendered params not depending on them are cached for all tested methods
+     */
+    private int testedMethodUsageLookups;
 
     public JavaTestBuilderImpl(Method testedMethod, TestBuilder.ParamRole paramRole, FileTemplateConfig fileTemplateConfig, Module srcModule, TypeDictionary typeDictionary, JavaVersion javaVersion, Map<String, String> defaultTypeValues, Map<String, String> typesOverrides) {
+        this(testedMethod, paramRole, fileTemplateConfig, srcModule, typeDictionary, javaVersion, defaultTypeValues, typesOverrides, null);
+    }
+
+    public JavaTestBuilderImpl(Method testedMethod, TestBuilder.ParamRole paramRole, FileTemplateConfig fileTemplateConfig, Module srcModule, TypeDictionary typeDictionary, JavaVersion javaVersion, Map<String, String> defaultTypeValues, Map<String, String> typesOverrides,
+                               @Nullable ParamRenderCache paramRenderCache) {
         this.testedMethod = testedMethod;
         this.srcModule = srcModule;
         this.typeDictionary = typeDictionary;
@@ -50,6 +55,7 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
         this.javaVersion = javaVersion;
         this.defaultTypeValues = defaultTypeValues;
         this.typesOverrides = typesOverrides;
+        this.paramRenderCache = paramRenderCache;
     }
 
     @Override
@@ -96,50 +102,76 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
         } else if (hasEnumValues(type)) {
             renderEnumValue(testBuilder, type);
         } else {
-            final Type resolvedType=resolveChildTypeIfNeeded(type,fileTemplateConfig.getMaxRecursionDepth());
-            if (!resolvedType.equals(type)) {
-                paramNode= new Node<>(new Param(resolvedType, paramNode.getData().getName(), paramNode.getData().getAssignedToFields()), paramNode.getParent(), paramNode.getDepth());
-            }
-            String typeName = resolveTypeName(resolvedType);
-            if (!resolvedType.getCanonicalName().equals(typeName)) {
-                final String[] typeInitExp = typeName.split("<VAL>");
-                if (typeInitExp.length == 0) {
-                    Type genericTypeParam = safeGetComposedTypeAtIndex(resolvedType, 0);
-                    buildCallParam(testBuilder, new Node<>(new SyntheticParam(genericTypeParam, genericTypeParam.getName(), false), paramNode, paramNode.getDepth()));
+            final ParamRenderCache.Key renderKey = paramRenderCache == null ? null : paramRenderCache.keyOf(paramNode, paramRole, defaultTypeValues, typesOverrides);
+            final ParamRenderCache.Key testedMethodRenderKey = renderKey == null || !isIgnoringUnusedProperties() ? null : renderKey.forTestedMethod(testedMethod);
+            String renderedParam = renderKey == null ? null : paramRenderCache.get(renderKey);
+            if (renderedParam == null && testedMethodRenderKey != null) {
+                renderedParam = paramRenderCache.get(testedMethodRenderKey);
+                if (renderedParam != null) {
+                    testedMethodUsageLookups++;
                 }
-                else {
-                    testBuilder.append(typeInitExp[0]);
-                    for (int i = 1; i < typeInitExp.length; i++) {
-                        Type genericTypeParam = safeGetComposedTypeAtIndex(resolvedType, i-1);
-                        if (TestBuilderUtil.looksLikeObjectKeyInGroovyMap(typeInitExp[i], genericTypeParam.getCanonicalName())) {
-                            testBuilder.append("(");
-                        }
-                        buildCallParam(testBuilder, new Node<>(new SyntheticParam(genericTypeParam, genericTypeParam.getName(), false), paramNode, paramNode.getDepth()));
-                        if (TestBuilderUtil.looksLikeObjectKeyInGroovyMap(typeInitExp[i], genericTypeParam.getCanonicalName())) {
-                            testBuilder.append(")");
-                        }
-                        testBuilder.append(typeInitExp[i]);
-                    }
+            }
+            if (renderedParam != null) {
+                testBuilder.append(renderedParam);
+            } else {
+                final int renderStart = testBuilder.length();
+                final int testedMethodUsageLookupsBefore = testedMethodUsageLookups;
+                buildObjectParam(testBuilder, paramNode);
+                if (renderKey != null) {
+                    paramRenderCache.put(testedMethodUsageLookups == testedMethodUsageLookupsBefore ? renderKey : testedMethodRenderKey, testBuilder.substring(renderStart));
                 }
             }
-            else if (shouldContinueRecursion(paramNode)) {
-                final boolean hasEmptyConstructor = TestBuilderUtil.hasValidEmptyConstructor(resolvedType);
-                Method foundCtor = findValidConstructor(resolvedType, hasEmptyConstructor);
-                if (foundCtor == null && !hasEmptyConstructor || !resolvedType.isDependenciesResolved()) {
-                    testBuilder.append("null");
-                } else {
-                    testBuilder.append(resolveInitializerKeyword( type,foundCtor));
-                    if (resolvedType.getParentContainerClass() != null && !resolvedType.isStatic()) {
-                        typeName = resolveNestedClassTypeName(typeName);
+        }
+    }
+
+    private void buildObjectParam(StringBuilder testBuilder, Node<Param> paramNode) {
+        final Type type = paramNode.getData().getType();
+        final Type resolvedType=resolveChildTypeIfNeeded(type,fileTemplateConfig.getMaxRecursionDepth());
+        if (!resolvedType.equals(type)) {
+            paramNode= new Node<>(new Param(resolvedType, paramNode.getData().getName(), paramNode.getData().getAssignedToFields()), paramNode.getParent(), paramNode.getDepth());
+        }
+        String typeName = resolvedType.getCanonicalName();
+        final ReplacementTemplate replacementTemplate = resolveReplacementTemplate(typeName);
+        final String generics = replacementTemplate == null ? "" : ClassNameUtils.extractGenerics(typeName);
+        if (replacementTemplate != null && replacementTemplate.isReplacing(typeName, generics)) {
+            final int segmentsCount = replacementTemplate.getSegmentsCount(generics);
+            if (segmentsCount == 0) {
+                Type genericTypeParam = safeGetComposedTypeAtIndex(resolvedType, 0);
+                buildCallParam(testBuilder, new Node<>(new SyntheticParam(genericTypeParam, genericTypeParam.getName(), false), paramNode, paramNode.getDepth()));
+            }
+            else {
+                replacementTemplate.appendSegment(testBuilder, 0, generics);
+                for (int i = 1; i < segmentsCount; i++) {
+                    Type genericTypeParam = safeGetComposedTypeAtIndex(resolvedType, i-1);
+                    final boolean looksLikeObjectKeyInGroovyMap = TestBuilderUtil.looksLikeObjectKeyInGroovyMap(replacementTemplate.getLiteralSegment(i), genericTypeParam.getCanonicalName());
+                    if (looksLikeObjectKeyInGroovyMap) {
+                        testBuilder.append("(");
+                    }
+                    buildCallParam(testBuilder, new Node<>(new SyntheticParam(genericTypeParam, genericTypeParam.getName(), false), paramNode, paramNode.getDepth()));
+                    if (looksLikeObjectKeyInGroovyMap) {
+                        testBuilder.append(")");
                     }
-                    testBuilder.append(typeName).append("(");
-                    buildCallParams(foundCtor,foundCtor==null? new ArrayList<>():foundCtor.getMethodParams(), testBuilder, paramNode);
-                    testBuilder.append(")");
+                    replacementTemplate.appendSegment(testBuilder, i, generics);
                 }
-
-            } else {
+            }
+        }
+        else if (shouldContinueRecursion(paramNode)) {
+            final boolean hasEmptyConstructor = TestBuilderUtil.hasValidEmptyConstructor(resolvedType);
+            Method foundCtor = findValidConstructor(resolvedType, hasEmptyConstructor);
+            if (foundCtor == null && !hasEmptyConstructor || !resolvedType.isDependenciesResolved()) {
                 testBuilder.append("null");
+            } else {
+                testBuilder.append(resolveInitializerKeyword( type,foundCtor));
+                if (resolvedType.getParentContainerClass() != null && !resolvedType.isStatic()) {
+                    typeName = resolveNestedClassTypeName(typeName);
+                }
+                testBuilder.append(typeName).append("(");
+                buildCallParams(foundCtor,foundCtor==null? new ArrayList<>():foundCtor.getMethodParams(), testBuilder, paramNode);
+                testBuilder.append(")");
             }
+
+        } else {
+            testBuilder.append("null");
         }
     }
 
@@ -191,41 +223,21 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
     }
 
     private Type findChildType(Type type, int maxRecursionDepth) {
-        final PsiClass psiClass = findClassInModule(type.getCanonicalName());
-        if (psiClass != null) {
-            final Object[] childElements = new SubtypesHierarchyTreeStructure(srcModule.getProject(), psiClass, HierarchyBrowserBaseEx.SCOPE_PROJECT/*"All"*/).getChildElements(new TypeHierarchyNodeDescriptor(srcModule.getProject(),null,psiClass,true));
-            if (childElements.length > 0 && childElements.length <= fileTemplateConfig.getMaxNumOfConcreteCandidatesToReplaceInterfaceParam()) {
-                for (Object childElement : childElements) {
-                    Type childType = null;
-                    if (childElement instanceof TypeHierarchyNodeDescriptor) {
-                        final TypeHierarchyNodeDescriptor hierarchyNodeDescriptor = ((TypeHierarchyNodeDescriptor) childElement);
-                        if (hierarchyNodeDescriptor.getPsiClass() instanceof PsiClass) {
-                            final PsiClass childPsiClass = (PsiClass) hierarchyNodeDescriptor.getPsiClass();
-                            if (findClassInModule(childPsiClass.getQualifiedName()) != null) {
-                                final PsiClassType psiChildType = JavaPsiFacade.getInstance(srcModule.getProject()).getElementFactory().createType(childPsiClass);//todo verify behaviour with groovy classes
-                                childType = typeDictionary.getType(psiChildType, fileTemplateConfig.getMaxRecursionDepth(), true);
-                            }
-                        }
-                    }
-                    if (childType != null) {
-                        if (isConcreteType(childType)) {
-                            return childType;
-                        } else if(maxRecursionDepth>0){
-                            final Type grandChild = findChildType(childType, maxRecursionDepth - 1);
-                            if (grandChild != null) {
-                                return grandChild;
-                            }
-                        }
-                    }
+        for (Type childType : typeDictionary.getDirectSubtypes(type.getCanonicalName(), srcModule, fileTemplateConfig.getMaxNumOfConcreteCandidatesToReplaceInterfaceParam(), fileTemplateConfig.getMaxRecursionDepth())) {
+            if (isConcreteType(childType)) {
+                return childType;
+            } else if(maxRecursionDepth>0){
+                final Type grandChild = findChildType(childType, maxRecursionDepth - 1);
+                if (grandChild != null) {
+                    return grandChild;
                 }
             }
         }
         return null;
     }
 
-    @Nullable
-    private PsiClass findClassInModule(String fqName) {
-        return JavaPsiFacade.getInstance(srcModule.getProject()).findClass(fqName, srcModule.getModuleRuntimeScope(true));
+    private boolean isIgnoringUnusedProperties() {
+        return fileTemplateConfig.isIgnoreUnusedProperties() && testedMethod != null;
     }
 
     protected void buildCallParams(Method constructor, List<? extends Param> params, StringBuilder testBuilder, Node<Param> ownerParamNode) {
@@ -234,7 +246,10 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
             final Type ownerType = ownerParamNode.getData()==null?null: ownerParamNode.getData().getType();
             for (Param param : params) {
                 final Node<Param> paramNode = new Node<>(param, ownerParamNode, ownerParamNode.getDepth() + 1);
-                if (fileTemplateConfig.isIgnoreUnusedProperties() && testedMethod != null) {
+                if (isIgnoringUnusedProperties()) {
+                    if (ownerType != null && (constructor != null || isPropertyParam(paramNode.getData()))) {
+                        testedMethodUsageLookups++;
+                    }
                     if (isPropertyParam(paramNode.getData()) && ownerType != null && !isPropertyUsed(testedMethod, paramNode.getData(), ownerType)) {
                         LOG.debug("property unused "+paramNode.getData());
                         continue;
@@ -289,15 +304,20 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
 
     String resolveTypeName(Type type) {
         String canonicalName = type.getCanonicalName();
-        String replacementType = resolveConcreteType(ClassNameUtils.stripGenerics(canonicalName));
-        if (replacementType == null) {
+        final ReplacementTemplate replacementTemplate = resolveReplacementTemplate(canonicalName);
+        if (replacementTemplate == null) {
             return canonicalName;
         }
         else {
-            return replacementType.replace("<TYPES>", ClassNameUtils.extractGenerics(canonicalName));
+            return replacementTemplate.toTypeName(ClassNameUtils.extractGenerics(canonicalName));
         }
     }
 
+    @Nullable
+    private ReplacementTemplate resolveReplacementTemplate(String canonicalName) {
+        return ReplacementTemplate.of(resolveConcreteType(ClassNameUtils.stripGenerics(canonicalName)));
+    }
+
     private String resolveConcreteType(String canonicalTypeName) {
         if (typesOverrides != null && typesOverrides.get(canonicalTypeName) != null) {
             return typesOverrides.get(canonicalTypeName);
@@ -404,7 +424,7 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
 
     private boolean isSharedType(Type ownerType, Method methodCalled) {
         for (Method method : ownerType.getMethods()) {
-            if (method.getMethodId().equals(methodCalled.getMethodId())) {
+            if (method.getMethodIdSymbol() == methodCalled.getMethodIdSymbol()) {
                 return true;
             }
         }
@@ -420,7 +440,7 @@ public class JavaTestBuilderImpl implements LangTestBuilder {
     }
 
     private boolean isGetterUsed(Param propertyParam, Method calledMethod) {
-        return calledMethod.isGetter() && calledMethod.getReturnType().getCanonicalName().equals(propertyParam.getType().getCanonicalName()) && propertyParam.getName().equals(calledMethod.getPropertyName());
+        return calledMethod.isGetter() && calledMethod.getReturnType().equals(propertyParam.getType()) && propertyParam.getName().equals(calledMethod.getPropertyName());
     }
     private boolean hasNonNullFieldMapping(MethodCall methodCall, Param propertyParam, String paramOwnerCanonicalName) {
         for (int i = 0; i < methodCall.getMethod().getMethodParams().size(); i++) {
@@ -6,6 +6,7 @@ import com.weirddev.testme.intellij.template.FileTemplateConfig;
 import com.weirddev.testme.intellij.template.TypeDictionary;
 import com.weirddev.testme.intellij.template.context.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 
@@ -15,6 +16,8 @@ public class LangTestBuilderFactory {
     private Module srcModule;
     private TypeDictionary typeDictionary;
     private JavaVersion javaVersion;
+    @Nullable
+    private final ParamRenderCache paramRenderCache;
 
     public LangTestBuilderFactory(Language language, Module srcModule, FileTemplateConfig fileTemplateConfig, TypeDictionary typeDictionary, JavaVersion javaVersion) {
         this.language = language;
@@ -22,18 +25,19 @@ public class LangTestBuilderFactory {
         this.srcModule = srcModule;
         this.typeDictionary = typeDictionary;
         this.javaVersion = javaVersion;
+        paramRenderCache = fileTemplateConfig.isCacheRenderedParams() ? new ParamRenderCache() : null;
     }
 
     @NotNull
     public LangTestBuilder createTestBuilder(Method method, TestBuilder.ParamRole paramRole, Map<String, String> defaultTypeValues, Map<String, String> typesOverrides) throws Exception {
         LangTestBuilder langTestBuilder;
         if ( language==Language.Scala) {
-            langTestBuilder = new ScalaTestBuilder(method, paramRole,fileTemplateConfig, srcModule,typeDictionary,javaVersion, defaultTypeValues, typesOverrides);
+            langTestBuilder = new ScalaTestBuilder(method, paramRole,fileTemplateConfig, srcModule,typeDictionary,javaVersion, defaultTypeValues, typesOverrides, paramRenderCache);
         }
         else if ( language==Language.Groovy) {
-            langTestBuilder = new GroovyTestBuilderImpl(method, paramRole,fileTemplateConfig, srcModule,typeDictionary,javaVersion, defaultTypeValues, typesOverrides);
+            langTestBuilder = new GroovyTestBuilderImpl(method, paramRole,fileTemplateConfig, srcModule,typeDictionary,javaVersion, defaultTypeValues, typesOverrides, paramRenderCache);
         } else{
-            langTestBuilder = new JavaTestBuilderImpl(method, paramRole, fileTemplateConfig, srcModule,typeDictionary,javaVersion, defaultTypeValues, typesOverrides );
+            langTestBuilder = new JavaTestBuilderImpl(method, paramRole, fileTemplateConfig, srcModule,typeDictionary,javaVersion, defaultTypeValues, typesOverrides, paramRenderCache);
         }
         return langTestBuilder;
     }
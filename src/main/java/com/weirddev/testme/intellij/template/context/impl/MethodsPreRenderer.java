@@ -0,0 +1,149 @@
+package com.weirddev.testme.intellij.template.context.impl;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.weirddev.testme.intellij.template.TypeDictionary;
+import com.weirddev.testme.intellij.template.context.Method;
+import com.weirddev.testme.intellij.template.context.Type;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders params and expected results of all tested methods in a batch, concurrently, once the params or expected result of one of them is first rendered.
+ * Rendering of distinct methods is independent once the type graph is built, so the batch is split between pooled threads, each holding read access on behalf of the rendering thread.
+ * Batches are rendered with the replacement types and default values maps the template renders the first method with, and kept by method and by the content of these maps.
+ * Batches run only when the rendering thread holds read access without write access - i.e. when the test file is rendered in a background read action. Otherwise methods are rendered one by one, on demand.
+ */
+class MethodsPreRenderer {
+    private static final Logger LOG = Logger.getInstance(MethodsPreRenderer.class.getName());
+    private volatile List<Method> testedMethods = Collections.emptyList();
+    private volatile Set<Method> testedMethodsSet = Collections.emptySet();
+    private final Map<Map<String, String>, Integer> mapIds = new HashMap<>();
+    private final Map<Map<String, String>, Integer> mapIdsByIdentity = new IdentityHashMap<>();
+    private final Map<RenderKey, String> renderedCode = new ConcurrentHashMap<>();
+    private final Set<RenderKey> preRenderedBatches = ConcurrentHashMap.newKeySet();
+
+    interface Renderer {
+        String render(Method method, @Nullable Type type, @Nullable String name) throws Exception;
+    }
+
+    void setTestedMethods(@NotNull List<Method> testedMethods) {
+        this.testedMethods = testedMethods;
+        testedMethodsSet = new HashSet<>(testedMethods);
+    }
+
+    String renderMethodParams(Method method, Map<String, String> typesOverrides, Map<String, String> defaultTypeValues, Renderer renderer) throws Exception {
+        return render(method, null, null, typesOverrides, defaultTypeValues, renderer, true);
+    }
+
+    /**
+     * @param type rendered type. a batch is rendered only when type is the return type of method
+     */
+    String renderReturnParam(Method method, Type type, String name, Map<String, String> typesOverrides, Map<String, String> defaultTypeValues, Renderer renderer) throws Exception {
+        return render(method, type, name, typesOverrides, defaultTypeValues, renderer, type != null && type.equals(method.getReturnType()));
+    }
+
+    private String render(Method method, @Nullable Type type, @Nullable String name, Map<String, String> typesOverrides, Map<String, String> defaultTypeValues, Renderer renderer, boolean batchable) throws Exception {
+        final int typesOverridesId = resolveMapId(typesOverrides);
+        final int defaultTypeValuesId = resolveMapId(defaultTypeValues);
+        final RenderKey renderKey = new RenderKey(method, type, name, typesOverridesId, defaultTypeValuesId);
+        String rendered = renderedCode.get(renderKey);
+        if (rendered == null) {
+            if (batchable && testedMethodsSet.contains(method) && preRenderedBatches.add(new RenderKey(null, null, type == null ? null : name, typesOverridesId, defaultTypeValuesId))) {
+                preRender(type != null, name, typesOverridesId, defaultTypeValuesId, renderer);
+                rendered = renderedCode.get(renderKey);
+            }
+            if (rendered == null) {
+                rendered = renderer.render(method, type, name);
+                if (rendered != null) {
+                    renderedCode.put(renderKey, rendered);
+                }
+            }
+        }
+        return rendered;
+    }
+
+    private void preRender(boolean returnParams, String name, int typesOverridesId, int defaultTypeValuesId, Renderer renderer) {
+        final Application application = ApplicationManager.getApplication();
+        final List<Method> methods = testedMethods;
+        if (methods.size() < 2 || application == null || !application.isReadAccessAllowed() || application.isWriteAccessAllowed()) {
+            return;
+        }
+        final ProgressIndicator progressIndicator = ProgressManager.getInstance().getProgressIndicator();
+        final TypeDictionary typeDictionary = TypeDictionary.getActive();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(methods, progressIndicator == null ? new EmptyProgressIndicator() : progressIndicator, method -> {
+            final Type type = returnParams ? method.getReturnType() : null;
+            if (returnParams && (type == null || !method.hasReturn())) {
+                return true;
+            }
+            final RenderKey renderKey = new RenderKey(method, type, returnParams ? name : null, typesOverridesId, defaultTypeValuesId);
+            if (!renderedCode.containsKey(renderKey)) {
+                try {
+                    final String rendered = typeDictionary == null ? renderer.render(method, type, renderKey.name) : typeDictionary.computeActive(() -> renderer.render(method, type, renderKey.name));
+                    if (rendered != null) {
+                        renderedCode.putIfAbsent(renderKey, rendered);
+                    }
+                } catch (ProcessCanceledException e) {
+                    throw e;
+                } catch (Exception e) {
+                    LOG.warn("failed pre rendering method " + method.getMethodId() + ". to be rendered on demand", e);
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * @return an id shared by maps of equal content
+     */
+    private synchronized int resolveMapId(Map<String, String> map) {
+        Integer mapId = mapIdsByIdentity.get(map);
+        if (mapId == null) {
+            mapId = mapIds.computeIfAbsent(map == null ? Collections.emptyMap() : new HashMap<>(map), key -> mapIds.size() + 1);
+            mapIdsByIdentity.put(map, mapId);
+        }
+        return mapId;
+    }
+
+    private static final class RenderKey {
+        @Nullable
+        private final Method method;
+        @Nullable
+        private final Type type;
+        @Nullable
+        private final String name;
+        private final int typesOverridesId;
+        private final int defaultTypeValuesId;
+
+        private RenderKey(@Nullable Method method, @Nullable Type type, @Nullable String name, int typesOverridesId, int defaultTypeValuesId) {
+            this.method = method;
+            this.type = type;
+            this.name = name;
+            this.typesOverridesId = typesOverridesId;
+            this.defaultTypeValuesId = defaultTypeValuesId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RenderKey)) return false;
+            RenderKey renderKey = (RenderKey) o;
+            return typesOverridesId == renderKey.typesOverridesId && defaultTypeValuesId == renderKey.defaultTypeValuesId && Objects.equals(method, renderKey.method) && Objects.equals(type, renderKey.type)
+                    && Objects.equals(name, renderKey.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, type, name, typesOverridesId, defaultTypeValuesId);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.weirddev.testme.intellij.template.context.impl;
+
+import com.weirddev.testme.intellij.template.context.Method;
+import com.weirddev.testme.intellij.template.context.Param;
+import com.weirddev.testme.intellij.template.context.TestBuilder;
+import com.weirddev.testme.intellij.template.context.Type;
+import com.weirddev.testme.intellij.utils.Node;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Code rendered for params during a single test generation, so identical param subtrees - i.e. the same bean constructor call passed to many tested methods - are rendered once.
+ * Rendered code is keyed by everything it depends on: the param type and name, the param role, the recursion depth, the content of the replacement types and default values maps,
+ * the types of the param ancestors (rendering stops at recursive types), and - only for params which rendering consulted the tested method property usage - the tested method.
+ * Shared by builders rendering tested methods concurrently.
+ */
+public class ParamRenderCache {
+    private final Map<Key, String> renderedParams = new ConcurrentHashMap<>();
+    private final Map<Map<String, String>, Integer> mapIds = new HashMap<>();
+    private final Map<Map<String, String>, Integer> mapIdsByIdentity = new IdentityHashMap<>();
+
+    /**
+     * @return key shared by all tested methods, for code which rendering did not consult the tested method property usage. See {@link Key#forTestedMethod(Method)}
+     */
+    @NotNull
+    Key keyOf(@NotNull Node<Param> paramNode, TestBuilder.ParamRole paramRole, Map<String, String> defaultTypeValues, Map<String, String> typesOverrides) {
+        return new Key(paramNode, paramRole, resolveMapId(defaultTypeValues), resolveMapId(typesOverrides));
+    }
+
+    @Nullable
+    String get(@NotNull Key key) {
+        return renderedParams.get(key);
+    }
+
+    void put(@NotNull Key key, @NotNull String rendered) {
+        renderedParams.put(key, rendered);
+    }
+
+    private synchronized int resolveMapId(Map<String, String> map) {
+        Integer mapId = mapIdsByIdentity.get(map);
+        if (mapId == null) {
+            mapId = mapIds.computeIfAbsent(map == null ? Collections.emptyMap() : new HashMap<>(map), key -> mapIds.size() + 1);
+            mapIdsByIdentity.put(map, mapId);
+        }
+        return mapId;
+    }
+
+    static final class Key {
+        private final Type type;
+        private final String name;
+        private final TestBuilder.ParamRole paramRole;
+        private final int depth;
+        private final int defaultTypeValuesId;
+        private final int typesOverridesId;
+        private final int[] ancestorTypeSymbols;
+        @Nullable
+        private final Method testedMethod;
+        private final int hashCode;
+
+        private Key(@NotNull Node<Param> paramNode, TestBuilder.ParamRole paramRole, int defaultTypeValuesId, int typesOverridesId) {
+            this(paramNode.getData().getType(), paramNode.getData().getName(), paramRole, paramNode.getDepth(), defaultTypeValuesId, typesOverridesId, resolveAncestorTypeSymbols(paramNode), null);
+        }
+
+        private Key(Type type, String name, TestBuilder.ParamRole paramRole, int depth, int defaultTypeValuesId, int typesOverridesId, int[] ancestorTypeSymbols,
+                    @Nullable Method testedMethod) {
+            this.type = type;
+            this.name = name;
+            this.paramRole = paramRole;
+            this.depth = depth;
+            this.defaultTypeValuesId = defaultTypeValuesId;
+            this.typesOverridesId = typesOverridesId;
+            this.ancestorTypeSymbols = ancestorTypeSymbols;
+            this.testedMethod = testedMethod;
+            int result = type.hashCode();
+            result = 31 * result + Objects.hashCode(name);
+            result = 31 * result + Objects.hashCode(paramRole);
+            result = 31 * result + depth;
+            result = 31 * result + defaultTypeValuesId;
+            result = 31 * result + typesOverridesId;
+            result = 31 * result + Arrays.hashCode(ancestorTypeSymbols);
+            result = 31 * result + Objects.hashCode(testedMethod);
+            hashCode = result;
+        }
+
+        /**
+         * @return key of the same param rendered for the given tested method, for code which rendering consulted the tested method property usage
+         */
+        @NotNull
+        Key forTestedMethod(@NotNull Method testedMethod) {
+            return new Key(type, name, paramRole, depth, defaultTypeValuesId, typesOverridesId, ancestorTypeSymbols, testedMethod);
+        }
+
+        /**
+         * @return distinct sorted hash codes of the ancestors types, i.e. their canonical name symbols
+         */
+        private static int[] resolveAncestorTypeSymbols(Node<Param> paramNode) {
+            int ancestorsCount = 0;
+            for (Node<Param> ancestor = paramNode.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                if (ancestor.getData() != null && ancestor.getData().getType() != null) {
+                    ancestorsCount++;
+                }
+            }
+            final int[] typeSymbols = new int[ancestorsCount];
+            int i = 0;
+            for (Node<Param> ancestor = paramNode.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                if (ancestor.getData() != null && ancestor.getData().getType() != null) {
+                    typeSymbols[i++] = ancestor.getData().getType().hashCode();
+                }
+            }
+            Arrays.sort(typeSymbols);
+            int distinctCount = 0;
+            for (int j = 0; j < typeSymbols.length; j++) {
+                if (j == 0 || typeSymbols[j] != typeSymbols[j - 1]) {
+                    typeSymbols[distinctCount++] = typeSymbols[j];
+                }
+            }
+            return distinctCount == typeSymbols.length ? typeSymbols : Arrays.copyOf(typeSymbols, distinctCount);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hashCode == key.hashCode && depth == key.depth && paramRole == key.paramRole && defaultTypeValuesId == key.defaultTypeValuesId && typesOverridesId == key.typesOverridesId && type.equals(key.type) && Objects.equals(name, key.name) && Arrays.equals(ancestorTypeSymbols, key.ancestorTypeSymbols) && Objects.equals(testedMethod, key.testedMethod);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.weirddev.testme.intellij.template.context.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A replacement type initializer, i.e. <code>new java.util.HashMap&lt;TYPES&gt;(){{put(&lt;VAL&gt;,&lt;VAL&gt;);}}</code>, compiled into literal segments separated by value slots.
+ * Each segment is compiled into literals separated by generic type slots.
+ * Rendering follows the semantics of replacing <code>&lt;TYPES&gt;</code> and then splitting on <code>&lt;VAL&gt;</code> - trailing empty segments are not rendered.
+ * Compiled templates are cached by replacement text, so both built-in replacement types and the ones passed from test templates are compiled once.
+ */
+final class ReplacementTemplate {
+    static final String VALUE_SLOT = "<VAL>";
+    static final String TYPES_SLOT = "<TYPES>";
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+    private static final Map<String, ReplacementTemplate> compiledTemplates = new ConcurrentHashMap<>();
+    /**
+     * segments separated by value slots, each holding literals separated by generic type slots
+     */
+    private final String[][] segments;
+    private final boolean hasValueSlots;
+    private final int segmentsCountWithGenerics;
+    private final int segmentsCountWithoutGenerics;
+
+    private ReplacementTemplate(String replacement) {
+        final String[] valueSeparatedSegments = replacement.split(VALUE_SLOT, -1);
+        segments = new String[valueSeparatedSegments.length][];
+        for (int i = 0; i < valueSeparatedSegments.length; i++) {
+            segments[i] = valueSeparatedSegments[i].split(TYPES_SLOT, -1);
+        }
+        hasValueSlots = segments.length > 1;
+        segmentsCountWithGenerics = hasValueSlots ? countNonTrailingEmptySegments(true) : 1;
+        segmentsCountWithoutGenerics = hasValueSlots ? countNonTrailingEmptySegments(false) : 1;
+    }
+
+    /**
+     * @return compiled replacementType. null if replacementType is null
+     */
+    @Nullable
+    static ReplacementTemplate of(@Nullable String replacementType) {
+        if (replacementType == null) {
+            return null;
+        }
+        ReplacementTemplate replacementTemplate = compiledTemplates.get(replacementType);
+        if (replacementTemplate == null) {
+            if (compiledTemplates.size() >= MAX_CACHED_TEMPLATES) {
+                compiledTemplates.clear();
+            }
+            replacementTemplate = new ReplacementTemplate(replacementType);
+            compiledTemplates.put(replacementType, replacementTemplate);
+        }
+        return replacementTemplate;
+    }
+
+    /**
+     * @param generics generic type params of the replaced type, including angle brackets. empty if none
+     * @return no. of segments to render. values are rendered between consecutive segments
+     */
+    int getSegmentsCount(@NotNull String generics) {
+        return generics.isEmpty() ? segmentsCountWithoutGenerics : segmentsCountWithGenerics;
+    }
+
+    void appendSegment(@NotNull StringBuilder sb, int segmentIndex, @NotNull String generics) {
+        final String[] literals = segments[segmentIndex];
+        sb.append(literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            sb.append(generics).append(literals[i]);
+        }
+    }
+
+    /**
+     * @return segment text if it has no generic type slots, null otherwise
+     */
+    @Nullable
+    String getLiteralSegment(int segmentIndex) {
+        final String[] literals = segments[segmentIndex];
+        return literals.length == 1 ? literals[0] : null;
+    }
+
+    /**
+     * @return true - if the rendered replacement differs from the replaced type canonical name
+     */
+    boolean isReplacing(@NotNull String canonicalName, @NotNull String generics) {
+        return hasValueSlots || !canonicalName.equals(toTypeName(generics));
+    }
+
+    /**
+     * @return replacement with generic type slots replaced by generics and value slots kept
+     */
+    @NotNull
+    String toTypeName(@NotNull String generics) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                sb.append(VALUE_SLOT);
+            }
+            appendSegment(sb, i, generics);
+        }
+        return sb.toString();
+    }
+
+    private int countNonTrailingEmptySegments(boolean withGenerics) {
+        int count = segments.length;
+        while (count > 0 && isEmptySegment(segments[count - 1], withGenerics)) {
+            count--;
+        }
+        return count;
+    }
+
+    private static boolean isEmptySegment(String[] literals, boolean withGenerics) {
+        if (withGenerics && literals.length > 1) {
+            return false;
+        }
+        for (String literal : literals) {
+            if (!literal.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -7,6 +7,7 @@ import com.weirddev.testme.intellij.template.TypeDictionary;
 import com.weirddev.testme.intellij.template.context.*;
 import com.weirddev.testme.intellij.utils.Node;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 
@@ -23,6 +24,11 @@ public class ScalaTestBuilder extends JavaTestBuilderImpl {
         super(testedMethod, paramRole, fileTemplateConfig, srcModule, typeDictionary, javaVersion, defaultTypeValues, typesOverrides);
     }
 
+    public ScalaTestBuilder(Method testedMethod, TestBuilder.ParamRole paramRole, FileTemplateConfig fileTemplateConfig, Module srcModule, TypeDictionary typeDictionary, JavaVersion javaVersion, Map<String, String> defaultTypeValues, Map<String, String> typesOverrides,
+            @Nullable ParamRenderCache paramRenderCache) {
+        super(testedMethod, paramRole, fileTemplateConfig, srcModule, typeDictionary, javaVersion, defaultTypeValues, typesOverrides, paramRenderCache);
+    }
+
     @NotNull
     @Override
     protected String resolveInitializerKeyword(Type type, Method foundCtor) {
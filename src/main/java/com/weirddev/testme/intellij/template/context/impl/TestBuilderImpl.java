@@ -5,7 +5,9 @@ import com.intellij.util.lang.JavaVersion;
 import com.weirddev.testme.intellij.template.FileTemplateConfig;
 import com.weirddev.testme.intellij.template.TypeDictionary;
 import com.weirddev.testme.intellij.template.context.*;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,13 +18,32 @@ import java.util.Map;
 public class TestBuilderImpl implements TestBuilder {
     
     private final LangTestBuilderFactory langTestBuilderFactory;
+    @Nullable
+    private final MethodsPreRenderer methodsPreRenderer;
 
     public TestBuilderImpl(Language language, Module srcModule, TypeDictionary typeDictionary, FileTemplateConfig fileTemplateConfig, JavaVersion javaVersion) {
         langTestBuilderFactory = new LangTestBuilderFactory(language, srcModule, fileTemplateConfig,typeDictionary, javaVersion);
+        methodsPreRenderer = fileTemplateConfig.isPreRenderMethods() ? new MethodsPreRenderer() : null;
+    }
+
+    /**
+     * @param testedMethods methods expected to be tested, which params and expected results are rendered in a batch
+     */
+    public void setTestedMethods(List<Method> testedMethods) {
+        if (methodsPreRenderer != null) {
+            methodsPreRenderer.setTestedMethods(testedMethods);
+        }
     }
 
     @Override
     public String renderMethodParams(Method method, Map<String, String> typesOverrides, Map<String, String> defaultTypeValues) throws Exception {
+        if (methodsPreRenderer != null) {
+            return methodsPreRenderer.renderMethodParams(method, typesOverrides, defaultTypeValues, (testedMethod, type, name) -> doRenderMethodParams(testedMethod, typesOverrides, defaultTypeValues));
+        }
+        return doRenderMethodParams(method, typesOverrides, defaultTypeValues);
+    }
+
+    private String doRenderMethodParams(Method method, Map<String, String> typesOverrides, Map<String, String> defaultTypeValues) throws Exception {
         return langTestBuilderFactory.createTestBuilder(method, ParamRole.Input, defaultTypeValues, typesOverrides).renderJavaCallParams(method.getMethodParams());
     }
 
@@ -51,6 +72,13 @@ public class TestBuilderImpl implements TestBuilder {
 
     @Override
     public String renderReturnParam(Method testedMethod, Type type, String defaultName, Map<String, String> typesOverrides, Map<String, String> defaultTypeValues) throws Exception {
+        if (methodsPreRenderer != null) {
+            return methodsPreRenderer.renderReturnParam(testedMethod, type, defaultName, typesOverrides, defaultTypeValues, (method, returnType, name) -> doRenderReturnParam(method, returnType, name, typesOverrides, defaultTypeValues));
+        }
+        return doRenderReturnParam(testedMethod, type, defaultName, typesOverrides, defaultTypeValues);
+    }
+
+    private String doRenderReturnParam(Method testedMethod, Type type, String defaultName, Map<String, String> typesOverrides, Map<String, String> defaultTypeValues) throws Exception {
         return langTestBuilderFactory.createTestBuilder(testedMethod, ParamRole.Output, defaultTypeValues, typesOverrides).renderJavaCallParam(type,defaultName);
     }
     @Override
@@ -7,6 +7,7 @@ import com.intellij.ide.fileTemplates.impl.DefaultTemplate;
 import com.intellij.ide.fileTemplates.impl.FileTemplateBase;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtilRt;
 import com.intellij.util.io.PathKt;
@@ -28,12 +29,13 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * @author Eugene Zhuravlev
  */
-public class FTManager {
+public class FTManager implements ModificationTracker {
   private static final Logger LOG = Logger.getInstance("#FTManager");
   private static final String DEFAULT_TEMPLATE_EXTENSION = "ft";
   static final String TEMPLATE_EXTENSION_SUFFIX = "." + DEFAULT_TEMPLATE_EXTENSION;
@@ -48,6 +50,7 @@ public class FTManager {
   private volatile List<FileTemplateBase> mySortedTemplates;
   private final List<DefaultTemplate> myDefaultTemplates = new ArrayList<>();
   private final TemplateRegistry templateRegistry = new TemplateRegistry(); //todo consider making this a service
+  private final AtomicLong myModificationCount = new AtomicLong();
 
   FTManager(@NotNull @NonNls String name, @NotNull @NonNls Path defaultTemplatesDirName) {
     this(name, defaultTemplatesDirName, false);
@@ -74,6 +77,23 @@ public class FTManager {
     return myName;
   }
 
+  /**
+   * @return count incremented whenever templates are added, loaded, replaced or restored to defaults. shared with the original manager when this one is a copy
+   */
+  @Override
+  public long getModificationCount() {
+    return myOriginal != null ? myOriginal.getModificationCount() : myModificationCount.get();
+  }
+
+  private void incModificationCount() {
+    if (myOriginal != null) {
+      myOriginal.incModificationCount();
+    }
+    else {
+      myModificationCount.incrementAndGet();
+    }
+  }
+
   @NotNull
   Collection<FileTemplateBase> getAllTemplates(boolean includeDisabled) {
     List<FileTemplateBase> sorted = mySortedTemplates;
@@ -156,6 +176,7 @@ public class FTManager {
       template = new CustomFileTemplate(name, extension);
       getTemplates().put(qName, template);
       mySortedTemplates = null;
+      incModificationCount();
     }
     return template;
   }
@@ -168,6 +189,7 @@ public class FTManager {
       _template.setReformatCode(template.isReformatCode());
       _template.setLiveTemplateEnabled(template.isLiveTemplateEnabled());
     }
+    incModificationCount();
     saveTemplates(true);
   }
 
@@ -184,6 +206,7 @@ public class FTManager {
     for (DefaultTemplate template : templates) {
       createAndStoreBundledTemplate(template);
     }
+    incModificationCount();
   }
 
   @NotNull
@@ -255,6 +278,7 @@ public class FTManager {
     }
     try {
       addTemplate(templateQName, extension).setText(PathKt.readText(file));
+      incModificationCount();
     }
     catch (IOException e) {
       LOG.error(e);
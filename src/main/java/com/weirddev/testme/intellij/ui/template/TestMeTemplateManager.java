@@ -352,6 +352,13 @@ public class TestMeTemplateManager extends FileTemplateManager implements Persis
     return allTemplates.toArray(FileTemplate.EMPTY_ARRAY);
   }
 
+  /**
+   * @return modification count of included templates (patterns) of the current scheme
+   */
+  public long getPatternsModificationCount() {
+    return getSettings().getPatternsManager().getModificationCount();
+  }
+
   @Override
   public FileTemplate getPattern(@NotNull String name) {
     return getSettings().getPatternsManager().findTemplateByName(name);
@@ -0,0 +1,133 @@
+package com.weirddev.testme.intellij.ui.toolwindow;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetrics;
+import com.weirddev.testme.intellij.generator.metrics.GenerationMetricsRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool window listing per phase timings of the last test generations in the project
+ */
+public class GenerationMetricsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        final GenerationMetricsRegistry registry = GenerationMetricsRegistry.getInstance(project);
+        final ListTableModel<GenerationMetrics> tableModel = new ListTableModel<>(createColumns(), registry.getHistory());
+        final TableView<GenerationMetrics> table = new TableView<>(tableModel);
+        final SimpleToolWindowPanel panel = new SimpleToolWindowPanel(false, true);
+        panel.setContent(ScrollPaneFactory.createScrollPane(table));
+        final DefaultActionGroup actionGroup = new DefaultActionGroup();
+        actionGroup.add(new DumbAwareAction("Clear", "Clear generation metrics", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                registry.clear();
+                tableModel.setItems(registry.getHistory());
+            }
+        });
+        panel.setToolbar(ActionManager.getInstance().createActionToolbar("TestMePerformance", actionGroup, false).getComponent());
+        final Content content = ContentFactory.SERVICE.getInstance().createContent(panel, "", false);
+        toolWindow.getContentManager().addContent(content);
+        project.getMessageBus().connect(content).subscribe(GenerationMetricsRegistry.TOPIC, generationMetrics ->
+                ApplicationManager.getApplication().invokeLater(() -> tableModel.setItems(registry.getHistory()), project.getDisposed()));
+    }
+
+    @NotNull
+    private static ColumnInfo[] createColumns() {
+        final List<ColumnInfo> columns = new ArrayList<>();
+        columns.add(new ColumnInfo<GenerationMetrics, String>("Time") {
+            @Nullable
+            @Override
+            public String valueOf(GenerationMetrics generationMetrics) {
+                return new SimpleDateFormat("HH:mm:ss").format(new Date(generationMetrics.getCompletionTime()));
+            }
+        });
+        columns.add(new ColumnInfo<GenerationMetrics, String>("Test Class") {
+            @Nullable
+            @Override
+            public String valueOf(GenerationMetrics generationMetrics) {
+                return generationMetrics.getTestClass();
+            }
+        });
+        columns.add(new ColumnInfo<GenerationMetrics, String>("Template") {
+            @Nullable
+            @Override
+            public String valueOf(GenerationMetrics generationMetrics) {
+                return generationMetrics.getTemplateName();
+            }
+        });
+        columns.add(new MillisColumnInfo("Total (ms)") {
+            @Override
+            long nanosOf(GenerationMetrics generationMetrics) {
+                return generationMetrics.getTotalNanos();
+            }
+        });
+        for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+            columns.add(new MillisColumnInfo(phase.getDisplayName() + " (ms)") {
+                @Override
+                long nanosOf(GenerationMetrics generationMetrics) {
+                    return generationMetrics.getNanos(phase);
+                }
+            });
+        }
+        columns.add(new ColumnInfo<GenerationMetrics, Integer>("Types") {
+            @Nullable
+            @Override
+            public Integer valueOf(GenerationMetrics generationMetrics) {
+                return generationMetrics.getResolvedTypesCount();
+            }
+        });
+        columns.add(new ColumnInfo<GenerationMetrics, Integer>("Cached Types") {
+            @Nullable
+            @Override
+            public Integer valueOf(GenerationMetrics generationMetrics) {
+                return generationMetrics.getCachedTypesCount();
+            }
+        });
+        columns.add(new ColumnInfo<GenerationMetrics, Integer>("Methods") {
+            @Nullable
+            @Override
+            public Integer valueOf(GenerationMetrics generationMetrics) {
+                return generationMetrics.getResolvedMethodsCount();
+            }
+        });
+        return columns.toArray(new ColumnInfo[0]);
+    }
+
+    private abstract static class MillisColumnInfo extends ColumnInfo<GenerationMetrics, Long> {
+        MillisColumnInfo(String name) {
+            super(name);
+        }
+
+        abstract long nanosOf(GenerationMetrics generationMetrics);
+
+        @Nullable
+        @Override
+        public Long valueOf(GenerationMetrics generationMetrics) {
+            return TimeUnit.NANOSECONDS.toMillis(nanosOf(generationMetrics));
+        }
+    }
+}
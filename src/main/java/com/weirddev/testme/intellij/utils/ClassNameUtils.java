@@ -2,9 +2,6 @@ package com.weirddev.testme.intellij.utils;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Date: 15/11/2016
  *
@@ -12,8 +9,6 @@ import java.util.regex.Pattern;
  */
 public class ClassNameUtils {
 
-    private static final Pattern GENERICS_PATTERN = Pattern.compile("(<.*>)");
-
     public static boolean isArray(String canonicalName) {
         return canonicalName.endsWith("[]");
     }
@@ -67,13 +62,18 @@ public class ClassNameUtils {
     }
 
     public static final String stripGenerics(String canonicalName) {
-        return canonicalName.replaceFirst("<.*", "");
+        final int genericsStart = canonicalName.indexOf('<');
+        return genericsStart < 0 ? canonicalName : canonicalName.substring(0, genericsStart);
     }
 
+    /**
+     * @return generic type params including the enclosing angle brackets. empty if none
+     */
     public static final String extractGenerics(String canonicalName) {
-        Matcher matcher = GENERICS_PATTERN.matcher(canonicalName);
-        if (matcher.find()) {
-            return matcher.group(1);
+        final int genericsStart = canonicalName.indexOf('<');
+        final int genericsEnd = canonicalName.lastIndexOf('>');
+        if (genericsStart >= 0 && genericsEnd > genericsStart) {
+            return canonicalName.substring(genericsStart, genericsEnd + 1);
         } else {
             return "";
         }
@@ -0,0 +1,152 @@
+package com.weirddev.testme.intellij.utils;
+
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.weirddev.testme.intellij.resolvers.MethodBodyAnalysis;
+import com.weirddev.testme.intellij.resolvers.to.MethodCallArg;
+import com.weirddev.testme.intellij.resolvers.to.ResolvedMethodCall;
+import com.weirddev.testme.intellij.resolvers.to.ResolvedReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analyzes a java method implementation in a single traversal, collecting call expressions, reference expressions and method reference expressions.
+ * Collected elements are resolved on first request, so methods introspected only for their params do not resolve calls and references they include.
+ */
+public class JavaMethodBodyAnalyzer implements MethodBodyAnalysis {
+    private final List<PsiCallExpression> callExpressions = new ArrayList<>();
+    private final List<PsiReferenceExpression> referenceExpressions = new ArrayList<>();
+    private final List<PsiMethodReferenceExpression> methodReferenceExpressions = new ArrayList<>();
+    private List<ResolvedMethodCall> methodCalls;
+    private List<ResolvedReference> references;
+    private List<PsiMethod> methodReferences;
+
+    public JavaMethodBodyAnalyzer(@NotNull PsiElement psiMethod) {
+        psiMethod.acceptChildren(new JavaRecursiveElementVisitor() {
+            @Override
+            public void visitCallExpression(PsiCallExpression expression) {
+                callExpressions.add(expression);
+                super.visitCallExpression(expression);
+            }
+
+            @Override
+            public void visitReferenceExpression(PsiReferenceExpression expression) {
+                referenceExpressions.add(expression);
+                super.visitReferenceExpression(expression);
+            }
+
+            @Override
+            public void visitMethodReferenceExpression(PsiMethodReferenceExpression expression) {
+                methodReferenceExpressions.add(expression);
+                super.visitMethodReferenceExpression(expression);
+            }
+        });
+    }
+
+    @NotNull
+    @Override
+    public synchronized List<ResolvedMethodCall> findMethodCalls() {
+        if (methodCalls == null) {
+            methodCalls = new ArrayList<>();
+            for (PsiCallExpression psiMethodCallExpression : callExpressions) {
+                final PsiMethod psiMethodResolved = psiMethodCallExpression.resolveMethod();
+                if (psiMethodResolved != null) {
+                    final PsiExpressionList argumentList = psiMethodCallExpression.getArgumentList();
+                    final ArrayList<MethodCallArg> methodCallArguments = new ArrayList<>();
+                    if (argumentList != null) {
+                        for (PsiElement psiElement : argumentList.getChildren()) {
+                            if (psiElement instanceof PsiJavaToken || psiElement instanceof PsiWhiteSpace ) {
+                                continue;
+                            }
+                            methodCallArguments.add(new MethodCallArg(psiElement.getText()==null?"":psiElement.getText().trim()));
+                        }
+                    }
+                    methodCalls.add(new ResolvedMethodCall(psiMethodResolved,methodCallArguments));
+                }
+            }
+        }
+        return methodCalls;
+    }
+
+    @NotNull
+    @Override
+    public synchronized List<ResolvedReference> findReferences() {
+        if (references == null) {
+            references = new ArrayList<>();
+            for (PsiReferenceExpression psiReferenceExpression : referenceExpressions) {
+                final PsiType refType = psiReferenceExpression.getType();
+                final PsiElement psiElement = psiReferenceExpression.resolve();
+                if (refType != null && !(psiElement instanceof PsiMethod)) {
+                    final PsiType psiOwnerType = psiReferenceExpression.getLastChild()==null?null: resolveOwnerType(psiReferenceExpression.getLastChild());
+                    if (psiOwnerType != null) {
+                        references.add(new ResolvedReference(psiReferenceExpression.getReferenceName() , refType, psiOwnerType));
+                    }
+                }
+            }
+        }
+        return references;
+    }
+
+    @NotNull
+    @Override
+    public synchronized List<PsiMethod> findMethodReferences() {
+        if (methodReferences == null) {
+            methodReferences = new ArrayList<>();
+            for (PsiMethodReferenceExpression psiMethodReferenceExpression : methodReferenceExpressions) {
+                final PsiElement resolved = psiMethodReferenceExpression.resolve();
+                if (resolved instanceof PsiMethod) {
+                    methodReferences.add(((PsiMethod) resolved));
+                }
+            }
+        }
+        return methodReferences;
+    }
+
+    /**
+     * only references named as psiParameter are resolved
+     */
+    @NotNull
+    @Override
+    public List<PsiField> findFieldsAssignedFrom(@NotNull PsiParameter psiParameter) {
+        final List<PsiField> fields = new ArrayList<>();
+        final String parameterName = psiParameter.getName();
+        for (PsiReferenceExpression psiReferenceExpression : referenceExpressions) {
+            if (parameterName.equals(psiReferenceExpression.getReferenceName()) && !PsiUtil.isOnAssignmentLeftHand(psiReferenceExpression) && psiReferenceExpression.isReferenceTo(psiParameter)) {
+                final PsiField psiField = resolveLeftHandExpressionAsField(psiReferenceExpression);
+                if (psiField != null) {
+                    fields.add(psiField);
+                }
+            }
+        }
+        return fields;
+    }
+
+    @Nullable
+    private static PsiField resolveLeftHandExpressionAsField(@NotNull PsiExpression expr) {
+        PsiElement parent = PsiTreeUtil.skipParentsOfType(expr, PsiParenthesizedExpression.class);
+        if (!(parent instanceof PsiAssignmentExpression)) {
+            return null;
+        }
+        final PsiAssignmentExpression psiAssignmentExpression = (PsiAssignmentExpression) parent;
+        final PsiReference reference = psiAssignmentExpression.getLExpression().getReference();
+        final PsiElement element = reference != null ? reference.resolve() : null;
+        return element == null || !(element instanceof PsiField) ? null : (PsiField)element ;
+    }
+
+    private static PsiType resolveOwnerType(PsiElement psiElement) {
+        boolean dotAppeared = false;
+        for(PsiElement prevSibling  = psiElement.getPrevSibling();prevSibling!=null;prevSibling=prevSibling.getPrevSibling()) {
+            if(".".equals(prevSibling.getText())) {
+                dotAppeared = true;
+            }
+            else if(dotAppeared && prevSibling instanceof PsiExpression) {
+                return ((PsiExpression) prevSibling).getType();
+            }
+        }
+        return null;
+    }
+}
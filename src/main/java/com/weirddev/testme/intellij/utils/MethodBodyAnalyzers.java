@@ -0,0 +1,21 @@
+package com.weirddev.testme.intellij.utils;
+
+import com.intellij.psi.PsiMethod;
+import com.weirddev.testme.intellij.common.utils.LanguageUtils;
+import com.weirddev.testme.intellij.groovy.resolvers.GroovyMethodBodyAnalyzer;
+import com.weirddev.testme.intellij.resolvers.MethodBodyAnalysis;
+import org.jetbrains.annotations.NotNull;
+
+public class MethodBodyAnalyzers {
+    /**
+     * @return analysis of psiMethod implementation by the analyzer of its language. scala methods are analyzed as java light methods, their calls are resolved by {@link com.weirddev.testme.intellij.scala.resolvers.ScalaPsiTreeUtils}
+     */
+    @NotNull
+    public static MethodBodyAnalysis analyze(@NotNull PsiMethod psiMethod) {
+        if (LanguageUtils.isGroovy(psiMethod.getLanguage())) {
+            return new GroovyMethodBodyAnalyzer(psiMethod);
+        } else {
+            return new JavaMethodBodyAnalyzer(psiMethod);
+        }
+    }
+}
@@ -30,6 +30,10 @@ public class TestSubjectResolverUtils {
         return findTestableElement(selectedElement)!=null;
     }
 
+    public static boolean isValidForTesting(@NotNull PsiClass psiClass) {
+        return canBeTested(psiClass);
+    }
+
     private static PsiElement findTestableElement(PsiElement selectedElement) {
         if (selectedElement == null) return null;
         else if (canBeTested(selectedElement)) {
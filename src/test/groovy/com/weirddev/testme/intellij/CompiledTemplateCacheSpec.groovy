@@ -0,0 +1,38 @@
+package com.weirddev.testme.intellij
+
+import org.apache.velocity.runtime.parser.node.SimpleNode
+import spock.lang.*
+
+class CompiledTemplateCacheSpec extends Specification {
+
+    def "compiled template is reused only for the same template name and content"() {
+        given:
+        def cache = new CompiledTemplateCache(CompiledTemplateCache.DEFAULT_MAX_SIZE)
+        def compiledTemplate = new SimpleNode(0)
+        cache.put("TestMe macros.java.ft", '#macro(foo)bar#end', compiledTemplate)
+
+        expect:
+        cache.get("TestMe macros.java.ft", '#macro(foo)bar#end').is(compiledTemplate)
+        cache.get("TestMe macros.java.ft", '#macro(foo)baz#end') == null
+        cache.get("TestMe common macros.java.ft", '#macro(foo)bar#end') == null
+        cache.hitsCount == 1
+        cache.missesCount == 2
+    }
+
+    def "least recently used compiled templates are evicted"() {
+        given:
+        def cache = new CompiledTemplateCache(2)
+
+        when:
+        cache.put("", "a", new SimpleNode(0))
+        cache.put("", "b", new SimpleNode(0))
+        cache.get("", "a")
+        cache.put("", "c", new SimpleNode(0))
+
+        then:
+        cache.size() == 2
+        cache.get("", "a") != null
+        cache.get("", "b") == null
+        cache.get("", "c") != null
+    }
+}
@@ -0,0 +1,30 @@
+package com.weirddev.testme.intellij.common.reflection
+
+import spock.lang.Specification
+
+class ReflectiveAccessSpec extends Specification {
+
+    def "classes are resolved once, including missing ones"() {
+        expect:
+        ReflectiveAccess.findClass('java.lang.String') == String
+        ReflectiveAccess.findClass('com.example.NoSuchClass') == null
+        ReflectiveAccess.findClass('com.example.NoSuchClass') == null
+    }
+
+    def "method handles are resolved once per owner class and signature"() {
+        expect:
+        ReflectiveAccess.findDeclaredNoArgMethod(String, String, 'trim').is(ReflectiveAccess.findDeclaredNoArgMethod(String, String, 'trim'))
+        ReflectiveAccess.findPublicMethod(String, 'substring', int).is(ReflectiveAccess.findPublicMethod(String, 'substring', int))
+        !ReflectiveAccess.findPublicMethod(String, 'substring', int).is(ReflectiveAccess.findPublicMethod(String, 'substring', int, int))
+        ReflectiveAccess.findPublicMethod(String, 'noSuchMethod') == null
+        ReflectiveAccess.findDeclaredNoArgMethod(String, Thread, null) == null
+    }
+
+    def "methods are invoked through cached handles"() {
+        expect:
+        MethodReflectionUtils.getReturnTypeReflectively(' a ', String, String, 'trim') == 'a'
+        MethodReflectionUtils.getReturnTypeReflectively('ignored owner', Thread, Thread, 'currentThread') == Thread.currentThread()
+        MethodReflectionUtils.invokeMethodReflectivelyWithFallback('abc', Integer, 'noSuchMethod', 'length') == 3
+        MethodReflectionUtils.invokeMethodReflectivelyWithFallback('abc', Integer, 'noSuchMethod', null) == null
+    }
+}
@@ -0,0 +1,43 @@
+package com.weirddev.testme.intellij.generator
+
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiElement
+import spock.lang.Specification
+
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class GeneratedCodePostProcessorSpec extends Specification {
+
+    def "ranges separated by whitespace only are joined"() {
+        given:
+        def text = "class A {\n    int a;\n\n    void b() {}\n    void c() {}\n}"
+        def field = element(text, "int a;")
+        def method = element(text, "void b() {}")
+        def otherMethod = element(text, "void c() {}")
+
+        expect:
+        GeneratedCodePostProcessor.joinAdjacent(text, [otherMethod, field, method]) == [new TextRange(text.indexOf("int a;"), text.indexOf("void c() {}") + "void c() {}".length())]
+    }
+
+    def "ranges separated by code are kept apart and sorted"() {
+        given:
+        def text = "class A {\n    int a;\n    void existing() {}\n    void b() {}\n}"
+        def field = element(text, "int a;")
+        def method = element(text, "void b() {}")
+
+        expect:
+        GeneratedCodePostProcessor.joinAdjacent(text, [method, field]) == [range(text, "int a;"), range(text, "void b() {}")]
+    }
+
+    private static PsiElement element(String text, String elementText) {
+        def psiElement = mock(PsiElement)
+        when(psiElement.getTextRange()).thenReturn(range(text, elementText))
+        psiElement
+    }
+
+    private static TextRange range(String text, String elementText) {
+        def startOffset = text.indexOf(elementText)
+        new TextRange(startOffset, startOffset + elementText.length())
+    }
+}
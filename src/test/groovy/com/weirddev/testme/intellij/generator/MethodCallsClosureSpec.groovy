@@ -0,0 +1,249 @@
+package com.weirddev.testme.intellij.generator
+
+import com.weirddev.testme.intellij.template.FileTemplateConfig
+import com.weirddev.testme.intellij.template.context.Method
+import com.weirddev.testme.intellij.template.context.MethodCall
+import com.weirddev.testme.intellij.template.context.MethodCallArgument
+import com.weirddev.testme.intellij.template.context.Type
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class MethodCallsClosureSpec extends Specification {
+
+    def "method calls of same owner methods are propagated transitively"() {
+        given:
+        def external = method("com.example.Dep.fetch()", "com.example.Dep")
+        def c = method("com.example.Foo.c()", "com.example.Foo", [external])
+        def b = method("com.example.Foo.b()", "com.example.Foo", [c])
+        def a = method("com.example.Foo.a()", "com.example.Foo", [b])
+        def other = method("com.example.Bar.d()", "com.example.Bar", [a])
+
+        when:
+        def methodCalls = MethodCallsClosure.resolve([a, b, c, other], FileTemplateConfig.DEFAULT_MAX_RECURSION_DEPTH)
+
+        then:
+        calledIds(methodCalls, a) == ["com.example.Foo.b()", "com.example.Foo.c()", "com.example.Dep.fetch()"] as Set
+        calledIds(methodCalls, b) == ["com.example.Foo.c()", "com.example.Dep.fetch()"] as Set
+        calledIds(methodCalls, other) == ["com.example.Foo.a()"] as Set
+    }
+
+    def "shallow called methods are replaced by resolved methods of the same id"() {
+        given:
+        def b = method("com.example.Foo.b()", "com.example.Foo")
+        def shallowB = method("com.example.Foo.b()", "com.example.Foo")
+        def a = method("com.example.Foo.a()", "com.example.Foo", [shallowB])
+
+        when:
+        def methodCalls = MethodCallsClosure.resolve([a, b], FileTemplateConfig.DEFAULT_MAX_RECURSION_DEPTH)
+
+        then:
+        methodCalls[a]*.method.any { it.is(b) }
+    }
+
+    def "direct method calls of resolved methods are kept as is"() {
+        given:
+        def external = method("com.example.Dep.fetch()", "com.example.Dep")
+        def b = method("com.example.Foo.b()", "com.example.Foo", [external])
+        def a = method("com.example.Foo.a()", "com.example.Foo", [b])
+
+        when:
+        def methodCalls = MethodCallsClosure.resolve([a, b], FileTemplateConfig.DEFAULT_MAX_RECURSION_DEPTH)
+
+        then:
+        calledIds(methodCalls, a) == ["com.example.Foo.b()", "com.example.Dep.fetch()"] as Set
+        a.directMethodCalls*.method*.methodId as Set == ["com.example.Foo.b()"] as Set
+    }
+
+    @Unroll
+    def "method calls are propagated up to max method calls depth #maxMethodCallsDepth"() {
+        given:
+        def external = method("com.example.Dep.fetch()", "com.example.Dep")
+        def d = method("com.example.Foo.d()", "com.example.Foo", [external])
+        def c = method("com.example.Foo.c()", "com.example.Foo", [d])
+        def b = method("com.example.Foo.b()", "com.example.Foo", [c])
+        def a = method("com.example.Foo.a()", "com.example.Foo", [b])
+
+        when:
+        def methodCalls = MethodCallsClosure.resolve([a, b, c, d], maxMethodCallsDepth)
+
+        then:
+        calledIds(methodCalls, a) == expectedCalledByA as Set
+        calledIds(methodCalls, d) == ["com.example.Dep.fetch()"] as Set
+
+        where:
+        maxMethodCallsDepth | expectedCalledByA
+        0                   | ["com.example.Foo.b()"]
+        1                   | ["com.example.Foo.b()", "com.example.Foo.c()"]
+        2                   | ["com.example.Foo.b()", "com.example.Foo.c()", "com.example.Foo.d()"]
+        3                   | ["com.example.Foo.b()", "com.example.Foo.c()", "com.example.Foo.d()", "com.example.Dep.fetch()"]
+        100                 | ["com.example.Foo.b()", "com.example.Foo.c()", "com.example.Foo.d()", "com.example.Dep.fetch()"]
+    }
+
+    @Unroll
+    def "method calls of cyclic same owner methods are propagated up to max method calls depth #maxMethodCallsDepth"() {
+        given:
+        def external = method("com.example.Dep.fetch()", "com.example.Dep")
+        def shallowA = method("com.example.Foo.a()", "com.example.Foo")
+        def c = method("com.example.Foo.c()", "com.example.Foo", [shallowA, external])
+        def b = method("com.example.Foo.b()", "com.example.Foo", [c])
+        def a = method("com.example.Foo.a()", "com.example.Foo", [b])
+
+        when:
+        def methodCalls = MethodCallsClosure.resolve([a, b, c], maxMethodCallsDepth)
+
+        then:
+        calledIds(methodCalls, a) == expectedCalledByA as Set
+        calledIds(methodCalls, c) == expectedCalledByC as Set
+
+        where:
+        maxMethodCallsDepth | expectedCalledByA                                                                          | expectedCalledByC
+        1                   | ["com.example.Foo.b()", "com.example.Foo.c()"]                                             | ["com.example.Foo.a()", "com.example.Foo.b()", "com.example.Dep.fetch()"]
+        2                   | ["com.example.Foo.b()", "com.example.Foo.c()", "com.example.Foo.a()", "com.example.Dep.fetch()"] | ["com.example.Foo.a()", "com.example.Foo.b()", "com.example.Foo.c()", "com.example.Dep.fetch()"]
+        100                 | ["com.example.Foo.b()", "com.example.Foo.c()", "com.example.Foo.a()", "com.example.Dep.fetch()"] | ["com.example.Foo.a()", "com.example.Foo.b()", "com.example.Foo.c()", "com.example.Dep.fetch()"]
+    }
+
+    def "shallow called methods are replaced by resolved methods of tested methods return types"() {
+        given:
+        def external = method("com.example.Dep.fetch()", "com.example.Dep")
+        def built = method("com.example.Bar.build()", "com.example.Bar", [external])
+        def shallowBuilt = method("com.example.Bar.build()", "com.example.Bar")
+        def builder = method("com.example.Foo.builder()", "com.example.Foo", [], [built])
+        def a = method("com.example.Foo.a()", "com.example.Foo", [shallowBuilt])
+
+        when:
+        def methodCalls = MethodCallsClosure.resolve([a, builder], FileTemplateConfig.DEFAULT_MAX_RECURSION_DEPTH)
+
+        then:
+        methodCalls[a]*.method.any { it.is(built) }
+        calledIds(methodCalls, a) == ["com.example.Bar.build()"] as Set
+    }
+
+    @Unroll
+    def "resolves the same method calls as the former iterative implementation once calls are fully propagated. seed=#seed, unbounded=#unbounded"() {
+        given:
+        def expectedGraph = randomGraph(new Random(seed))
+        def actualGraph = randomGraph(new Random(seed))
+
+        when:
+        def expectedMethodCalls = resolveIteratively(expectedGraph, expectedGraph.size())
+        def actualMethodCalls = MethodCallsClosure.resolve(actualGraph, unbounded ? Integer.MAX_VALUE : actualGraph.size())
+
+        then:
+        describe(actualGraph, actualMethodCalls) == describe(expectedGraph, expectedMethodCalls)
+        isCallingResolvedMethods(actualGraph, actualMethodCalls)
+
+        where:
+        [seed, unbounded] << [(1..40), [false, true]].combinations()
+    }
+
+    private List<Method> randomGraph(Random random) {
+        def owners = ["com.example.Foo", "com.example.FooBase", "com.example.Dep"]
+        def methods = (0..<random.nextInt(30) + 2).collect { i ->
+            def owner = owners[random.nextInt(owners.size())]
+            method("${owner}.m${i}()".toString(), owner)
+        }
+        def unknownCallee = method("com.example.Unknown.call()", "com.example.Unknown")
+        methods.each { caller ->
+            random.nextInt(4).times {
+                def args = random.nextBoolean() ? [] : [new MethodCallArgument("arg" + random.nextInt(2))]
+                def roll = random.nextInt(10)
+                Method callee
+                if (roll < 6) {
+                    callee = methods[random.nextInt(methods.size())]
+                } else if (roll < 9) {
+                    def original = methods[random.nextInt(methods.size())]
+                    callee = method(original.methodId, original.ownerClassCanonicalType)
+                } else {
+                    callee = unknownCallee
+                }
+                caller.directMethodCalls.add(new MethodCall(callee, args))
+            }
+        }
+        return methods
+    }
+
+    /**
+     * method calls described by called method id and arguments
+     */
+    private static List<String> describe(List<Method> methods, Map<Method, Set<MethodCall>> methodCalls) {
+        methods.collect { method ->
+            method.methodId + " -> " + methodCalls[method].collect { it.method.methodId + it.methodCallArguments*.text }.toSorted().unique()
+        }
+    }
+
+    /**
+     * @return true if calls to any of the given methods refer to the resolved method objects rather than shallow ones. Method mocks are equal by identity, so shallow duplicates are ignored
+     */
+    private static boolean isCallingResolvedMethods(List<Method> methods, Map<Method, Set<MethodCall>> resolvedMethodCalls) {
+        methods.every { method ->
+            resolvedMethodCalls[method].groupBy { it.method.methodId + it.methodCallArguments*.text }.every { key, methodCalls ->
+                def resolvedMethod = methods.find { it.methodId == methodCalls[0].method.methodId }
+                resolvedMethod == null || methodCalls.any { it.method.is(resolvedMethod) }
+            }
+        }
+    }
+
+    /**
+     * the former implementation of TestTemplateContextBuilder.resolveInternalReferences, kept as reference. resolves method calls into a map rather than updating the methods
+     */
+    private static Map<Method, Set<MethodCall>> resolveIteratively(List<Method> methods, int maxMethodCallsDepth) {
+        Map<Method, Set<MethodCall>> resolvedMethodCalls = new IdentityHashMap<>()
+        methods.each { resolvedMethodCalls[it] = new HashSet<MethodCall>(it.directMethodCalls) }
+        for (int i = 0; i < maxMethodCallsDepth; i++) {
+            for (Method method : methods) {
+                def calledMethodsByMethodCalls = new HashSet<MethodCall>()
+                for (MethodCall methodCall : resolvedMethodCalls[method]) {
+                    def calledMethodFound = find(methods, methodCall.method.methodId)
+                    if (calledMethodFound != null) {
+                        def methodCallFound = methodCall.method.is(calledMethodFound) ? methodCall : new MethodCall(calledMethodFound, methodCall.methodCallArguments)
+                        calledMethodsByMethodCalls.add(methodCallFound)
+                        if (method.ownerClassCanonicalType != null && method.ownerClassCanonicalType == calledMethodFound.ownerClassCanonicalType) {
+                            calledMethodsByMethodCalls.addAll(resolvedMethodCalls.get(calledMethodFound) ?: calledMethodFound.directMethodCalls)
+                        }
+                    }
+                }
+                resolvedMethodCalls[method].removeAll(calledMethodsByMethodCalls)
+                resolvedMethodCalls[method].addAll(calledMethodsByMethodCalls)
+            }
+        }
+        return resolvedMethodCalls
+    }
+
+    private static Method find(List<Method> methods, String methodId) {
+        for (Method method : methods) {
+            if (method.methodId == methodId) {
+                return method
+            }
+            def returnTypeMethod = method.returnType?.methods?.find { it.methodId == methodId }
+            if (returnTypeMethod != null) {
+                return returnTypeMethod
+            }
+        }
+        return null
+    }
+
+    /**
+     * @return ids of methods called by method. its direct method calls if its method calls were not resolved
+     */
+    private static Set<String> calledIds(Map<Method, Set<MethodCall>> methodCalls, Method method) {
+        (methodCalls[method] ?: method.directMethodCalls)*.method*.methodId as Set
+    }
+
+    private static Method method(String methodId, String owner, List<Method> callees = [], List<Method> returnTypeMethods = null) {
+        def method = mock(Method)
+        if (returnTypeMethods != null) {
+            def returnType = mock(Type)
+            when(returnType.getMethods()).thenReturn(returnTypeMethods)
+            when(method.getReturnType()).thenReturn(returnType)
+        }
+        def methodCalls = new HashSet<MethodCall>()
+        callees.each { methodCalls.add(new MethodCall(it, [])) }
+        when(method.getMethodId()).thenReturn(methodId)
+        when(method.getOwnerClassCanonicalType()).thenReturn(owner)
+        when(method.getDirectMethodCalls()).thenReturn(methodCalls)
+        return method
+    }
+}
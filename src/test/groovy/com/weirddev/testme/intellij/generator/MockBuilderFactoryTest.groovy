@@ -1,6 +1,7 @@
 package com.weirddev.testme.intellij.generator
 
 import com.intellij.openapi.diagnostic.Logger
+import com.weirddev.testme.intellij.template.context.TestClasspathProfile
 import org.mockito.InjectMocks
 import org.mockito.Mock
 import org.mockito.MockitoAnnotations
@@ -19,11 +20,8 @@ class MockBuilderFactoryTest extends Specification {
 
     @Unroll
     def "resolve Mockito Version where classpathJars=#classpathJars then expect: #expectedResult"() {
-        given:
-        mockBuilderFactory = new MockBuilderFactory()
-
         expect:
-        mockBuilderFactory.resolveMockitoVersion(classpathJars) == expectedResult
+        TestClasspathProfile.resolveMockitoCoreVersion(classpathJars) == expectedResult
 
         where:
         classpathJars                                                         || expectedResult
@@ -0,0 +1,38 @@
+package com.weirddev.testme.intellij.generator.metrics
+
+import com.intellij.openapi.project.Project
+import spock.lang.*
+
+class GenerationMetricsRegistrySpec extends Specification {
+
+    def "history keeps only the most recent generations, most recent first"() {
+        given:
+        def project = Mock(Project) {
+            isDisposed() >> true
+        }
+        def registry = new GenerationMetricsRegistry(project, 2)
+
+        when:
+        registry.add(new GenerationMetrics("FooTest", "JUnit4 & Mockito"))
+        registry.add(new GenerationMetrics("BarTest", "JUnit4 & Mockito"))
+        registry.add(new GenerationMetrics("BazTest", "JUnit4 & Mockito"))
+
+        then:
+        registry.getHistory()*.testClass == ["BazTest", "BarTest"]
+        registry.getHistory().every { it.completionTime > 0 }
+    }
+
+    def "total time excludes nested phases"() {
+        given:
+        def generationMetrics = new GenerationMetrics("FooTest", "JUnit4 & Mockito")
+
+        when:
+        generationMetrics.stop(GenerationMetrics.Phase.CONTEXT_BUILD, System.nanoTime() - 1000)
+        generationMetrics.stop(GenerationMetrics.Phase.TYPE_RESOLUTION, System.nanoTime() - 500)
+        generationMetrics.stop(GenerationMetrics.Phase.TEMPLATE_RENDER, System.nanoTime() - 1000)
+
+        then:
+        generationMetrics.getTotalNanos() == generationMetrics.getNanos(GenerationMetrics.Phase.CONTEXT_BUILD) + generationMetrics.getNanos(GenerationMetrics.Phase.TEMPLATE_RENDER)
+        generationMetrics.getNanos(GenerationMetrics.Phase.REFORMAT) == 0
+    }
+}
@@ -0,0 +1,50 @@
+package com.weirddev.testme.intellij.headless
+
+import spock.lang.*
+
+class GenerateTestsArgsSpec extends Specification {
+
+    def "parses classes to test"() {
+        when:
+        def generateTestsArgs = GenerateTestsArgs.parse(["/work/project", "--template", "JUnit5 & Mockito.java", "--classes", "com.example.Foo, com.example.Bar,", "--report", "report.json"])
+
+        then:
+        generateTestsArgs.projectPath == "/work/project"
+        generateTestsArgs.template == "JUnit5 & Mockito.java"
+        generateTestsArgs.classes == ["com.example.Foo", "com.example.Bar"]
+        generateTestsArgs.gitDiffRange == null
+        generateTestsArgs.reportPath == "report.json"
+    }
+
+    def "parses git diff range"() {
+        when:
+        def generateTestsArgs = GenerateTestsArgs.parse(["--git-diff", "origin/main..HEAD", "--template", "JUnit4 & Mockito.java", "/work/project"])
+
+        then:
+        generateTestsArgs.projectPath == "/work/project"
+        generateTestsArgs.classes.isEmpty()
+        generateTestsArgs.gitDiffRange == "origin/main..HEAD"
+        generateTestsArgs.reportPath == null
+    }
+
+    @Unroll
+    def "rejects invalid arguments #args"() {
+        when:
+        GenerateTestsArgs.parse(args)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        args << [
+                [],
+                ["--template", "JUnit4 & Mockito.java", "--classes", "com.example.Foo"],
+                ["/work/project", "--classes", "com.example.Foo"],
+                ["/work/project", "--template", "JUnit4 & Mockito.java"],
+                ["/work/project", "--template", "JUnit4 & Mockito.java", "--classes", "com.example.Foo", "--git-diff", "HEAD~1"],
+                ["/work/project", "--template", "--classes", "com.example.Foo"],
+                ["/work/project", "/other/project", "--template", "JUnit4 & Mockito.java", "--classes", "com.example.Foo"],
+                ["/work/project", "--template", "JUnit4 & Mockito.java", "--classes", "com.example.Foo", "--verbose"],
+        ]
+    }
+}
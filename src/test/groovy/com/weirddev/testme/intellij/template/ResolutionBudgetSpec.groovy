@@ -0,0 +1,30 @@
+package com.weirddev.testme.intellij.template
+
+import spock.lang.Specification
+
+class ResolutionBudgetSpec extends Specification {
+
+    def "deeper types may use a smaller share of the budget"() {
+        given:
+        def resolutionBudget = new ResolutionBudget(100, 400, 3)
+
+        expect:
+        resolutionBudget.limitAtDepth(100, recursionDepth) == expectedLimit
+        resolutionBudget.allowsType(expectedLimit - 1, recursionDepth)
+        !resolutionBudget.allowsType(expectedLimit, recursionDepth)
+
+        where:
+        recursionDepth | expectedLimit
+        3              | 100
+        2              | 75
+        1              | 50
+        0              | 25
+        -1             | 25
+    }
+
+    def "unlimited budget allows any resolution"() {
+        expect:
+        ResolutionBudget.UNLIMITED.allowsType(Integer.MAX_VALUE - 1, 0)
+        ResolutionBudget.UNLIMITED.allowsMethods(Integer.MAX_VALUE - 1, 0)
+    }
+}
@@ -0,0 +1,51 @@
+package com.weirddev.testme.intellij.template.context
+
+import spock.lang.Specification
+
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class CallGraphIndexSpec extends Specification {
+    /**
+     * symbols of mocked methods. referenced as done by methods, so equal method ids keep the same symbol
+     */
+    private final List<SymbolTable.Symbol> symbols = []
+
+    def "method calls are looked up by method id"() {
+        given:
+        def callee = method("com.example.Dep.fetch()", [] as Set)
+        def otherCallee = method("com.example.Dep.store(java.lang.String)", [] as Set)
+        def caller = method("com.example.Foo.bar()", [new MethodCall(method("com.example.Dep.fetch()", [] as Set), [])] as Set)
+        def callGraphIndex = new CallGraphIndex()
+
+        when:
+        callGraphIndex.indexCallers([caller])
+
+        then:
+        callGraphIndex.isMethodCalled(callee, caller)
+        !callGraphIndex.isMethodCalled(otherCallee, caller)
+        callGraphIndex.size() == 1
+    }
+
+    def "callers not indexed upfront are indexed on first lookup"() {
+        given:
+        def callee = method("com.example.Dep.fetch()", [] as Set)
+        def caller = method("com.example.Foo.baz()", [new MethodCall(callee, [])] as Set)
+        def callGraphIndex = new CallGraphIndex()
+
+        expect:
+        callGraphIndex.isMethodCalled(callee, caller)
+        !callGraphIndex.isMethodCalled(caller, callee)
+        callGraphIndex.size() == 2
+    }
+
+    private Method method(String methodId, Set<MethodCall> methodCalls) {
+        def method = mock(Method)
+        when(method.getMethodId()).thenReturn(methodId)
+        def symbol = SymbolTable.intern(methodId)
+        symbols << symbol
+        when(method.getMethodIdSymbol()).thenReturn(symbol.id)
+        when(method.getMethodCalls()).thenReturn(methodCalls)
+        return method
+    }
+}
@@ -0,0 +1,21 @@
+package com.weirddev.testme.intellij.template.context
+
+import spock.lang.Specification
+
+class SymbolTableSpec extends Specification {
+
+    def "equal names are interned to the same symbol"() {
+        when:
+        def symbol = SymbolTable.intern("java.util.Map<java.lang.String,com.example.foes.Fear>")
+
+        then:
+        symbol.id != SymbolTable.NULL_SYMBOL
+        SymbolTable.intern(new String("java.util.Map<java.lang.String,com.example.foes.Fear>")).is(symbol)
+        SymbolTable.intern("java.util.Map<java.lang.String,com.example.foes.Fire>").id != symbol.id
+    }
+
+    def "null is interned to the null symbol"() {
+        expect:
+        SymbolTable.intern(null).id == SymbolTable.NULL_SYMBOL
+    }
+}
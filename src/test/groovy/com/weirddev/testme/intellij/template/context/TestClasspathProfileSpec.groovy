@@ -0,0 +1,33 @@
+package com.weirddev.testme.intellij.template.context
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class TestClasspathProfileSpec extends Specification {
+
+    def "test frameworks versions are resolved from classpath jar names"() {
+        when:
+        def profile = new TestClasspathProfile(["mockito-core-4.3.1.jar", "junit-4.13.2.jar", "junit-jupiter-api-5.8.2.jar", "testng-7.4.0.jar", "spock-core-2.0-groovy-3.0.jar", "byte-buddy-1.12.7.jar"], true)
+
+        then:
+        profile.mockitoMockMakerInlineOn
+        profile.mockitoCoreVersion == "4.3.1"
+        profile.junit4Version == "4.13.2"
+        profile.junit5Version == "5.8.2"
+        profile.testNgVersion == "7.4.0"
+        profile.spockVersion == "2.0-groovy-3.0"
+    }
+
+    @Unroll
+    def "junit4 version of #classpathJars is #expectedVersion"() {
+        expect:
+        new TestClasspathProfile(classpathJars, false).junit4Version == expectedVersion
+
+        where:
+        classpathJars                                        || expectedVersion
+        []                                                   || null
+        ["junit-jupiter-api-5.8.2.jar"]                      || null
+        ["junit-jupiter-api-5.8.2.jar", "junit-4.12.jar"]    || "4.12"
+        ["c:/path/to/junit-4.12.jar"]                        || "4.12"
+    }
+}
@@ -0,0 +1,28 @@
+package com.weirddev.testme.intellij.template.context
+
+import spock.lang.Specification
+
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class TestSubjectInspectorSpec extends Specification {
+
+    def "methods already tested by the merged test class should not be tested again"() {
+        given:
+        def tested = testableMethod("com.example.Foo#bar()")
+        def added = testableMethod("com.example.Foo#bar(java.lang.String)")
+        def testSubjectInspector = new TestSubjectInspector(true, null, ["com.example.Foo#bar()"] as Set)
+
+        expect:
+        !testSubjectInspector.shouldBeTested(tested)
+        testSubjectInspector.shouldBeTested(added)
+        new TestSubjectInspector(true).shouldBeTested(tested)
+    }
+
+    private Method testableMethod(String methodId) {
+        def method = mock(Method)
+        when(method.getMethodId()).thenReturn(methodId)
+        when(method.isTestable()).thenReturn(true)
+        method
+    }
+}
@@ -0,0 +1,57 @@
+package com.weirddev.testme.intellij.template.context.impl
+
+import com.weirddev.testme.intellij.template.context.Method
+import spock.lang.Specification
+
+import static org.mockito.Mockito.mock
+
+class MethodsPreRendererSpec extends Specification {
+
+    def "method params are rendered once for maps of equal content"() {
+        given:
+        def methodsPreRenderer = new MethodsPreRenderer()
+        def method = mock(Method)
+        def renderCount = 0
+        def renderer = { m, type, name -> "param" + (++renderCount) } as MethodsPreRenderer.Renderer
+
+        when:
+        def rendered = methodsPreRenderer.renderMethodParams(method, [:], ["int": "0"], renderer)
+        def renderedAgain = methodsPreRenderer.renderMethodParams(method, new HashMap<String, String>(), new LinkedHashMap<String, String>(["int": "0"]), renderer)
+        def renderedForOtherDefaults = methodsPreRenderer.renderMethodParams(method, [:], ["int": "1"], renderer)
+
+        then:
+        rendered == "param1"
+        renderedAgain == "param1"
+        renderedForOtherDefaults == "param2"
+    }
+
+    def "return params are kept by rendered type name"() {
+        given:
+        def methodsPreRenderer = new MethodsPreRenderer()
+        def method = mock(Method)
+        def renderer = { m, type, name -> name } as MethodsPreRenderer.Renderer
+
+        expect:
+        methodsPreRenderer.renderReturnParam(method, null, "fetchResponse", [:], [:], renderer) == "fetchResponse"
+        methodsPreRenderer.renderReturnParam(method, null, "storeResponse", [:], [:], renderer) == "storeResponse"
+    }
+
+    def "tested methods rendered without read access are rendered on demand"() {
+        given:
+        def methodsPreRenderer = new MethodsPreRenderer()
+        def method = mock(Method)
+        def otherMethod = mock(Method)
+        methodsPreRenderer.setTestedMethods([method, otherMethod])
+        def renderedMethods = []
+        def renderer = { m, type, name -> renderedMethods << m; "param" + renderedMethods.size() } as MethodsPreRenderer.Renderer
+
+        when:
+        def rendered = methodsPreRenderer.renderMethodParams(method, [:], ["int": "0"], renderer)
+        def renderedOther = methodsPreRenderer.renderMethodParams(otherMethod, [:], ["int": "0"], renderer)
+
+        then:
+        rendered == "param1"
+        renderedOther == "param2"
+        renderedMethods == [method, otherMethod]
+    }
+}
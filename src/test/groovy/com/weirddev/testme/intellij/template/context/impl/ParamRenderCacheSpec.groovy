@@ -0,0 +1,86 @@
+package com.weirddev.testme.intellij.template.context.impl
+
+import com.weirddev.testme.intellij.template.context.Method
+import com.weirddev.testme.intellij.template.context.Param
+import com.weirddev.testme.intellij.template.context.SyntheticParam
+import com.weirddev.testme.intellij.template.context.TestBuilder
+import com.weirddev.testme.intellij.template.context.Type
+import com.weirddev.testme.intellij.utils.Node
+import spock.lang.Specification
+
+class ParamRenderCacheSpec extends Specification {
+    static Type fooType = type("com.example.Foo")
+    static Type barType = type("com.example.Bar")
+    static Type bazType = type("com.example.Baz")
+    Map<String, String> replacementTypes = [:]
+    Map<String, String> defaultTypeValues = [:]
+    ParamRenderCache paramRenderCache = new ParamRenderCache()
+
+    def "params of same type, name, depth and ancestor types share rendered code"() {
+        given:
+        def bar = node(barType, "bar", node(fooType, "foo", root()))
+        def barOfOtherFoo = node(barType, "bar", node(fooType, "otherFoo", root()))
+
+        when:
+        paramRenderCache.put(key(bar), "new com.example.Bar()")
+
+        then:
+        paramRenderCache.get(key(barOfOtherFoo)) == "new com.example.Bar()"
+        paramRenderCache.get(key(bar, TestBuilder.ParamRole.Output)) == null
+    }
+
+    def "params with different context do not share rendered code"() {
+        given:
+        paramRenderCache.put(key(node(barType, "bar", node(fooType, "foo", root()))), "new com.example.Bar()")
+
+        expect:
+        paramRenderCache.get(key(node(barType, "bar", node(bazType, "baz", root())))) == null
+        paramRenderCache.get(key(node(barType, "otherBar", node(fooType, "foo", root())))) == null
+        paramRenderCache.get(key(node(barType, "bar", node(fooType, "foo", node(bazType, "baz", root()))))) == null
+        paramRenderCache.get(paramRenderCache.keyOf(node(barType, "bar", node(fooType, "foo", root())), TestBuilder.ParamRole.Input, ["com.example.Bar": "bar"], replacementTypes)) == null
+        paramRenderCache.get(paramRenderCache.keyOf(node(barType, "bar", node(fooType, "foo", root())), TestBuilder.ParamRole.Input, defaultTypeValues, ["com.example.Bar": "com.example.Baz"])) == null
+    }
+
+    def "params rendered with equal replacement types and default values maps share rendered code"() {
+        given:
+        def bar = node(barType, "bar", node(fooType, "foo", root()))
+        paramRenderCache.put(paramRenderCache.keyOf(bar, TestBuilder.ParamRole.Input, ["java.lang.Integer": "0"], ["java.util.List": "java.util.ArrayList"]), "new com.example.Bar()")
+
+        expect:
+        paramRenderCache.get(paramRenderCache.keyOf(bar, TestBuilder.ParamRole.Input, ["java.lang.Integer": "0"], ["java.util.List": "java.util.ArrayList"])) == "new com.example.Bar()"
+    }
+
+    def "params rendered for a tested method are shared with other tested methods only when rendered regardless of it"() {
+        given:
+        def testedMethod = Mock(Method)
+        def otherTestedMethod = Mock(Method)
+        def bar = key(node(barType, "bar", node(fooType, "foo", root())))
+        def baz = key(node(bazType, "baz", node(fooType, "foo", root())))
+
+        when:
+        paramRenderCache.put(bar, "new com.example.Bar()")
+        paramRenderCache.put(baz.forTestedMethod(testedMethod), "new com.example.Baz()")
+
+        then:
+        paramRenderCache.get(bar) == "new com.example.Bar()"
+        paramRenderCache.get(baz) == null
+        paramRenderCache.get(baz.forTestedMethod(testedMethod)) == "new com.example.Baz()"
+        paramRenderCache.get(baz.forTestedMethod(otherTestedMethod)) == null
+    }
+
+    private ParamRenderCache.Key key(Node<Param> paramNode, TestBuilder.ParamRole paramRole = TestBuilder.ParamRole.Input) {
+        paramRenderCache.keyOf(paramNode, paramRole, defaultTypeValues, replacementTypes)
+    }
+
+    private static Node<Param> root() {
+        new Node<Param>(null, null, 0)
+    }
+
+    private static Node<Param> node(Type type, String name, Node<Param> parent) {
+        new Node<Param>(new SyntheticParam(type, name, false), parent, parent.depth + 1)
+    }
+
+    private static Type type(String canonicalName) {
+        new Type(canonicalName, canonicalName.substring(canonicalName.lastIndexOf('.') + 1), "com.example", false, false, false, false, 0, false, [])
+    }
+}
@@ -0,0 +1,43 @@
+package com.weirddev.testme.intellij.template.context.impl
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ReplacementTemplateSpec extends Specification {
+
+    @Unroll
+    def "compiled replacement #replacement with generics '#generics' renders as replace and split"() {
+        given:
+        def expectedSegments = replacement.replace("<TYPES>", generics).split("<VAL>") as List
+        def replacementTemplate = ReplacementTemplate.of(replacement)
+
+        when:
+        def segments = (0..<replacementTemplate.getSegmentsCount(generics)).collect { i ->
+            def sb = new StringBuilder()
+            replacementTemplate.appendSegment(sb, i, generics)
+            sb.toString()
+        }
+
+        then:
+        segments == expectedSegments
+        replacementTemplate.toTypeName(generics) == replacement.replace("<TYPES>", generics)
+
+        where:
+        replacement                                                                   | generics
+        "new java.util.HashMap<TYPES>(){{put(<VAL>,<VAL>);}}"                         | "<java.lang.String,java.lang.Integer>"
+        "new java.util.TreeMap<TYPES>(new java.util.HashMap<TYPES>(){{put(<VAL>,<VAL>);}})" | ""
+        "java.util.List.of(<VAL>)"                                                    | "<java.lang.String>"
+        "[<VAL>:<VAL>]"                                                               | ""
+        "<VAL>"                                                                       | ""
+        "<VAL><TYPES>"                                                                | ""
+        "<VAL><TYPES>"                                                                | "<java.lang.String>"
+        "java.util.ArrayList"                                                         | "<java.lang.String>"
+        ""                                                                            | ""
+    }
+
+    def "replacement templates are compiled once"() {
+        expect:
+        ReplacementTemplate.of("java.util.Set.of(<VAL>)").is(ReplacementTemplate.of(new String("java.util.Set.of(<VAL>)")))
+        ReplacementTemplate.of(null) == null
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.services.impl;
+
+import com.example.warriers.FooFighter;
+import com.example.foes.Fire;
+
+public class Foo{
+
+    private FooFighter fooFighter;
+
+    public String fight(Fire withFire,String foeName) {
+        return fooFighter.fight(withFire);
+    }
+
+    String fold(String foeName) {
+        System.out.println(foeName+" friends?");
+        return "truce";
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.example.services.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.Before;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.mockito.Mockito.*;
+
+public class FooTest {
+    @Mock
+    com.example.warriers.FooFighter fooFighter;
+    @InjectMocks
+    Foo foo;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testFight() throws Exception {
+        String result = foo.fight(new com.example.foes.Fire(), "foeName");
+        Assert.assertEquals("replaceMeWithExpectedResult", result);
+    }
+
+    private String foldTwice() {
+        return foo.fold("foeName") + foo.fold("foeName");
+    }
+
+    @Test
+    public void testFold() throws Exception {
+        String result = foo.fold("foeName");
+        Assert.assertEquals("replaceMeWithExpectedResult", result);
+    }
+}
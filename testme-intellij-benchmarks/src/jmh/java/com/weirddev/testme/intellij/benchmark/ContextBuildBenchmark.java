@@ -0,0 +1,47 @@
+package com.weirddev.testme.intellij.benchmark;
+
+import com.intellij.openapi.application.ReadAction;
+import com.weirddev.testme.intellij.generator.MockBuilderFactory;
+import com.weirddev.testme.intellij.generator.TestTemplateContextBuilder;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TemplateRegistry;
+import com.weirddev.testme.intellij.ui.template.TestMeTemplateManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Measures test template context building - tested class type resolution and internal references resolution.
+ */
+@State(Scope.Benchmark)
+public class ContextBuildBenchmark {
+    @Param({"bean", "collections", "constructors", "generics", "inheritance", "variousTypesOfArguments"})
+    public String testCase;
+    @Param({"1", "3", "5", "7", "9", "12", "15"})
+    public int maxRecursionDepth;
+    @Param({"false", "true"})
+    public boolean cacheResolvedTypes;
+
+    private final GenerationFixture generationFixture = new GenerationFixture();
+    private final TestTemplateContextBuilder testTemplateContextBuilder = new TestTemplateContextBuilder(new MockBuilderFactory());
+    private FileTemplateContext context;
+    private Properties defaultProperties;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        generationFixture.setUp(testCase);
+        context = ReadAction.compute(() -> generationFixture.createContext(TemplateRegistry.JUNIT4_MOCKITO_JAVA_TEMPLATE, maxRecursionDepth, cacheResolvedTypes));
+        defaultProperties = TestMeTemplateManager.getInstance(context.getProject()).getDefaultProperties();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        generationFixture.tearDown();
+    }
+
+    @Benchmark
+    public Map<String, Object> buildContext() {
+        return ReadAction.compute(() -> testTemplateContextBuilder.build(context, defaultProperties));
+    }
+}
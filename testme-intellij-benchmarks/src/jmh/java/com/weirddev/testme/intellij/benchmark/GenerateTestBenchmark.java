@@ -0,0 +1,59 @@
+package com.weirddev.testme.intellij.benchmark;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.EdtTestUtil;
+import com.weirddev.testme.intellij.generator.TestMeGenerator;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TemplateRegistry;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the complete test generation pipeline - context building, template merge, test file creation, imports optimization, FQN shortening and reformatting.
+ */
+@State(Scope.Benchmark)
+public class GenerateTestBenchmark {
+    @Param({"bean", "collections", "generics", "variousTypesOfArguments"})
+    public String testCase;
+    @Param({"1", "5", "9", "15"})
+    public int maxRecursionDepth;
+    @Param({TemplateRegistry.JUNIT4_MOCKITO_JAVA_TEMPLATE, TemplateRegistry.JUNIT5_MOCKITO_JAVA_TEMPLATE, TemplateRegistry.TESTNG_MOCKITO_JAVA_TEMPLATE, TemplateRegistry.JUNIT4_MOCKITO_GROOVY_TEMPLATE,
+            TemplateRegistry.SPOCK_MOCKITO_GROOVY_TEMPLATE, TemplateRegistry.SPOCK_PARAMETERIZED_MOCKITO_GROOVY_TEMPLATE, TemplateRegistry.SPECS2_MOCKITO_SCALA_TEMPLATE})
+    public String templateFilename;
+
+    private final GenerationFixture generationFixture = new GenerationFixture();
+    private final TestMeGenerator testMeGenerator = new TestMeGenerator();
+    private FileTemplateContext context;
+    private PsiFile generatedTestFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        generationFixture.setUp(testCase);
+        context = ReadAction.compute(() -> generationFixture.createContext(templateFilename, maxRecursionDepth, false));
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteGeneratedTest() {
+        if (generatedTestFile != null) {
+            EdtTestUtil.runInEdtAndWait(() -> WriteAction.run(() -> generatedTestFile.delete()));
+            generatedTestFile = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        generationFixture.tearDown();
+    }
+
+    @Benchmark
+    public PsiFile generateTest() {
+        EdtTestUtil.runInEdtAndWait(() -> CommandProcessor.getInstance().executeCommand(context.getProject(), () -> {
+            final PsiElement testClass = testMeGenerator.generateTest(context);
+            generatedTestFile = testClass == null ? null : testClass.getContainingFile();
+        }, "TestMe Generate Test", null));
+        return generatedTestFile;
+    }
+}
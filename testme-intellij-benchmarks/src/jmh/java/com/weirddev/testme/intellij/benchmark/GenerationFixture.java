@@ -0,0 +1,91 @@
+package com.weirddev.testme.intellij.benchmark;
+
+import com.intellij.ide.fileTemplates.FileTemplateDescriptor;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.projectRoots.JavaSdk;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.psi.JavaDirectoryService;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiPackage;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.*;
+import com.weirddev.testme.intellij.TestMePluginRegistration;
+import com.weirddev.testme.intellij.configuration.TestMeConfig;
+import com.weirddev.testme.intellij.template.FileTemplateConfig;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TemplateDescriptor;
+import com.weirddev.testme.intellij.template.TemplateRegistry;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Light IntelliJ project loaded with test subject sources from the integration tests test data.
+ */
+class GenerationFixture {
+    static final String TEST_SUBJECT_PACKAGE = "com.example.services.impl";
+    static final String TEST_SUBJECT_CLASS = "Foo";
+    private static final String TEST_DATA_PATH = System.getProperty("testMe.benchmark.testDataPath", "../testData");
+    private JavaCodeInsightTestFixture fixture;
+    private PsiClass testSubject;
+
+    void setUp(String testCase) throws Exception {
+        final TestFixtureBuilder<IdeaProjectTestFixture> fixtureBuilder = IdeaTestFixtureFactory.getFixtureFactory().createLightFixtureBuilder(createProjectDescriptor());
+        fixture = JavaTestFixtureFactory.getFixtureFactory().createCodeInsightFixture(fixtureBuilder.getFixture());
+        fixture.setTestDataPath(new File(TEST_DATA_PATH).getCanonicalPath());
+        EdtTestUtil.runInEdtAndWait(() -> {
+            fixture.setUp();
+            new TestMePluginRegistration().runActivity(fixture.getProject());
+            fixture.copyDirectoryToProject("testMeGenerator/" + testCase + "/src", "");
+            fixture.copyDirectoryToProject("commonSrc", "");
+            testSubject = fixture.findClass(TEST_SUBJECT_PACKAGE + "." + TEST_SUBJECT_CLASS);
+        });
+    }
+
+    void tearDown() throws Exception {
+        EdtTestUtil.runInEdtAndWait(() -> fixture.tearDown());
+    }
+
+    JavaCodeInsightTestFixture getFixture() {
+        return fixture;
+    }
+
+    FileTemplateContext createContext(String templateFilename, int maxRecursionDepth, boolean cacheResolvedTypes) {
+        final TemplateDescriptor templateDescriptor = findTemplate(templateFilename);
+        final FileTemplateConfig fileTemplateConfig = new FileTemplateConfig(new TestMeConfig());
+        fileTemplateConfig.setMaxRecursionDepth(maxRecursionDepth);
+        fileTemplateConfig.setCacheResolvedTypes(cacheResolvedTypes);
+        final PsiDirectory srcDir = testSubject.getContainingFile().getContainingDirectory();
+        final PsiPackage targetPackage = JavaDirectoryService.getInstance().getPackage(srcDir);
+        final Module module = fixture.getModule();
+        return new FileTemplateContext(new FileTemplateDescriptor(templateFilename), templateDescriptor.getLanguage(), fixture.getProject(), TEST_SUBJECT_CLASS + "Test",
+                targetPackage, module, module, srcDir, testSubject, fileTemplateConfig);
+    }
+
+    @NotNull
+    private static TemplateDescriptor findTemplate(String templateFilename) {
+        for (TemplateDescriptor templateDescriptor : new TemplateRegistry().getEnabledTemplateDescriptors()) {
+            if (templateDescriptor.getFilename().equals(templateFilename)) {
+                return templateDescriptor;
+            }
+        }
+        throw new IllegalStateException("template " + templateFilename + " is not registered or its language plugin is disabled");
+    }
+
+    @NotNull
+    private static LightProjectDescriptor createProjectDescriptor() {
+        return new DefaultLightProjectDescriptor() {
+            @Override
+            public Sdk getSdk() {
+                try {
+                    return JavaSdk.getInstance().createJdk("java 1.11", new File(System.getProperty("java.home")).getCanonicalPath(), false);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.weirddev.testme.intellij.benchmark;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.EdtTestUtil;
+import com.weirddev.testme.intellij.generator.CodeRefactorUtil;
+import com.weirddev.testme.intellij.generator.GeneratedCodePostProcessor;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TemplateRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Measures post processing of a new test file generated for a subject class of a given number of methods -
+ * post processing the classes generated from the template only, skipping the file header and imports, vs. post processing the whole test file.
+ */
+@State(Scope.Benchmark)
+public class NewFilePostProcessBenchmark {
+    private static final String TEST_FILE_PATH = "com/example/services/impl/BigServiceTest.java";
+    @Param({"10", "100", "300"})
+    public int subjectMethods;
+    @Param({"true", "false"})
+    public boolean generatedRangesOnly;
+
+    private final GenerationFixture generationFixture = new GenerationFixture();
+    private final GeneratedCodePostProcessor generatedCodePostProcessor = new GeneratedCodePostProcessor(new CodeRefactorUtil());
+    private FileTemplateContext context;
+    private String renderedTestFile;
+    private PsiFile testFile;
+    private Collection<? extends PsiElement> generatedElements;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        generationFixture.setUp("bean");
+        context = ReadAction.compute(() -> generationFixture.createContext(TemplateRegistry.JUNIT4_MOCKITO_JAVA_TEMPLATE, 1, false));
+        renderedTestFile = PostProcessBenchmark.renderTestFile(subjectMethods);
+    }
+
+    @Setup(Level.Invocation)
+    public void createTestFile() {
+        EdtTestUtil.runInEdtAndWait(() -> {
+            testFile = generationFixture.getFixture().addFileToProject(TEST_FILE_PATH, renderedTestFile);
+            generatedElements = generatedRangesOnly ? GeneratedCodePostProcessor.findGeneratedElements(testFile) : Collections.singletonList(testFile);
+        });
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteTestFile() {
+        EdtTestUtil.runInEdtAndWait(() -> WriteAction.run(() -> testFile.delete()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        generationFixture.tearDown();
+    }
+
+    @Benchmark
+    public PsiFile postProcess() {
+        EdtTestUtil.runInEdtAndWait(() -> CommandProcessor.getInstance().executeCommand(context.getProject(),
+                () -> WriteAction.run(() -> generatedCodePostProcessor.postProcess(context, testFile, generatedElements, true)), "TestMe Generate Test", null));
+        return testFile;
+    }
+}
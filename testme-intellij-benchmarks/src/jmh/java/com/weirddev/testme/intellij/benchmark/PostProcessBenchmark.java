@@ -0,0 +1,96 @@
+package com.weirddev.testme.intellij.benchmark;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.testFramework.EdtTestUtil;
+import com.weirddev.testme.intellij.generator.CodeRefactorUtil;
+import com.weirddev.testme.intellij.generator.GeneratedCodePostProcessor;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TemplateRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures FQN shortening and reformatting of tests generated for a subject class of 300 methods, when only the tests of changed methods were generated -
+ * post processing the generated ranges only, vs. post processing the whole test file.
+ */
+@State(Scope.Benchmark)
+public class PostProcessBenchmark {
+    private static final int SUBJECT_METHODS = 300;
+    private static final String TEST_FILE_PATH = "com/example/services/impl/BigServiceTest.java";
+    @Param({"1", "10", "100"})
+    public int changedMethods;
+    @Param({"true", "false"})
+    public boolean generatedRangesOnly;
+
+    private final GenerationFixture generationFixture = new GenerationFixture();
+    private final GeneratedCodePostProcessor generatedCodePostProcessor = new GeneratedCodePostProcessor(new CodeRefactorUtil());
+    private FileTemplateContext context;
+    private String renderedTestFile;
+    private PsiFile testFile;
+    private Collection<? extends PsiElement> generatedElements;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        generationFixture.setUp("bean");
+        context = ReadAction.compute(() -> generationFixture.createContext(TemplateRegistry.JUNIT4_MOCKITO_JAVA_TEMPLATE, 1, false));
+        renderedTestFile = renderTestFile(SUBJECT_METHODS);
+    }
+
+    @Setup(Level.Invocation)
+    public void createTestFile() {
+        EdtTestUtil.runInEdtAndWait(() -> {
+            testFile = generationFixture.getFixture().addFileToProject(TEST_FILE_PATH, renderedTestFile);
+            if (generatedRangesOnly) {
+                final PsiClass testClass = ((PsiJavaFile) testFile).getClasses()[0];
+                final List<PsiMethod> testMethods = Arrays.asList(testClass.getMethods());
+                generatedElements = testMethods.subList(testMethods.size() - changedMethods, testMethods.size());
+            } else {
+                generatedElements = Collections.singletonList(testFile);
+            }
+        });
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteTestFile() {
+        EdtTestUtil.runInEdtAndWait(() -> WriteAction.run(() -> testFile.delete()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        generationFixture.tearDown();
+    }
+
+    @Benchmark
+    public PsiFile postProcess() {
+        EdtTestUtil.runInEdtAndWait(() -> CommandProcessor.getInstance().executeCommand(context.getProject(),
+                () -> WriteAction.run(() -> generatedCodePostProcessor.postProcess(context, testFile, generatedElements, false)), "TestMe Generate Test", null));
+        return testFile;
+    }
+
+    /**
+     * @return test class as rendered for a subject class with given number of methods - fully qualified references, not formatted
+     */
+    static String renderTestFile(int methods) {
+        final StringBuilder sb = new StringBuilder("/*\n * Generated by TestMe\n */\npackage com.example.services.impl;\n\nimport org.junit.Assert;\nimport org.junit.Test;\n\npublic class BigServiceTest {\n");
+        for (int i = 0; i < methods; i++) {
+            sb.append("@Test\npublic void testMethod").append(i).append("() throws Exception {\n")
+                    .append("java.util.List<java.lang.String> result =   new java.util.ArrayList<java.lang.String>( );\n")
+                    .append("java.util.Map<java.lang.String,java.math.BigDecimal> values=new java.util.HashMap<java.lang.String,java.math.BigDecimal>();\n")
+                    .append("values.put( \"key\" ,new java.math.BigDecimal(").append(i).append("));\n")
+                    .append("Assert.assertEquals(  java.util.Collections.<java.lang.String>emptyList(),result );\n")
+                    .append("}\n");
+        }
+        return sb.append("}\n").toString();
+    }
+}
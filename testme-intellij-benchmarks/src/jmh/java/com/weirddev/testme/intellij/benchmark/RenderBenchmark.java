@@ -0,0 +1,79 @@
+package com.weirddev.testme.intellij.benchmark;
+
+import com.intellij.ide.fileTemplates.FileTemplate;
+import com.intellij.openapi.application.ReadAction;
+import com.weirddev.testme.intellij.generator.MockBuilderFactory;
+import com.weirddev.testme.intellij.generator.TestTemplateContextBuilder;
+import com.weirddev.testme.intellij.template.FileTemplateContext;
+import com.weirddev.testme.intellij.template.TemplateRegistry;
+import com.weirddev.testme.intellij.template.context.Method;
+import com.weirddev.testme.intellij.template.context.TestBuilder;
+import com.weirddev.testme.intellij.template.context.TestMeTemplateParams;
+import com.weirddev.testme.intellij.template.context.Type;
+import com.weirddev.testme.intellij.ui.template.TestMeTemplateManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures rendering of a test from a built test template context - test params rendering by the language test builder and the complete velocity template merge.
+ * The context is rebuilt before each invocation, since its test builder keeps the code it renders. Rebuilding it is not measured.
+ */
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+    @Param({"bean", "collections", "constructors", "generics", "inheritance", "variousTypesOfArguments"})
+    public String testCase;
+    @Param({"1", "3", "5", "7", "9", "12", "15"})
+    public int maxRecursionDepth;
+    @Param({TemplateRegistry.JUNIT4_MOCKITO_JAVA_TEMPLATE, TemplateRegistry.JUNIT5_MOCKITO_JAVA_TEMPLATE, TemplateRegistry.TESTNG_MOCKITO_JAVA_TEMPLATE, TemplateRegistry.JUNIT4_MOCKITO_GROOVY_TEMPLATE,
+            TemplateRegistry.SPOCK_MOCKITO_GROOVY_TEMPLATE, TemplateRegistry.SPOCK_PARAMETERIZED_MOCKITO_GROOVY_TEMPLATE, TemplateRegistry.SPECS2_MOCKITO_SCALA_TEMPLATE})
+    public String templateFilename;
+
+    private final GenerationFixture generationFixture = new GenerationFixture();
+    private FileTemplateContext context;
+    private TestMeTemplateManager templateManager;
+    private Map<String, Object> templateCtxtParams;
+    private FileTemplate fileTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        generationFixture.setUp(testCase);
+        context = ReadAction.compute(() -> generationFixture.createContext(templateFilename, maxRecursionDepth, false));
+        templateManager = TestMeTemplateManager.getInstance(context.getProject());
+        fileTemplate = templateManager.getInternalTemplate(templateFilename);
+    }
+
+    /**
+     * builds a fresh template context, so code rendered by previous invocations is not reused
+     */
+    @Setup(Level.Invocation)
+    public void buildTemplateContext() {
+        templateCtxtParams = ReadAction.compute(() -> new TestTemplateContextBuilder(new MockBuilderFactory()).build(context, templateManager.getDefaultProperties()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        generationFixture.tearDown();
+    }
+
+    @Benchmark
+    public void renderTestedMethodsParams(Blackhole blackhole) throws Exception {
+        final TestBuilder testBuilder = (TestBuilder) templateCtxtParams.get(TestMeTemplateParams.TestBuilder);
+        final Type testedClass = (Type) templateCtxtParams.get(TestMeTemplateParams.TESTED_CLASS);
+        ReadAction.run(() -> {
+            for (Method method : testedClass.getMethods()) {
+                blackhole.consume(testBuilder.renderMethodParams(method, new HashMap<>(), new HashMap<>()));
+                if (method.getReturnType() != null) {
+                    blackhole.consume(testBuilder.renderReturnParam(method, method.getReturnType(), "expected", new HashMap<>(), new HashMap<>()));
+                }
+            }
+        });
+    }
+
+    @Benchmark
+    public String mergeTemplate() throws Exception {
+        return ReadAction.compute(() -> fileTemplate.getText(templateCtxtParams));
+    }
+}
@@ -1,11 +1,11 @@
 package com.weirddev.testme.intellij.common.reflection;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.UndeclaredThrowableException;
 
 /**
  * Date: 30/12/2017
@@ -14,24 +14,22 @@ import java.util.Arrays;
  */
 public class MethodReflectionUtils {
     private static final Logger LOG = Logger.getInstance(MethodReflectionUtils.class.getName());
+    /**
+     * invokes the method of ownerClass returning returnClass, as found by {@link ReflectiveAccess#findDeclaredNoArgMethod(Class, Class, String)}
+     */
     @Nullable
     public static <T> T getReturnTypeReflectively(Object object, Class ownerClass, Class<T> returnClass, @Nullable String  methodName,Object... params) {
         T returnInstance = null;
         try {
-            Method delegateMethod = null;
-            for (Method method : ownerClass.getDeclaredMethods()) {
-                final Class<?>[] parameters = method.getParameterTypes();
-                if (method.getReturnType()!=null && returnClass.isAssignableFrom( method.getReturnType()) && (parameters == null || parameters.length == 0) && (methodName == null || methodName.equals(method.getName()))) {
-                    delegateMethod = method;
-                }
-            }
+            final MethodHandle delegateMethod = ReflectiveAccess.findDeclaredNoArgMethod(ownerClass, returnClass, methodName);
             if (delegateMethod != null) {
-                delegateMethod.setAccessible(true);
-                final Object obj = delegateMethod.invoke(object,params);
+                final Object obj = invoke(delegateMethod, object, params);
                 if (obj != null && returnClass.isAssignableFrom(obj.getClass()) /*returnClass.isInstance(obj)*/) {
                     returnInstance = (T) obj;
                 }
             }
+        } catch (ProcessCanceledException e) {
+            throw e;
         } catch (Exception e) {
             LOG.error("Failed to invoke a method returning "+ returnClass.getSimpleName()+" on type "+ownerClass.getSimpleName(), e);
         }
@@ -40,6 +38,26 @@ public class MethodReflectionUtils {
         }
         return returnInstance;
     }
+
+    /**
+     * Invokes methodHandle, rethrowing errors. Throwables that are neither exceptions nor errors are wrapped in {@link UndeclaredThrowableException}
+     */
+    private static Object invoke(MethodHandle methodHandle, Object object, @Nullable Object[] params) throws Exception {
+        try {
+            return params == null || params.length == 0 ? methodHandle.invoke(object) : methodHandle.invokeWithArguments(prepend(object, params));
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private static Object[] prepend(Object object, Object[] params) {
+        final Object[] args = new Object[params.length + 1];
+        args[0] = object;
+        System.arraycopy(params, 0, args, 1, params.length);
+        return args;
+    }
 //    @Nullable
 //    public static Object callConstructorReflectively(Class clazz, Object... args) {
 //        try {
@@ -63,16 +81,13 @@ public class MethodReflectionUtils {
     @Nullable
     public static  <T> T invokeMethodReflectivelyWithFallback(Object owner, Class<T> returnClass, String methodName, @Nullable String fallbackMethodName) {
         Object resultObj = null;
-        Method returnTypeMethod = null;
-        try {
-            returnTypeMethod = owner.getClass().getMethod(methodName);
-        } catch (NoSuchMethodException e) {
-            LOG.info("first method search failed",e);
+        MethodHandle returnTypeMethod = ReflectiveAccess.findPublicMethod(owner.getClass(), methodName);
+        if (returnTypeMethod == null) {
+            LOG.debug("first method search failed");
             if (fallbackMethodName != null) {
-                try {
-                    returnTypeMethod = owner.getClass().getMethod(fallbackMethodName);
-                } catch (NoSuchMethodException e1) {
-                    LOG.warn("second method search failed",e);
+                returnTypeMethod = ReflectiveAccess.findPublicMethod(owner.getClass(), fallbackMethodName);
+                if (returnTypeMethod == null) {
+                    LOG.debug("second method search failed");
                 }
             }
         }
@@ -80,8 +95,10 @@ public class MethodReflectionUtils {
 
         if (returnTypeMethod != null) {
             try {
-                returnObj = returnTypeMethod.invoke(owner);
-            } catch (Throwable e) {
+                returnObj = invoke(returnTypeMethod, owner, null);
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
                 LOG.warn("method invocation failed",e);
             }
         }
@@ -0,0 +1,155 @@
+package com.weirddev.testme.intellij.common.reflection;
+
+import com.intellij.ide.plugins.DynamicPluginListener;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves classes and methods of optional plugins reflectively, once. Method handles are kept per owner class, by member signature, and classes are kept by name - including negative results,
+ * so an api missing in the installed plugin version is looked up once rather than per PSI element.
+ * Cached classes and handles reference classes of other plugins, so both caches are cleared before any plugin is unloaded, and once a plugin is loaded so apis it adds are looked up again - see {@link CachesCleaner}.
+ */
+public class ReflectiveAccess {
+    private static final Logger LOG = Logger.getInstance(ReflectiveAccess.class.getName());
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, Map<MemberKey, Optional<MethodHandle>>> methodHandles = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<Class<?>>> classes = new ConcurrentHashMap<>();
+
+    /**
+     * @return class with given name, as loaded by the plugin class loader. null if not found
+     */
+    @Nullable
+    public static Class<?> findClass(@NotNull String className) {
+        return classes.computeIfAbsent(className, name -> {
+            try {
+                return Optional.of(Class.forName(name));
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOG.debug("class " + name + " not found", e);
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * @return handle of the last method declared in ownerClass, with no params, named methodName if given, and with a return type assignable to returnClass. null if not found
+     */
+    @Nullable
+    public static MethodHandle findDeclaredNoArgMethod(@NotNull Class<?> ownerClass, @NotNull Class<?> returnClass, @Nullable String methodName) {
+        return getMethodHandles(ownerClass).computeIfAbsent(new MemberKey(true, returnClass, methodName), key -> {
+            Method delegateMethod = null;
+            for (Method method : ownerClass.getDeclaredMethods()) {
+                if (returnClass.isAssignableFrom(method.getReturnType()) && method.getParameterCount() == 0 && (methodName == null || methodName.equals(method.getName()))) {
+                    delegateMethod = method;
+                }
+            }
+            return unreflect(delegateMethod, true);
+        }).orElse(null);
+    }
+
+    /**
+     * @return handle of the public method of ownerClass, as found by {@link Class#getMethod(String, Class[])}. null if not found
+     */
+    @Nullable
+    public static MethodHandle findPublicMethod(@NotNull Class<?> ownerClass, @NotNull String methodName, Class<?>... parameterTypes) {
+        return getMethodHandles(ownerClass).computeIfAbsent(new MemberKey(false, null, methodName, parameterTypes), key -> {
+            try {
+                return unreflect(ownerClass.getMethod(methodName, parameterTypes), false);
+            } catch (NoSuchMethodException e) {
+                LOG.debug("method " + methodName + " not found on type " + ownerClass.getName(), e);
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Discards all cached classes and method handles
+     */
+    public static void clearCaches() {
+        classes.clear();
+        methodHandles.clear();
+    }
+
+    @NotNull
+    private static Map<MemberKey, Optional<MethodHandle>> getMethodHandles(@NotNull Class<?> ownerClass) {
+        return methodHandles.computeIfAbsent(ownerClass, type -> new ConcurrentHashMap<>());
+    }
+
+    @NotNull
+    private static Optional<MethodHandle> unreflect(@Nullable Method method, boolean setAccessible) {
+        if (method == null) {
+            return Optional.empty();
+        }
+        try {
+            if (setAccessible) {
+                method.setAccessible(true);
+            }
+            final MethodHandle methodHandle = LOOKUP.unreflect(method);
+            //static methods are invoked as instance methods are, ignoring the owner object
+            return Optional.of(Modifier.isStatic(method.getModifiers()) ? MethodHandles.dropArguments(methodHandle, 0, Object.class) : methodHandle);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOG.debug("method " + method + " is not accessible", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Clears the caches before a plugin is unloaded, so classes of the unloaded plugin - or of this plugin when it is the one unloaded - are not held.
+     * Clears them once a plugin is loaded as well, so classes and methods previously not found are looked up again, i.e. when an optional plugin is installed or updated
+     */
+    public static class CachesCleaner implements DynamicPluginListener {
+        @Override
+        public void beforePluginUnload(@NotNull IdeaPluginDescriptor pluginDescriptor, boolean isUpdate) {
+            LOG.debug("clearing reflective access caches before unloading plugin " + pluginDescriptor.getPluginId());
+            clearCaches();
+        }
+
+        @Override
+        public void pluginLoaded(@NotNull IdeaPluginDescriptor pluginDescriptor) {
+            LOG.debug("clearing reflective access caches once loaded plugin " + pluginDescriptor.getPluginId());
+            clearCaches();
+        }
+    }
+
+    private static final class MemberKey {
+        private final boolean declared;
+        @Nullable
+        private final Class<?> returnClass;
+        @Nullable
+        private final String name;
+        private final Class<?>[] parameterTypes;
+
+        private MemberKey(boolean declared, @Nullable Class<?> returnClass, @Nullable String name, Class<?>... parameterTypes) {
+            this.declared = declared;
+            this.returnClass = returnClass;
+            this.name = name;
+            this.parameterTypes = parameterTypes == null ? new Class<?>[0] : parameterTypes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemberKey)) return false;
+            MemberKey memberKey = (MemberKey) o;
+            return declared == memberKey.declared && returnClass == memberKey.returnClass && Objects.equals(name, memberKey.name) && Arrays.equals(parameterTypes, memberKey.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(declared, returnClass, name);
+            result = 31 * result + Arrays.hashCode(parameterTypes);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.weirddev.testme.intellij.resolvers;
+
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.weirddev.testme.intellij.resolvers.to.ResolvedMethodCall;
+import com.weirddev.testme.intellij.resolvers.to.ResolvedReference;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Elements of interest found in a method implementation. The method is traversed once, when analyzed, while elements of each kind are resolved on first request.
+ */
+public interface MethodBodyAnalysis {
+    /**
+     * @return methods called from the analyzed method
+     */
+    @NotNull
+    Collection<ResolvedMethodCall> findMethodCalls();
+
+    /**
+     * @return field and property references in the analyzed method
+     */
+    @NotNull
+    List<ResolvedReference> findReferences();
+
+    /**
+     * @return methods referenced from the analyzed method. i.e.  SomeClassName::someMethodName
+     */
+    @NotNull
+    List<PsiMethod> findMethodReferences();
+
+    /**
+     * @return fields psiParameter of the analyzed method is assigned to
+     */
+    @NotNull
+    List<PsiField> findFieldsAssignedFrom(@NotNull PsiParameter psiParameter);
+}
@@ -0,0 +1,145 @@
+package com.weirddev.testme.intellij.groovy.resolvers;
+
+import com.intellij.psi.*;
+import com.weirddev.testme.intellij.common.utils.LanguageUtils;
+import com.weirddev.testme.intellij.resolvers.MethodBodyAnalysis;
+import com.weirddev.testme.intellij.resolvers.to.MethodCallArg;
+import com.weirddev.testme.intellij.resolvers.to.ResolvedMethodCall;
+import com.weirddev.testme.intellij.resolvers.to.ResolvedReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.groovy.lang.psi.api.statements.arguments.GrArgumentList;
+import org.jetbrains.plugins.groovy.lang.psi.api.statements.expressions.GrCall;
+import org.jetbrains.plugins.groovy.lang.psi.api.statements.expressions.GrReferenceExpression;
+import org.jetbrains.plugins.groovy.lang.psi.api.statements.typedef.members.GrMethod;
+import org.jetbrains.plugins.groovy.lang.psi.impl.statements.arguments.GrArgumentLabelImpl;
+
+import java.util.*;
+
+/**
+ * Analyzes a groovy method implementation in a single traversal, collecting calls, argument labels and reference expressions.
+ * Collected elements are resolved on first request. Reference expressions are shared by the calls, references and assigned fields lookups.
+ */
+public class GroovyMethodBodyAnalyzer implements MethodBodyAnalysis {
+    private final List<GrCall> calls = new ArrayList<>();
+    private final List<GrArgumentLabelImpl> argumentLabels = new ArrayList<>();
+    private final List<GrReferenceExpression> referenceExpressions = new ArrayList<>();
+    private Set<ResolvedMethodCall> methodCalls;
+    private List<ResolvedReference> references;
+
+    public GroovyMethodBodyAnalyzer(@NotNull PsiElement psiMethod) {
+        psiMethod.accept(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                if (element != psiMethod) {
+                    if (element instanceof GrCall) {
+                        calls.add((GrCall) element);
+                    }
+                    if (element instanceof GrArgumentLabelImpl) {
+                        argumentLabels.add((GrArgumentLabelImpl) element);
+                    }
+                    if (element instanceof GrReferenceExpression) {
+                        referenceExpressions.add((GrReferenceExpression) element);
+                    }
+                }
+                super.visitElement(element);
+            }
+        });
+    }
+
+    @NotNull
+    @Override
+    public synchronized Set<ResolvedMethodCall> findMethodCalls() {
+        if (methodCalls == null) {
+            methodCalls = new HashSet<>();
+            for (GrCall grMethodCallExpression : calls) {
+                final GrArgumentList argumentList = grMethodCallExpression.getArgumentList();
+                final ArrayList<MethodCallArg> methodCallArguments = new ArrayList<>();
+                if (argumentList != null) {
+                    for (PsiElement psiElement : argumentList.getChildren()) {
+                        if (psiElement instanceof PsiJavaToken) {
+                            continue;
+                        }
+                        methodCallArguments.add(new MethodCallArg(psiElement.getText()==null?"":psiElement.getText().trim()));
+                    }
+                }
+                final PsiMethod psiMethodResolved  = grMethodCallExpression.resolveMethod();//todo fix issue with methods not resolved in old idea versions
+                if (psiMethodResolved != null) {
+                    methodCalls.add(new ResolvedMethodCall(psiMethodResolved,methodCallArguments));
+                }
+            }
+            for (GrArgumentLabelImpl grArgumentLabel : argumentLabels) {
+                final PsiElement psiElement = grArgumentLabel.resolve();
+                if (psiElement instanceof PsiMethod) {
+                    methodCalls.add(new ResolvedMethodCall((PsiMethod) psiElement,null));//todo resolve args for this scenario as well?
+                }
+            }
+            for (GrReferenceExpression grReferenceExpression : referenceExpressions) {
+                final PsiElement psiElement = grReferenceExpression.resolve();
+                if (psiElement!= null && (LanguageUtils.isGroovy(psiElement.getLanguage()) && psiElement instanceof GrMethod  || !LanguageUtils.isGroovy(psiElement.getLanguage())  && psiElement instanceof PsiMethod) ) {
+                    methodCalls.add(new ResolvedMethodCall((PsiMethod) psiElement,null));//todo resolve args
+                }
+            }
+        }
+        return methodCalls;
+    }
+
+    @NotNull
+    @Override
+    public synchronized List<ResolvedReference> findReferences() {
+        if (references == null) {
+            references = new ArrayList<>();
+            for (GrReferenceExpression grReferenceExpression : referenceExpressions) {
+                final PsiType refType = grReferenceExpression.getType();
+                final PsiElement psiElement = grReferenceExpression.resolve();
+                if (refType != null && !(psiElement instanceof GrMethod) && (psiElement==null || LanguageUtils.isGroovy(psiElement.getLanguage()) || !(psiElement instanceof PsiMethod))) {
+                    final PsiType psiOwnerType = grReferenceExpression.getLastChild()==null?null:resolveOwnerType(grReferenceExpression.getLastChild());
+                    if (psiOwnerType != null) {
+                        references.add(new ResolvedReference(grReferenceExpression.getReferenceName() , refType, psiOwnerType));
+                    }
+                }
+            }
+        }
+        return references;
+    }
+
+    /**
+     * @return empty list. groovy method references are resolved as method calls
+     */
+    @NotNull
+    @Override
+    public List<PsiMethod> findMethodReferences() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * only references named as psiParameter are resolved
+     */
+    @NotNull
+    @Override
+    public List<PsiField> findFieldsAssignedFrom(@NotNull PsiParameter psiParameter) {
+        final List<PsiField> fields = new ArrayList<>();
+        final String parameterName = psiParameter.getName();
+        for (GrReferenceExpression grReferenceExpression : referenceExpressions) {
+            if (parameterName.equals(grReferenceExpression.getReferenceName()) && grReferenceExpression.isReferenceTo(psiParameter)) {
+                final PsiField psiField = GroovyPsiTreeUtils.resolveGrLeftHandExpressionAsField(grReferenceExpression);
+                if (psiField != null) {
+                    fields.add(psiField);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static PsiType resolveOwnerType(PsiElement psiElement) {
+        boolean dotAppeared = false;
+        for(PsiElement prevSibling  = psiElement.getPrevSibling();prevSibling!=null;prevSibling=prevSibling.getPrevSibling()) {
+            if(".".equals(prevSibling.getText())) {
+                dotAppeared = true;
+            }
+            else if(dotAppeared && prevSibling instanceof GrReferenceExpression ) {
+                return GroovyPsiTreeUtils.resolveType(prevSibling);
+            }
+        }
+        return null;
+    }
+}
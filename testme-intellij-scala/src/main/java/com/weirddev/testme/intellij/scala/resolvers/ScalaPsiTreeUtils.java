@@ -8,6 +8,7 @@ import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.weirddev.testme.intellij.common.reflection.MethodReflectionUtils;
+import com.weirddev.testme.intellij.common.reflection.ReflectiveAccess;
 import com.weirddev.testme.intellij.resolvers.to.MethodCallArg;
 import com.weirddev.testme.intellij.resolvers.to.ResolvedMethodCall;
 import com.weirddev.testme.intellij.scala.utils.GenericsExpressionParser;
@@ -45,7 +46,7 @@ import scala.Option;
 import scala.collection.Seq;
 import scala.util.Either;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -191,7 +192,22 @@ public class ScalaPsiTreeUtils {
         if (psiMethod instanceof ScFunctionWrapper) {
             final ScFunction function = resolveFunction(((ScFunctionWrapper) psiMethod));
             if (function != null) {
-                final Collection<ScMethodCall> scMethodCall = PsiTreeUtil.findChildrenOfType(function, ScMethodCall.class);
+                final List<ScMethodCall> scMethodCall = new ArrayList<>();
+                final List<ScReferenceExpression> scReferenceExpressions = new ArrayList<>();
+                function.accept(new PsiRecursiveElementWalkingVisitor() {
+                    @Override
+                    public void visitElement(@NotNull PsiElement element) {
+                        if (element != function) {
+                            if (element instanceof ScMethodCall) {
+                                scMethodCall.add((ScMethodCall) element);
+                            }
+                            if (element instanceof ScReferenceExpression) {
+                                scReferenceExpressions.add((ScReferenceExpression) element);
+                            }
+                        }
+                        super.visitElement(element);
+                    }
+                });
                 for (ScMethodCall methodCall : scMethodCall) {
                     final ScExpression scExpression = methodCall.deepestInvokedExpr();
                     if (scExpression instanceof ScReferenceExpressionImpl) {
@@ -211,7 +227,6 @@ public class ScalaPsiTreeUtils {
                     }
                 }
                 //find used method refs
-                final Collection<ScReferenceExpression> scReferenceExpressions = PsiTreeUtil.findChildrenOfType(function, ScReferenceExpression.class);
                 for (ScReferenceExpression scReferenceExpression : scReferenceExpressions) {
                     final PsiElement resolvedPsiElement = scReferenceExpression.resolve();
                     LOG.debug("for method "+psiMethod.getText()+" found expression: "+scReferenceExpression.getText()+". which resolves to "+resolvedPsiElement+". that is "+(resolvedPsiElement==null?"null":resolvedPsiElement.getText()));
@@ -411,13 +426,17 @@ public class ScalaPsiTreeUtils {
     @Nullable
     private static ScType getTypingContextReturnValueReflectively(Typeable typeable) {
         try {
-            final Class<?> typingContextClass = Class.forName("org.jetbrains.plugins.scala.lang.psi.types.result.TypingContext");
+            final Class<?> typingContextClass = ReflectiveAccess.findClass("org.jetbrains.plugins.scala.lang.psi.types.result.TypingContext");
+            if (typingContextClass == null) {
+                LOG.debug("could not find TypingContext class. this seams to be an up to date version of idea scala plugin");
+                return null;
+            }
             final Object typingContext = MethodReflectionUtils.getReturnTypeReflectively(typeable, Typeable.class, typingContextClass,null);
             if (typingContext != null) {
-                final Method getTypeMethod = typeable.getClass().getMethod("getType", typingContextClass);
-                final Object result = getTypeMethod.invoke(typeable, typingContext);
+                final MethodHandle getTypeMethod = ReflectiveAccess.findPublicMethod(typeable.getClass(), "getType", typingContextClass);
+                final Object result = getTypeMethod == null ? null : getTypeMethod.invoke(typeable, typingContext);
                 if (result != null && result.getClass().getCanonicalName().equals("org.jetbrains.plugins.scala.lang.psi.types.result.Success")) {
-                    final Method getMethod = result.getClass().getMethod("get");
+                    final MethodHandle getMethod = ReflectiveAccess.findPublicMethod(result.getClass(), "get");
                     if (getMethod != null) {
                         final Object type = getMethod.invoke(result);
                         if (type instanceof ScType) {
@@ -426,7 +445,7 @@ public class ScalaPsiTreeUtils {
                     }
                 }
             }
-        } catch (Exception e) {
+        } catch (Throwable e) {
             LOG.info("could not find Typeable.getType(TypingContext) method. this seams to be an up to date version of idea scala plugin", e);
         }
         return null;